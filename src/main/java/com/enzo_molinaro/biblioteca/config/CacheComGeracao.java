@@ -0,0 +1,111 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache do Caffeine em que cada valor guarda a geração em que começou a ser calculado. O
+ * {@link #clear()} avança a geração antes de limpar: o Caffeine não descarta uma entrada cujo
+ * cálculo ainda está em andamento ({@code @Cacheable(sync = true)}), e um relatório que começou
+ * antes de um commit e termina depois da limpeza seria guardado com os dados antigos até o
+ * próximo evento ou a expiração. Com a geração antiga, a leitura seguinte o descarta e recalcula.
+ */
+final class CacheComGeracao implements Cache {
+
+    private record Valor(long geracao, Object conteudo) {
+    }
+
+    private final String nome;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
+    private final AtomicLong geracao = new AtomicLong();
+
+    CacheComGeracao(String nome, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        this.nome = nome;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return nome;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object conteudo = atual(key);
+        return conteudo == null ? null : new SimpleValueWrapper(conteudo);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Object conteudo = atual(key);
+        if (conteudo != null && type != null && !type.isInstance(conteudo)) {
+            throw new IllegalStateException("Valor em cache não é do tipo " + type.getName() + ": " + conteudo);
+        }
+        return (T) conteudo;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Valor valor = carregar(key, valueLoader);
+        if (valor.geracao() != geracao.get()) {
+            // Calculado (ou iniciado) antes de uma invalidação: descarta e calcula de novo uma vez. Se
+            // outra invalidação chegar durante o novo cálculo, ele ainda é posterior a esta chamada
+            cache.asMap().remove(key, valor);
+            valor = carregar(key, valueLoader);
+        }
+        return (T) valor.conteudo();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cache.put(key, new Valor(geracao.get(), value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Valor anterior = (Valor) cache.asMap().putIfAbsent(key, new Valor(geracao.get(), value));
+        return anterior == null ? null : new SimpleValueWrapper(anterior.conteudo());
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        geracao.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private Valor carregar(Object key, Callable<?> valueLoader) {
+        long inicio = geracao.get();
+        return (Valor) cache.get(key, chave -> {
+            try {
+                return new Valor(inicio, valueLoader.call());
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(chave, valueLoader, ex);
+            }
+        });
+    }
+
+    private Object atual(Object key) {
+        Valor valor = (Valor) cache.getIfPresent(key);
+        if (valor == null) return null;
+        if (valor.geracao() != geracao.get()) {
+            cache.asMap().remove(key, valor);
+            return null;
+        }
+        return valor.conteudo();
+    }
+}
@@ -0,0 +1,53 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caches dos relatórios, por parâmetros. Os eventos de empréstimos, livros e usuários marcam os
+ * caches afetados, limpos a cada poucos segundos ({@code InvalidacaoRelatoriosService}); a
+ * expiração é só uma garantia para alterações feitas fora da aplicação. Cada cache é um
+ * {@link CacheComGeracao}, para que a limpeza alcance também os relatórios ainda em cálculo.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String LIVROS_MAIS_EMPRESTADOS = "relatorio-livros-mais-emprestados";
+    public static final String USUARIOS_MAIS_ATIVOS = "relatorio-usuarios-mais-ativos";
+    public static final String EMPRESTIMOS_POR_PERIODO = "relatorio-emprestimos-por-periodo";
+    public static final String PROXIMOS_DO_VENCIMENTO = "relatorio-proximos-do-vencimento";
+    public static final String LIVROS_POR_CATEGORIA = "relatorio-livros-por-categoria";
+
+    // Combinações de parâmetros guardadas por relatório
+    private static final int MAXIMO_ENTRADAS = 200;
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${biblioteca.relatorios.expiracao-ms:600000}") long expiracaoMs) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                                               com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new CacheComGeracao(name, cache);
+            }
+        };
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(MAXIMO_ENTRADAS)
+                .expireAfterWrite(Duration.ofMillis(expiracaoMs)));
+        cacheManager.setAllowNullValues(false);
+        // Só os caches declarados: um nome desconhecido falha em vez de criar um cache sem limites
+        cacheManager.setCacheNames(List.of(LIVROS_MAIS_EMPRESTADOS, USUARIOS_MAIS_ATIVOS,
+                EMPRESTIMOS_POR_PERIODO, PROXIMOS_DO_VENCIMENTO, LIVROS_POR_CATEGORIA));
+        return cacheManager;
+    }
+}
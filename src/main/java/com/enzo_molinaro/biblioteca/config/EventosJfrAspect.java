@@ -0,0 +1,145 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingLivrosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingUsuariosDTO;
+import com.enzo_molinaro.biblioteca.jfr.EmprestimoJfr;
+import com.enzo_molinaro.biblioteca.jfr.ListagemJfr;
+import com.enzo_molinaro.biblioteca.jfr.RelatorioJfr;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Emite os eventos do Java Flight Recorder de {@code com.enzo_molinaro.biblioteca.jfr}, para
+ * cruzar picos de CPU, alocação e GC de uma gravação com as operações de negócio.
+ * <p>
+ * Sem gravação (ou com o evento desligado na configuração), {@code isEnabled()} é falso e a
+ * chamada segue direto: o evento não chega a escapar e o custo fica no teste da flag. Fica por
+ * fora das métricas, para que a duração do evento cubra tudo o que o chamador esperou.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 4)
+public class EventosJfrAspect {
+
+    @Around("execution(* com.enzo_molinaro.biblioteca.service.EmprestimoService.criar(..)) || " +
+            "execution(* com.enzo_molinaro.biblioteca.service.EmprestimoService.devolver(..)) || " +
+            "execution(* com.enzo_molinaro.biblioteca.service.EmprestimoService.renovar(..))")
+    public Object registrarEmprestimo(ProceedingJoinPoint joinPoint) throws Throwable {
+        EmprestimoJfr evento = new EmprestimoJfr();
+        if (!evento.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        Object[] argumentos = joinPoint.getArgs();
+        evento.setOperacao(joinPoint.getSignature().getName());
+        if (argumentos.length > 0 && argumentos[0] instanceof Long id) {
+            evento.setEmprestimoId(id);
+        }
+        evento.setResultado("sucesso");
+        MonitorSql.Consumo consumo = MonitorSql.iniciar();
+        evento.vincular();
+        evento.begin();
+        try {
+            Object resposta = joinPoint.proceed();
+            if (resposta instanceof EmprestimoResponseDTO emprestimo && emprestimo.getId() != null) {
+                evento.setEmprestimoId(emprestimo.getId());
+            }
+            return resposta;
+        } catch (Throwable ex) {
+            evento.setResultado(MetricasServicosAspect.resultadoDe(ex));
+            evento.setMotivo(MetricasServicosAspect.motivoDe(ex));
+            throw ex;
+        } finally {
+            evento.end();
+            evento.desvincular();
+            consumo.encerrar();
+            if (evento.shouldCommit()) {
+                evento.setConsultasSql(consumo.consultas());
+                evento.setTempoNoBanco(consumo.tempoNoBancoMs());
+                evento.commit();
+            }
+        }
+    }
+
+    @Around("execution(public * com.enzo_molinaro.biblioteca.service.RelatorioService.*(..))")
+    public Object registrarRelatorio(ProceedingJoinPoint joinPoint) throws Throwable {
+        RelatorioJfr evento = new RelatorioJfr();
+        if (!evento.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        evento.setRelatorio(joinPoint.getSignature().getName());
+        evento.setParametros(Arrays.toString(joinPoint.getArgs()));
+        evento.setResultado("sucesso");
+        MonitorSql.Consumo consumo = MonitorSql.iniciar();
+        evento.begin();
+        try {
+            Object resposta = joinPoint.proceed();
+            evento.setItens(itens(resposta));
+            return resposta;
+        } catch (Throwable ex) {
+            evento.setResultado(MetricasServicosAspect.resultadoDe(ex));
+            throw ex;
+        } finally {
+            evento.end();
+            consumo.encerrar();
+            if (evento.shouldCommit()) {
+                evento.setConsultasSql(consumo.consultas());
+                evento.setTempoNoBanco(consumo.tempoNoBancoMs());
+                evento.commit();
+            }
+        }
+    }
+
+    @Around("(within(com.enzo_molinaro.biblioteca.service.EmprestimoService) || " +
+            "within(com.enzo_molinaro.biblioteca.service.LivroService) || " +
+            "within(com.enzo_molinaro.biblioteca.service.UsuarioService)) && " +
+            "(execution(public org.springframework.data.domain.Page *(..)) || " +
+            "execution(public java.util.List *(..)) || " +
+            "execution(public com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO *(..)))")
+    public Object registrarListagem(ProceedingJoinPoint joinPoint) throws Throwable {
+        ListagemJfr evento = new ListagemJfr();
+        if (!evento.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        evento.setServico(joinPoint.getSignature().getDeclaringType().getSimpleName());
+        evento.setOperacao(joinPoint.getSignature().getName());
+        MonitorSql.Consumo consumo = MonitorSql.iniciar();
+        evento.begin();
+        try {
+            Object resposta = joinPoint.proceed();
+            evento.setItens(itens(resposta));
+            return resposta;
+        } finally {
+            evento.end();
+            consumo.encerrar();
+            if (evento.shouldCommit()) {
+                evento.setConsultasSql(consumo.consultas());
+                evento.setTempoNoBanco(consumo.tempoNoBancoMs());
+                evento.commit();
+            }
+        }
+    }
+
+    private static int itens(Object resposta) {
+        if (resposta instanceof Collection<?> colecao) return colecao.size();
+        if (resposta instanceof Map<?, ?> mapa) return mapa.size();
+        if (resposta instanceof Page<?> pagina) return pagina.getNumberOfElements();
+        if (resposta instanceof PaginaCursorDTO<?> pagina) return pagina.getConteudo().size();
+        if (resposta instanceof RankingLivrosDTO ranking) return ranking.getLivrosMaisEmprestados().size();
+        if (resposta instanceof RankingUsuariosDTO ranking) return ranking.getUsuariosMaisAtivos().size();
+        return resposta == null ? 0 : 1;
+    }
+}
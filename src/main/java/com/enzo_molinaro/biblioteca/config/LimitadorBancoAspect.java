@@ -0,0 +1,90 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import com.enzo_molinaro.biblioteca.exception.ServicoSobrecarregadoException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admissão às transações dos serviços: no máximo o pool do Hikari menos as {@code reservadas}
+ * ao mesmo tempo, em ordem de chegada. Com threads virtuais, as requisições excedentes esperam
+ * aqui, sem ocupar conexão nem thread da plataforma, e desistem com 503 depois de
+ * {@code espera-maxima-ms} em vez de acumular até o timeout do pool.
+ * <p>
+ * Passam por aqui os métodos {@code @Transactional} dos serviços e as requisições que abrem
+ * transações por {@code TransactionTemplate} (importação de livros e reprocessamento das
+ * estatísticas diárias). Ficam de fora, e usam as conexões reservadas, as tarefas de segundo
+ * plano: reconciliação das estatísticas, consolidação e reconciliação das estatísticas diárias,
+ * varredura de atrasos e a reconstrução do índice do catálogo e dos filtros de unicidade na
+ * inicialização. O SQL direto de estoque roda na conexão da transação que o chama.
+ * <p>
+ * Fica por fora do {@code @Retryable} e do {@code @Transactional}: a permissão é obtida antes da
+ * conexão. Chamadas aninhadas na mesma thread reaproveitam a permissão já obtida.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@ConditionalOnProperty(prefix = "biblioteca.banco.limitador", name = "habilitado", havingValue = "true")
+@Slf4j
+public class LimitadorBancoAspect {
+
+    private static final ThreadLocal<Boolean> ADMITIDA = new ThreadLocal<>();
+
+    private final Semaphore permissoes;
+    private final long esperaMaximaMs;
+
+    public LimitadorBancoAspect(
+            @Value("${biblioteca.banco.limitador.conexoes}") int conexoes,
+            @Value("${biblioteca.banco.limitador.reservadas:0}") int reservadas,
+            @Value("${biblioteca.banco.limitador.espera-maxima-ms:2000}") long esperaMaximaMs,
+            MeterRegistry meterRegistry) {
+        int permissoes = Math.max(1, conexoes - reservadas);
+        this.permissoes = new Semaphore(permissoes, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+        Gauge.builder("biblioteca.banco.limitador.disponiveis", this.permissoes, Semaphore::availablePermits)
+                .description("Permissões livres do limitador de acesso ao banco")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.banco.limitador.aguardando", this.permissoes, Semaphore::getQueueLength)
+                .description("Requisições esperando permissão do limitador")
+                .register(meterRegistry);
+        log.info("Limitador de acesso ao banco: {} transações simultâneas ({} conexões reservadas às tarefas "
+                + "de segundo plano), espera máxima de {} ms", permissoes, conexoes - permissoes, esperaMaximaMs);
+    }
+
+    @Around("(within(com.enzo_molinaro.biblioteca.service..*) && " +
+            "(@annotation(org.springframework.transaction.annotation.Transactional) || " +
+            "@within(org.springframework.transaction.annotation.Transactional))) || " +
+            "execution(public * com.enzo_molinaro.biblioteca.service.ImportacaoLivroService.importar(..)) || " +
+            "execution(public * com.enzo_molinaro.biblioteca.service.EstatisticaDiariaService.reprocessar*(..))")
+    public Object limitar(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ADMITIDA.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        if (!permissoes.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+            throw new ServicoSobrecarregadoException("Serviço sobrecarregado. Tente novamente em instantes");
+        }
+        ADMITIDA.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ADMITIDA.remove();
+            permissoes.release();
+        }
+    }
+
+    public int permissoesDisponiveis() {
+        return permissoes.availablePermits();
+    }
+}
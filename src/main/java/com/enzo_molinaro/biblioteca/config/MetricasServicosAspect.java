@@ -0,0 +1,105 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.exception.ResourceNotFoundException;
+import com.enzo_molinaro.biblioteca.exception.ServicoSobrecarregadoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers das operações de circulação, das consultas ao catálogo e dos relatórios, com o resultado
+ * e, nas recusas por regra de negócio, o motivo. Os percentis e histogramas de tudo que começa com
+ * {@code biblioteca.} são ligados em {@code management.metrics.distribution}.
+ * <p>
+ * Fica por fora do limitador, do {@code @Retryable}, do {@code @Transactional} e do cache: mede o
+ * tempo que a chamada levou para quem chamou, incluindo espera por conexão e retentativas.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 3)
+@RequiredArgsConstructor
+public class MetricasServicosAspect {
+
+    static final String EMPRESTIMOS = "biblioteca.emprestimos.operacoes";
+    static final String CONSULTAS_LIVROS = "biblioteca.livros.consultas";
+    static final String RELATORIOS = "biblioteca.relatorios";
+
+    // Mantém a cardinalidade da tag limitada mesmo com mensagens longas
+    private static final int TAMANHO_MAXIMO_MOTIVO = 60;
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* com.enzo_molinaro.biblioteca.service.EmprestimoService.criar(..)) || " +
+            "execution(* com.enzo_molinaro.biblioteca.service.EmprestimoService.devolver(..)) || " +
+            "execution(* com.enzo_molinaro.biblioteca.service.EmprestimoService.renovar(..))")
+    public Object medirEmprestimo(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, EMPRESTIMOS, "operacao", "Operações de empréstimo, devolução e renovação");
+    }
+
+    @Around("execution(public * com.enzo_molinaro.biblioteca.service.LivroService.buscar*(..)) || " +
+            "execution(public * com.enzo_molinaro.biblioteca.service.LivroService.listar*(..)) || " +
+            "execution(public * com.enzo_molinaro.biblioteca.service.LivroService.isDisponivel(..)) || " +
+            "execution(public * com.enzo_molinaro.biblioteca.service.LivroService.obterVersao(..))")
+    public Object medirConsultaLivro(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, CONSULTAS_LIVROS, "operacao", "Consultas ao catálogo de livros");
+    }
+
+    @Around("execution(public * com.enzo_molinaro.biblioteca.service.RelatorioService.*(..))")
+    public Object medirRelatorio(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, RELATORIOS, "relatorio", "Geração dos relatórios");
+    }
+
+    private Object medir(ProceedingJoinPoint joinPoint, String nome, String tagOperacao, String descricao)
+            throws Throwable {
+        String resultado = "sucesso";
+        String motivo = "nenhum";
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            resultado = resultadoDe(ex);
+            motivo = motivoDe(ex);
+            throw ex;
+        } finally {
+            amostra.stop(Timer.builder(nome)
+                    .description(descricao)
+                    .tag(tagOperacao, joinPoint.getSignature().getName())
+                    .tag("resultado", resultado)
+                    .tag("motivo", motivo)
+                    .register(meterRegistry));
+        }
+    }
+
+    // Também usados nos eventos do JFR (EventosJfrAspect)
+    static String resultadoDe(Throwable ex) {
+        if (ex instanceof BusinessException) return "rejeitado";
+        if (ex instanceof ResourceNotFoundException) return "nao_encontrado";
+        if (ex instanceof ServicoSobrecarregadoException) return "sobrecarregado";
+        return "erro";
+    }
+
+    static String motivoDe(Throwable ex) {
+        if (ex instanceof BusinessException) return motivo(ex.getMessage());
+        if (ex instanceof ResourceNotFoundException || ex instanceof ServicoSobrecarregadoException) return "nenhum";
+        return ex.getClass().getSimpleName();
+    }
+
+    // Corta a parte variável da mensagem (IDs, e-mails, limites) para não criar uma série por valor
+    static String motivo(String mensagem) {
+        if (mensagem == null || mensagem.isBlank()) {
+            return "desconhecido";
+        }
+        String motivo = mensagem.split("[:(]", 2)[0]
+                .replaceAll("\\d+", "N")
+                .replaceAll("[.\\s]+$", "")
+                .trim();
+        return motivo.length() > TAMANHO_MAXIMO_MOTIVO ? motivo.substring(0, TAMANHO_MAXIMO_MOTIVO) : motivo;
+    }
+}
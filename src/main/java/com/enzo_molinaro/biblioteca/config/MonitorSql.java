@@ -0,0 +1,115 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Conta as instruções SQL do Hibernate e o tempo de execução delas no banco, por thread, entre
+ * {@link #iniciar()} e {@link Consumo#encerrar()}. Escopos podem ser aninhados (um teste em volta
+ * das requisições do MockMvc): cada instrução entra em todos os escopos abertos na thread.
+ * <p>
+ * Registrado como {@code StatementInspector} e como listener de sessão em {@link MonitorSqlConfig}.
+ * Ficam de fora as consultas feitas direto pelo {@code JdbcTemplate} e as de outras threads.
+ */
+public class MonitorSql implements StatementInspector {
+
+    private static final ThreadLocal<Consumo> ATUAL = new ThreadLocal<>();
+
+    public static Consumo iniciar() {
+        Consumo consumo = new Consumo(ATUAL.get());
+        ATUAL.set(consumo);
+        return consumo;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Consumo consumo = ATUAL.get(); consumo != null; consumo = consumo.anterior) {
+            consumo.consultas++;
+            consumo.instrucoes.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    // Agrupa o texto das instruções: o format_sql quebra linhas e listas IN variam de tamanho
+    static String padrao(String sql) {
+        return sql.replaceAll("\\s+", " ")
+                .replaceAll("\\(\\?(\\s*,\\s*\\?)+\\)", "(?, ...)")
+                .trim();
+    }
+
+    public static final class Consumo {
+
+        private final Consumo anterior;
+        private final Map<String, Integer> instrucoes = new HashMap<>();
+        private int consultas;
+        private long nanosNoBanco;
+
+        private Consumo(Consumo anterior) {
+            this.anterior = anterior;
+        }
+
+        public int consultas() {
+            return consultas;
+        }
+
+        public long tempoNoBancoMs() {
+            return nanosNoBanco / 1_000_000;
+        }
+
+        // A instrução que mais se repetiu, com o número de execuções: o indício de N+1
+        public Optional<Map.Entry<String, Integer>> maisRepetida() {
+            Map<String, Integer> porPadrao = new HashMap<>();
+            instrucoes.forEach((sql, vezes) -> porPadrao.merge(padrao(sql), vezes, Integer::sum));
+            return porPadrao.entrySet().stream().max(Map.Entry.comparingByValue());
+        }
+
+        // Volta ao escopo de fora, se houver
+        public void encerrar() {
+            if (ATUAL.get() != this) return;
+            if (anterior == null) {
+                ATUAL.remove();
+            } else {
+                ATUAL.set(anterior);
+            }
+        }
+    }
+
+    /**
+     * Instanciado pelo Hibernate para cada sessão ({@code hibernate.session.events.auto}); soma o
+     * tempo de execução das instruções aos escopos abertos na thread.
+     */
+    public static class TempoNoBanco implements SessionEventListener {
+
+        private long inicio;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            inicio = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            somar(System.nanoTime() - inicio);
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            inicio = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            somar(System.nanoTime() - inicio);
+        }
+
+        private static void somar(long nanos) {
+            for (Consumo consumo = ATUAL.get(); consumo != null; consumo = consumo.anterior) {
+                consumo.nanosNoBanco += nanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Liga o {@link MonitorSql} ao Hibernate. Um {@code StatementInspector} já configurado em
+ * {@code spring.jpa.properties} continua valendo, encadeado depois do monitor.
+ */
+@Configuration
+public class MonitorSqlConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer monitorSqlCustomizer() {
+        return properties -> {
+            StatementInspector monitor = new MonitorSql();
+            Object configurado = properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+            if (configurado == null) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, monitor);
+            } else {
+                StatementInspector outro = instanciar(configurado);
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                        (StatementInspector) sql -> outro.inspect(monitor.inspect(sql)));
+            }
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, MonitorSql.TempoNoBanco.class.getName());
+        };
+    }
+
+    private static StatementInspector instanciar(Object configurado) {
+        if (configurado instanceof StatementInspector inspector) {
+            return inspector;
+        }
+        Class<?> classe = configurado instanceof Class<?> c
+                ? c
+                : ClassUtils.resolveClassName(configurado.toString(), null);
+        return BeanUtils.instantiateClass(classe, StatementInspector.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Mede as instruções SQL e o tempo no banco de cada requisição ({@link MonitorSql}). Acima do
+ * orçamento de {@code maximo-consultas}, registra um aviso com a instrução que mais se repetiu,
+ * que costuma ser uma consulta por linha (N+1).
+ * <p>
+ * Com {@code biblioteca.sql.cabecalhos} (perfis dev e test), devolve as medidas nos cabeçalhos
+ * {@value #CABECALHO_CONSULTAS} e {@value #CABECALHO_TEMPO}, gravados antes do corpo da resposta.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class OrcamentoSqlFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO_CONSULTAS = "X-Sql-Consultas";
+    public static final String CABECALHO_TEMPO = "X-Sql-Tempo-Ms";
+
+    private static final int TAMANHO_MAXIMO_INSTRUCAO_LOG = 500;
+
+    private final int maximoConsultas;
+    private final boolean cabecalhos;
+
+    public OrcamentoSqlFilter(
+            @Value("${biblioteca.sql.orcamento.maximo-consultas:20}") int maximoConsultas,
+            @Value("${biblioteca.sql.cabecalhos:false}") boolean cabecalhos) {
+        this.maximoConsultas = maximoConsultas;
+        this.cabecalhos = cabecalhos;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        MonitorSql.Consumo consumo = MonitorSql.iniciar();
+        RespostaComConsumo resposta = cabecalhos ? new RespostaComConsumo(response, consumo) : null;
+        try {
+            chain.doFilter(request, resposta != null ? resposta : response);
+        } finally {
+            consumo.encerrar();
+            if (resposta != null) {
+                resposta.gravarCabecalhos();
+            }
+            if (consumo.consultas() > maximoConsultas) {
+                avisarExcesso(request, consumo);
+            }
+        }
+    }
+
+    private void avisarExcesso(HttpServletRequest request, MonitorSql.Consumo consumo) {
+        consumo.maisRepetida().ifPresent(instrucao -> {
+            String sql = instrucao.getKey();
+            log.warn("{} {} excedeu o orçamento de {} instruções SQL: {} em {} ms no banco. Mais repetida ({}x): {}",
+                    request.getMethod(), request.getRequestURI(), maximoConsultas,
+                    consumo.consultas(), consumo.tempoNoBancoMs(), instrucao.getValue(),
+                    sql.length() > TAMANHO_MAXIMO_INSTRUCAO_LOG ? sql.substring(0, TAMANHO_MAXIMO_INSTRUCAO_LOG) + "..." : sql);
+        });
+    }
+
+    // Grava os cabeçalhos no último momento em que ainda é possível: antes do corpo ou no fim
+    private static class RespostaComConsumo extends HttpServletResponseWrapper {
+
+        private final MonitorSql.Consumo consumo;
+        private boolean gravados;
+
+        RespostaComConsumo(HttpServletResponse response, MonitorSql.Consumo consumo) {
+            super(response);
+            this.consumo = consumo;
+        }
+
+        void gravarCabecalhos() {
+            if (gravados || isCommitted()) return;
+            gravados = true;
+            setHeader(CABECALHO_CONSULTAS, String.valueOf(consumo.consultas()));
+            setHeader(CABECALHO_TEMPO, String.valueOf(consumo.tempoNoBancoMs()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            gravarCabecalhos();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            gravarCabecalhos();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            gravarCabecalhos();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            gravarCabecalhos();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            gravarCabecalhos();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            gravarCabecalhos();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+// A ordem padrão do @EnableRetry envolve o @Transactional: cada tentativa usa uma nova transação
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
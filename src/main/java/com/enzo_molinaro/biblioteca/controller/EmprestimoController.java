@@ -1,9 +1,15 @@
 package com.enzo_molinaro.biblioteca.controller;
 
+import com.enzo_molinaro.biblioteca.dto.request.DevolucaoLoteRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoLoteRequestDTO;
 import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
 import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ResultadoLoteDTO;
+import com.enzo_molinaro.biblioteca.enums.FormatoArquivo;
 import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
 import com.enzo_molinaro.biblioteca.service.EmprestimoService;
+import com.enzo_molinaro.biblioteca.service.ExportacaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,10 +21,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -28,6 +39,7 @@ import java.util.List;
 public class EmprestimoController {
 
     private final EmprestimoService emprestimoService;
+    private final ExportacaoService exportacaoService;
 
     @PostMapping
     @Operation(summary = "Criar empréstimo", description = "Registra um novo empréstimo de livro")
@@ -41,6 +53,30 @@ public class EmprestimoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(emprestimo);
     }
 
+    @PostMapping("/lote")
+    @Operation(summary = "Criar empréstimos em lote",
+            description = "Registra o empréstimo de vários livros para um usuário em uma única operação")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; veja o resultado de cada item"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos ou usuário impedido de emprestar"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
+    })
+    public ResponseEntity<ResultadoLoteDTO> criarLote(@Valid @RequestBody EmprestimoLoteRequestDTO dto) {
+        ResultadoLoteDTO resultado = emprestimoService.criarLote(dto);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PostMapping("/devolucoes/lote")
+    @Operation(summary = "Devolver em lote", description = "Registra a devolução de vários empréstimos em uma única operação")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; veja o resultado de cada item"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos")
+    })
+    public ResponseEntity<ResultadoLoteDTO> devolverLote(@Valid @RequestBody DevolucaoLoteRequestDTO dto) {
+        ResultadoLoteDTO resultado = emprestimoService.devolverLote(dto);
+        return ResponseEntity.ok(resultado);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar empréstimo por ID", description = "Retorna os detalhes de um empréstimo específico")
     @ApiResponses(value = {
@@ -80,6 +116,59 @@ public class EmprestimoController {
         return ResponseEntity.ok(emprestimos);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar empréstimos por cursor",
+            description = "Retorna empréstimos do mais recente ao mais antigo, a partir do cursor da página anterior, " +
+                    "sem contagem total")
+    public ResponseEntity<PaginaCursorDTO<EmprestimoResponseDTO>> listarPorCursor(
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "10") int tamanho) {
+        PaginaCursorDTO<EmprestimoResponseDTO> emprestimos = emprestimoService.listar(null, null, cursor, tamanho);
+        return ResponseEntity.ok(emprestimos);
+    }
+
+    @GetMapping("/status/{status}/cursor")
+    @Operation(summary = "Listar por status com cursor", description = "Empréstimos com status específico, paginados por cursor")
+    public ResponseEntity<PaginaCursorDTO<EmprestimoResponseDTO>> listarPorStatusComCursor(
+            @Parameter(description = "Status do empréstimo") @PathVariable StatusEmprestimo status,
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "10") int tamanho) {
+        PaginaCursorDTO<EmprestimoResponseDTO> emprestimos = emprestimoService.listar(status, null, cursor, tamanho);
+        return ResponseEntity.ok(emprestimos);
+    }
+
+    @GetMapping("/usuario/{usuarioId}/cursor")
+    @Operation(summary = "Listar por usuário com cursor", description = "Histórico de um usuário paginado por cursor")
+    public ResponseEntity<PaginaCursorDTO<EmprestimoResponseDTO>> listarPorUsuarioComCursor(
+            @Parameter(description = "ID do usuário") @PathVariable Long usuarioId,
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "10") int tamanho) {
+        PaginaCursorDTO<EmprestimoResponseDTO> emprestimos = emprestimoService.listar(null, usuarioId, cursor, tamanho);
+        return ResponseEntity.ok(emprestimos);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar empréstimos",
+            description = "Exporta empréstimos em CSV ou NDJSON com uma única consulta, transmitindo as linhas " +
+                    "à medida que são lidas do banco")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Status do empréstimo") @RequestParam(required = false) StatusEmprestimo status,
+            @Parameter(description = "Data inicial do empréstimo (formato: yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final do empréstimo (formato: yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @Parameter(description = "Formato do arquivo") @RequestParam(defaultValue = "CSV") FormatoArquivo formato) {
+        exportacaoService.validarPeriodo(dataInicio, dataFim);
+
+        StreamingResponseBody corpo = saida ->
+                exportacaoService.exportarEmprestimos(status, dataInicio, dataFim, formato, saida);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=emprestimos." + formato.getExtensao())
+                .body(corpo);
+    }
+
     @GetMapping("/atrasados")
     @Operation(summary = "Listar empréstimos atrasados", description = "Retorna todos os empréstimos em atraso")
     public ResponseEntity<List<EmprestimoResponseDTO>> listarAtrasados() {
@@ -1,7 +1,14 @@
 package com.enzo_molinaro.biblioteca.controller;
 
 import com.enzo_molinaro.biblioteca.dto.request.LivroRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ImportacaoLivrosDTO;
 import com.enzo_molinaro.biblioteca.dto.response.LivroResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.dto.response.SugestaoDTO;
+import com.enzo_molinaro.biblioteca.enums.FormatoArquivo;
+import com.enzo_molinaro.biblioteca.service.ExportacaoService;
+import com.enzo_molinaro.biblioteca.service.ImportacaoLivroService;
+import com.enzo_molinaro.biblioteca.service.IndiceCatalogoService;
 import com.enzo_molinaro.biblioteca.service.LivroService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,10 +21,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -27,6 +40,9 @@ import java.util.List;
 public class LivroController {
 
     private final LivroService livroService;
+    private final ImportacaoLivroService importacaoLivroService;
+    private final ExportacaoService exportacaoService;
+    private final IndiceCatalogoService indiceCatalogoService;
 
     @PostMapping
     @Operation(summary = "Cadastrar novo livro", description = "Cria um novo livro no sistema")
@@ -40,50 +56,122 @@ public class LivroController {
         return ResponseEntity.status(HttpStatus.CREATED).body(livro);
     }
 
+    @PostMapping(value = "/importacao", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Importar catálogo",
+            description = "Importa livros de um CSV com cabeçalho ou de um NDJSON enviado no corpo da requisição. " +
+                    "O arquivo é processado em lotes, sem ser carregado inteiro em memória; linhas inválidas " +
+                    "ou ISBNs já cadastrados são reportados sem interromper a importação")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arquivo processado; veja os totais e erros por linha"),
+            @ApiResponse(responseCode = "415", description = "Formato não suportado")
+    })
+    public ResponseEntity<ImportacaoLivrosDTO> importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream corpo) throws IOException {
+        FormatoArquivo formato = FormatoArquivo.deMediaType(MediaType.parseMediaType(contentType));
+        ImportacaoLivrosDTO resultado = importacaoLivroService.importar(corpo, formato);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar catálogo",
+            description = "Exporta o catálogo em CSV ou NDJSON com uma única consulta, transmitindo as linhas " +
+                    "à medida que são lidas do banco")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Filtrar por livros ativos/inativos") @RequestParam(required = false) Boolean ativo,
+            @Parameter(description = "Formato do arquivo") @RequestParam(defaultValue = "CSV") FormatoArquivo formato) {
+        StreamingResponseBody corpo = saida -> exportacaoService.exportarLivros(ativo, formato, saida);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=livros." + formato.getExtensao())
+                .body(corpo);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar livro por ID", description = "Retorna os detalhes de um livro específico")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Livro encontrado"),
+            @ApiResponse(responseCode = "304", description = "Livro não modificado desde a versão informada"),
             @ApiResponse(responseCode = "404", description = "Livro não encontrado")
     })
     public ResponseEntity<LivroResponseDTO> buscarPorId(
-            @Parameter(description = "ID do livro") @PathVariable Long id) {
-        LivroResponseDTO livro = livroService.buscarPorId(id);
-        return ResponseEntity.ok(livro);
+            @Parameter(description = "ID do livro") @PathVariable Long id,
+            WebRequest request) {
+        return RespostaCondicional.responder(request, livroService.obterVersao(id), () -> livroService.buscarPorId(id));
     }
 
     @GetMapping
     @Operation(summary = "Listar todos os livros", description = "Retorna lista paginada de livros ativos")
     public ResponseEntity<Page<LivroResponseDTO>> listarTodos(
-            @PageableDefault(size = 10, sort = "titulo", direction = Sort.Direction.ASC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "titulo", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
         Page<LivroResponseDTO> livros = livroService.listarTodos(pageable);
-        return ResponseEntity.ok(livros);
+        return RespostaCondicional.responder(request, livros);
     }
 
     @GetMapping("/buscar")
-    @Operation(summary = "Buscar livros", description = "Busca livros por título, autor ou ISBN")
+    @Operation(summary = "Buscar livros",
+            description = "Busca livros por palavras (ou início de palavras) do título, autor ou ISBN, " +
+                    "ignorando acentos, ordenados por relevância")
     public ResponseEntity<Page<LivroResponseDTO>> buscar(
             @Parameter(description = "Termo de busca") @RequestParam String termo,
-            @PageableDefault(size = 10) Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable,
+            WebRequest request) {
         Page<LivroResponseDTO> livros = livroService.buscar(termo, pageable);
-        return ResponseEntity.ok(livros);
+        return RespostaCondicional.responder(request, livros);
+    }
+
+    @GetMapping("/sugestoes")
+    @Operation(summary = "Sugerir títulos e autores",
+            description = "Autocompletar: títulos e autores com uma palavra iniciada pelo prefixo, " +
+                    "respondidos da memória, sem consulta ao banco")
+    public ResponseEntity<List<SugestaoDTO>> sugerir(
+            @Parameter(description = "Início de uma palavra do título ou do autor") @RequestParam String prefixo,
+            @Parameter(description = "Quantidade de sugestões (máx. 20)") @RequestParam(defaultValue = "10") int limite) {
+        List<SugestaoDTO> sugestoes = indiceCatalogoService.sugerir(prefixo, limite);
+        return ResponseEntity.ok(sugestoes);
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar livros por cursor",
+            description = "Retorna livros ativos por título, a partir do cursor da página anterior, sem contagem total")
+    public ResponseEntity<PaginaCursorDTO<LivroResponseDTO>> listarPorCursor(
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "10") int tamanho,
+            WebRequest request) {
+        PaginaCursorDTO<LivroResponseDTO> livros = livroService.listarTodos(cursor, tamanho);
+        return RespostaCondicional.responder(request, livros);
+    }
+
+    @GetMapping("/buscar/cursor")
+    @Operation(summary = "Buscar livros por cursor", description = "Busca por título, autor ou ISBN paginada por cursor")
+    public ResponseEntity<PaginaCursorDTO<LivroResponseDTO>> buscarPorCursor(
+            @Parameter(description = "Termo de busca") @RequestParam String termo,
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "10") int tamanho,
+            WebRequest request) {
+        PaginaCursorDTO<LivroResponseDTO> livros = livroService.buscar(termo, cursor, tamanho);
+        return RespostaCondicional.responder(request, livros);
     }
 
     @GetMapping("/disponiveis")
     @Operation(summary = "Listar livros disponíveis", description = "Retorna livros com exemplares disponíveis")
     public ResponseEntity<Page<LivroResponseDTO>> listarDisponiveis(
-            @PageableDefault(size = 10) Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable,
+            WebRequest request) {
         Page<LivroResponseDTO> livros = livroService.listarDisponiveis(pageable);
-        return ResponseEntity.ok(livros);
+        return RespostaCondicional.responder(request, livros);
     }
 
     @GetMapping("/categoria/{categoriaId}")
     @Operation(summary = "Listar livros por categoria", description = "Retorna livros de uma categoria específica")
     public ResponseEntity<Page<LivroResponseDTO>> listarPorCategoria(
             @Parameter(description = "ID da categoria") @PathVariable Long categoriaId,
-            @PageableDefault(size = 10) Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable,
+            WebRequest request) {
         Page<LivroResponseDTO> livros = livroService.listarPorCategoria(categoriaId, pageable);
-        return ResponseEntity.ok(livros);
+        return RespostaCondicional.responder(request, livros);
     }
 
     @GetMapping("/autor")
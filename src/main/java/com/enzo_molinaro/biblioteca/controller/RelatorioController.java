@@ -1,7 +1,14 @@
 package com.enzo_molinaro.biblioteca.controller;
 
 import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PainelDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingLivrosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingUsuariosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RegiaoCacheDTO;
 import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.service.EstatisticaDiariaService;
+import com.enzo_molinaro.biblioteca.service.EstatisticasCacheService;
+import com.enzo_molinaro.biblioteca.service.PainelService;
 import com.enzo_molinaro.biblioteca.service.RelatorioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,6 +29,9 @@ import java.util.Map;
 public class RelatorioController {
 
     private final RelatorioService relatorioService;
+    private final EstatisticasCacheService estatisticasCacheService;
+    private final PainelService painelService;
+    private final EstatisticaDiariaService estatisticaDiariaService;
 
     @GetMapping("/geral")
     @Operation(summary = "Relatório geral",
@@ -31,23 +41,36 @@ public class RelatorioController {
         return ResponseEntity.ok(relatorio);
     }
 
+    @GetMapping("/painel")
+    @Operation(summary = "Painel de relatórios",
+            description = "Retorna todas as seções de relatório, geradas em paralelo. Seções que excedem o " +
+                    "tempo limite ou falham são listadas em secoesIndisponiveis e as demais são entregues")
+    public ResponseEntity<PainelDTO> painel(
+            @Parameter(description = "Limite dos rankings")
+            @RequestParam(defaultValue = "10") int limite,
+            @Parameter(description = "Número de dias para os próximos vencimentos")
+            @RequestParam(defaultValue = "7") int dias) {
+        PainelDTO painel = painelService.gerarPainel(limite, dias);
+        return ResponseEntity.ok(painel);
+    }
+
     @GetMapping("/livros-mais-emprestados")
     @Operation(summary = "Livros mais emprestados",
             description = "Retorna ranking dos livros mais emprestados")
-    public ResponseEntity<Map<String, Object>> livrosMaisEmprestados(
+    public ResponseEntity<RankingLivrosDTO> livrosMaisEmprestados(
             @Parameter(description = "Limite de resultados")
             @RequestParam(defaultValue = "10") int limite) {
-        Map<String, Object> relatorio = relatorioService.relatorioLivrosMaisEmprestados(limite);
+        RankingLivrosDTO relatorio = relatorioService.relatorioLivrosMaisEmprestados(limite);
         return ResponseEntity.ok(relatorio);
     }
 
     @GetMapping("/usuarios-mais-ativos")
     @Operation(summary = "Usuários mais ativos",
             description = "Retorna ranking dos usuários com mais empréstimos")
-    public ResponseEntity<Map<String, Object>> usuariosMaisAtivos(
+    public ResponseEntity<RankingUsuariosDTO> usuariosMaisAtivos(
             @Parameter(description = "Limite de resultados")
             @RequestParam(defaultValue = "10") int limite) {
-        Map<String, Object> relatorio = relatorioService.relatorioUsuariosMaisAtivos(limite);
+        RankingUsuariosDTO relatorio = relatorioService.relatorioUsuariosMaisAtivos(limite);
         return ResponseEntity.ok(relatorio);
     }
 
@@ -63,6 +86,22 @@ public class RelatorioController {
         return ResponseEntity.ok(relatorio);
     }
 
+    @PostMapping("/periodo/reprocessar")
+    @Operation(summary = "Reprocessar estatísticas diárias",
+            description = "Recalcula as estatísticas diárias usadas no relatório por período. Sem datas, " +
+                    "reprocessa todo o histórico de empréstimos")
+    public ResponseEntity<Map<String, Object>> reprocessarEstatisticasDiarias(
+            @Parameter(description = "Data inicial (formato: yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final (formato: yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        long dias = dataInicio == null && dataFim == null
+                ? estatisticaDiariaService.reprocessarHistorico()
+                : estatisticaDiariaService.reprocessar(
+                        dataInicio != null ? dataInicio : dataFim, dataFim != null ? dataFim : dataInicio);
+        return ResponseEntity.ok(Map.of("diasReprocessados", dias));
+    }
+
     @GetMapping("/proximos-vencimento")
     @Operation(summary = "Próximos do vencimento",
             description = "Retorna empréstimos que vencem nos próximos N dias")
@@ -81,4 +120,11 @@ public class RelatorioController {
         Map<String, Long> relatorio = relatorioService.relatorioLivrosPorCategoria();
         return ResponseEntity.ok(relatorio);
     }
+
+    @GetMapping("/cache")
+    @Operation(summary = "Estatísticas do cache",
+            description = "Retorna acertos e falhas de cada região do cache de segundo nível (livros, categorias e consultas)")
+    public ResponseEntity<List<RegiaoCacheDTO>> estatisticasCache() {
+        return ResponseEntity.ok(estatisticasCacheService.estatisticasPorRegiao());
+    }
 }
\ No newline at end of file
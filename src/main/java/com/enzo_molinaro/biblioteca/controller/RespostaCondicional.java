@@ -0,0 +1,63 @@
+package com.enzo_molinaro.biblioteca.controller;
+
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.service.VersaoRecurso;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Requisições condicionais (If-None-Match / If-Modified-Since). Recursos individuais são validados
+ * antes de montar o corpo: com 304, não há mapeamento nem serialização. Listas são validadas
+ * depois da consulta, por uma ETag fraca do conteúdo da página, e economizam a serialização e o
+ * tráfego.
+ */
+final class RespostaCondicional {
+
+    private RespostaCondicional() {
+    }
+
+    static <T> ResponseEntity<T> responder(WebRequest request, VersaoRecurso versao, Supplier<T> corpo) {
+        long ultimaModificacao = versao.ultimaModificacao() == null ? -1
+                : versao.ultimaModificacao().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        // Também grava ETag e Last-Modified na resposta, seja 304 ou 200. Mudanças dentro do mesmo
+        // segundo só são percebidas pela ETag (ver VersaoRecurso)
+        if (request.checkNotModified(versao.etag(), ultimaModificacao)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(corpo.get());
+    }
+
+    static <T> ResponseEntity<Page<T>> responder(WebRequest request, Page<T> pagina) {
+        return responderLista(request, pagina, pagina.getContent(),
+                pagina.getNumber(), pagina.getSize(), pagina.getTotalElements());
+    }
+
+    static <T> ResponseEntity<PaginaCursorDTO<T>> responder(WebRequest request, PaginaCursorDTO<T> pagina) {
+        return responderLista(request, pagina, pagina.getConteudo(),
+                pagina.getTamanho(), pagina.isTemProxima(), pagina.getProximoCursor());
+    }
+
+    private static <T> ResponseEntity<T> responderLista(WebRequest request, T corpo, List<?> conteudo, Object... metadados) {
+        if (request.checkNotModified(etagDaLista(conteudo, metadados))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(corpo);
+    }
+
+    static String etagDaLista(List<?> conteudo, Object... metadados) {
+        // Acumulado em 64 bits: cada item desloca os anteriores, e a ordem entra no valor
+        long hash = Arrays.hashCode(metadados);
+        for (Object item : conteudo) {
+            hash = 31 * hash + item.hashCode();
+        }
+        return "W/\"" + Long.toHexString(hash) + "-" + conteudo.size() + "\"";
+    }
+}
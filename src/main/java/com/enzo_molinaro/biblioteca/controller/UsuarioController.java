@@ -1,6 +1,7 @@
 package com.enzo_molinaro.biblioteca.controller;
 
 import com.enzo_molinaro.biblioteca.dto.request.UsuarioRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
 import com.enzo_molinaro.biblioteca.dto.response.UsuarioResponseDTO;
 import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
 import com.enzo_molinaro.biblioteca.service.UsuarioService;
@@ -18,6 +19,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -45,29 +47,54 @@ public class UsuarioController {
     @Operation(summary = "Buscar usuário por ID", description = "Retorna os detalhes de um usuário específico")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Usuário encontrado"),
+            @ApiResponse(responseCode = "304", description = "Usuário não modificado desde a versão informada"),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
     })
     public ResponseEntity<UsuarioResponseDTO> buscarPorId(
-            @Parameter(description = "ID do usuário") @PathVariable Long id) {
-        UsuarioResponseDTO usuario = usuarioService.buscarPorId(id);
-        return ResponseEntity.ok(usuario);
+            @Parameter(description = "ID do usuário") @PathVariable Long id,
+            WebRequest request) {
+        return RespostaCondicional.responder(request, usuarioService.obterVersao(id), () -> usuarioService.buscarPorId(id));
     }
 
     @GetMapping
     @Operation(summary = "Listar todos os usuários", description = "Retorna lista paginada de usuários ativos")
     public ResponseEntity<Page<UsuarioResponseDTO>> listarTodos(
-            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "nome", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
         Page<UsuarioResponseDTO> usuarios = usuarioService.listarTodos(pageable);
-        return ResponseEntity.ok(usuarios);
+        return RespostaCondicional.responder(request, usuarios);
     }
 
     @GetMapping("/buscar")
     @Operation(summary = "Buscar usuários", description = "Busca usuários por nome, email ou CPF")
     public ResponseEntity<Page<UsuarioResponseDTO>> buscar(
             @Parameter(description = "Termo de busca") @RequestParam String termo,
-            @PageableDefault(size = 10) Pageable pageable) {
+            @PageableDefault(size = 10) Pageable pageable,
+            WebRequest request) {
         Page<UsuarioResponseDTO> usuarios = usuarioService.buscar(termo, pageable);
-        return ResponseEntity.ok(usuarios);
+        return RespostaCondicional.responder(request, usuarios);
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar usuários por cursor",
+            description = "Retorna usuários ativos por nome, a partir do cursor da página anterior, sem contagem total")
+    public ResponseEntity<PaginaCursorDTO<UsuarioResponseDTO>> listarPorCursor(
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "10") int tamanho,
+            WebRequest request) {
+        PaginaCursorDTO<UsuarioResponseDTO> usuarios = usuarioService.listarTodos(cursor, tamanho);
+        return RespostaCondicional.responder(request, usuarios);
+    }
+
+    @GetMapping("/buscar/cursor")
+    @Operation(summary = "Buscar usuários por cursor", description = "Busca por nome, email ou CPF paginada por cursor")
+    public ResponseEntity<PaginaCursorDTO<UsuarioResponseDTO>> buscarPorCursor(
+            @Parameter(description = "Termo de busca") @RequestParam String termo,
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (máx. 100)") @RequestParam(defaultValue = "10") int tamanho,
+            WebRequest request) {
+        PaginaCursorDTO<UsuarioResponseDTO> usuarios = usuarioService.buscar(termo, cursor, tamanho);
+        return RespostaCondicional.responder(request, usuarios);
     }
 
     @GetMapping("/tipo/{tipo}")
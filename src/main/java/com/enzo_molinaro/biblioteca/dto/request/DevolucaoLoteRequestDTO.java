@@ -0,0 +1,18 @@
+package com.enzo_molinaro.biblioteca.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DevolucaoLoteRequestDTO {
+
+    @NotEmpty(message = "Informe ao menos um empréstimo")
+    @Size(max = 100, message = "Máximo de 100 empréstimos por lote")
+    private List<@NotNull Long> emprestimoIds;
+}
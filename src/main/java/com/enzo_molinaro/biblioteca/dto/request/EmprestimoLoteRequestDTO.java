@@ -0,0 +1,24 @@
+package com.enzo_molinaro.biblioteca.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmprestimoLoteRequestDTO {
+
+    @NotNull(message = "ID do usuário é obrigatório")
+    private Long usuarioId;
+
+    @NotEmpty(message = "Informe ao menos um livro")
+    @Size(max = 50, message = "Máximo de 50 livros por lote")
+    private List<@NotNull Long> livroIds;
+
+    @Size(max = 500)
+    private String observacoes;
+}
@@ -0,0 +1,26 @@
+package com.enzo_molinaro.biblioteca.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+/**
+ * Registro de uma linha do arquivo de importação de livros. Os campos são lidos como texto e
+ * convertidos/validados linha a linha, para que um valor inválido não interrompa o arquivo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LivroImportacaoDTO {
+    private String isbn;
+    private String titulo;
+    private String autor;
+    private String editora;
+    private String anoPublicacao;
+    private String quantidadeTotal;
+    private String valorMultaDiaria;
+    // Nome da categoria
+    private String categoria;
+}
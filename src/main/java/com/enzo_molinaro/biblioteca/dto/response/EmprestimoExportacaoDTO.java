@@ -0,0 +1,32 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Linha da exportação de empréstimos: projeção plana, sem entidades gerenciadas
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonPropertyOrder({"id", "livroId", "livroTitulo", "livroIsbn", "usuarioId", "usuarioNome", "usuarioEmail",
+        "dataEmprestimo", "dataPrevistaDevolucao", "dataDevolucao", "status", "valorMulta", "observacoes"})
+public class EmprestimoExportacaoDTO {
+    private Long id;
+    private Long livroId;
+    private String livroTitulo;
+    private String livroIsbn;
+    private Long usuarioId;
+    private String usuarioNome;
+    private String usuarioEmail;
+    private LocalDate dataEmprestimo;
+    private LocalDate dataPrevistaDevolucao;
+    private LocalDate dataDevolucao;
+    private StatusEmprestimo status;
+    private BigDecimal valorMulta;
+    private String observacoes;
+}
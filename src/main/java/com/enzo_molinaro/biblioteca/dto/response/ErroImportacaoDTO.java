@@ -0,0 +1,14 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ErroImportacaoDTO {
+    private long linha;
+    private String isbn;
+    private String mensagem;
+}
@@ -0,0 +1,20 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacaoLivrosDTO {
+    private long linhasProcessadas;
+    private long importados;
+    private long duplicados;
+    private long erros;
+    // Limitado às primeiras ocorrências; o total está em "erros"
+    private List<ErroImportacaoDTO> detalhesErros;
+    private long duracaoMs;
+}
@@ -0,0 +1,16 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemLoteDTO {
+    // ID do livro (empréstimos) ou do empréstimo (devoluções), na ordem da requisição
+    private Long id;
+    private boolean sucesso;
+    private String mensagem;
+    private EmprestimoResponseDTO emprestimo;
+}
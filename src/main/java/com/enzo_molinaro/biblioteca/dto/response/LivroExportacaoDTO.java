@@ -0,0 +1,28 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Linha da exportação do catálogo: projeção plana, sem entidades gerenciadas
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonPropertyOrder({"id", "isbn", "titulo", "autor", "editora", "anoPublicacao", "quantidadeTotal",
+        "quantidadeDisponivel", "valorMultaDiaria", "categoria", "ativo"})
+public class LivroExportacaoDTO {
+    private Long id;
+    private String isbn;
+    private String titulo;
+    private String autor;
+    private String editora;
+    private Integer anoPublicacao;
+    private Integer quantidadeTotal;
+    private Integer quantidadeDisponivel;
+    private BigDecimal valorMultaDiaria;
+    private String categoria;
+    private Boolean ativo;
+}
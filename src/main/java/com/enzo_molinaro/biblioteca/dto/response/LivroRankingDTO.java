@@ -0,0 +1,16 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LivroRankingDTO {
+    private Long livroId;
+    private String titulo;
+    private String autor;
+    private String isbn;
+    private Long quantidadeEmprestimos;
+}
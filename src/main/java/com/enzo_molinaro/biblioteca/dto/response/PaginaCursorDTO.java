@@ -0,0 +1,18 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaCursorDTO<T> {
+    private List<T> conteudo;
+    private int tamanho;
+    private boolean temProxima;
+    // Token opaco para a próxima página; nulo na última
+    private String proximoCursor;
+}
@@ -0,0 +1,26 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PainelDTO {
+    // Seções nulas quando indisponíveis (veja secoesIndisponiveis)
+    private RelatorioDTO geral;
+    private RankingLivrosDTO livrosMaisEmprestados;
+    private RankingUsuariosDTO usuariosMaisAtivos;
+    private List<EmprestimoResponseDTO> proximosDoVencimento;
+    private Map<String, Long> livrosPorCategoria;
+
+    private boolean completo;
+    // Seção -> motivo (tempo limite excedido ou falha)
+    private Map<String, String> secoesIndisponiveis;
+    private LocalDateTime dataGeracao;
+}
@@ -0,0 +1,16 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RankingLivrosDTO {
+    private List<LivroRankingDTO> livrosMaisEmprestados;
+    private LocalDate dataGeracao;
+}
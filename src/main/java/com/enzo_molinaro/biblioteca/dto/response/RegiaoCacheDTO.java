@@ -0,0 +1,16 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RegiaoCacheDTO {
+    private String regiao;
+    private long acertos;
+    private long falhas;
+    private long gravacoes;
+    private double taxaAcerto;
+}
@@ -0,0 +1,17 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoLoteDTO {
+    private int total;
+    private int sucessos;
+    private int falhas;
+    private List<ItemLoteDTO> itens;
+}
@@ -0,0 +1,16 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import com.enzo_molinaro.biblioteca.enums.TipoSugestao;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SugestaoDTO {
+    private String texto;
+    private TipoSugestao tipo;
+    // Livros ativos com este título ou autor
+    private int livros;
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.enzo_molinaro.biblioteca.dto.response;
+
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsuarioRankingDTO {
+    private Long usuarioId;
+    private String nome;
+    private String email;
+    private TipoUsuario tipo;
+    private Long quantidadeEmprestimos;
+}
@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EqualsAndHashCode
 public class UsuarioResponseDTO {
     private Long id;
     private String nome;
@@ -21,4 +22,10 @@ public class UsuarioResponseDTO {
     private Integer limiteEmprestimos;
     private Long emprestimoAtivos;
     private LocalDateTime criadoEm;
+
+    // ETag das listagens: o hashCode de um enum muda a cada execução da JVM, o nome não
+    @EqualsAndHashCode.Include(replaces = "tipo")
+    private String nomeDoTipo() {
+        return tipo == null ? null : tipo.name();
+    }
 }
\ No newline at end of file
@@ -2,11 +2,15 @@ package com.enzo_molinaro.biblioteca.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
 @Table(name = "categorias")
 @Getter
 @Setter
@@ -16,7 +20,8 @@ import java.util.List;
 public class Categoria {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categorias_seq")
+    @SequenceGenerator(name = "categorias_seq", sequenceName = "categorias_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -21,7 +21,8 @@ import java.time.temporal.ChronoUnit;
 public class Emprestimo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emprestimos_seq")
+    @SequenceGenerator(name = "emprestimos_seq", sequenceName = "emprestimos_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -52,6 +53,10 @@ public class Emprestimo {
     @Column(name = "observacoes", length = 500)
     private String observacoes;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @CreationTimestamp
     @Column(name = "criado_em", updatable = false)
     private LocalDateTime criadoEm;
@@ -84,16 +89,16 @@ public class Emprestimo {
         return ChronoUnit.DAYS.between(this.dataPrevistaDevolucao, LocalDate.now());
     }
 
+    // Multa final, da data prevista até a devolução: substitui a multa corrida da varredura de
+    // atrasos, que pode não ter passado desde o vencimento
     private void calcularMulta() {
-        if (isAtrasado() && this.livro.getValorMultaDiaria() != null) {
+        if (this.dataDevolucao.isAfter(this.dataPrevistaDevolucao) && this.livro.getValorMultaDiaria() != null) {
             long diasAtraso = ChronoUnit.DAYS.between(
                     this.dataPrevistaDevolucao,
                     this.dataDevolucao
             );
-            if (diasAtraso > 0) {
-                this.valorMulta = this.livro.getValorMultaDiaria()
-                        .multiply(BigDecimal.valueOf(diasAtraso));
-            }
+            this.valorMulta = this.livro.getValorMultaDiaria()
+                    .multiply(BigDecimal.valueOf(diasAtraso));
         }
     }
 }
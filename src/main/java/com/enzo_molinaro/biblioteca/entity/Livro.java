@@ -1,7 +1,10 @@
 package com.enzo_molinaro.biblioteca.entity;
 
+import com.enzo_molinaro.biblioteca.entity.listener.UnicidadeListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,16 +14,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "livros")
 @Table(name = "livros")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(UnicidadeListener.class)
 public class Livro {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livros_seq")
+    @SequenceGenerator(name = "livros_seq", sequenceName = "livros_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 13, unique = true)
@@ -59,6 +66,10 @@ public class Livro {
     @Builder.Default
     private Boolean ativo = true;
 
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @CreationTimestamp
     @Column(name = "criado_em", updatable = false)
     private LocalDateTime criadoEm;
@@ -81,4 +92,8 @@ public class Livro {
         }
         this.quantidadeDisponivel++;
     }
+
+    public boolean isIndisponivel() {
+        return this.ativo && this.quantidadeDisponivel == 0;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.enzo_molinaro.biblioteca.entity;
 
+import com.enzo_molinaro.biblioteca.entity.listener.UnicidadeListener;
 import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
 import jakarta.persistence.*;
 import lombok.*;
@@ -17,10 +18,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(UnicidadeListener.class)
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -66,7 +69,7 @@ public class Usuario {
                 .count();
     }
 
-    public boolean podeEmprestar() {
-        return ativo && getEmprestimosAtivos() < limiteEmprestimos;
+    public boolean podeEmprestar(long emprestimosAtivos) {
+        return ativo && emprestimosAtivos < limiteEmprestimos;
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.enzo_molinaro.biblioteca.entity.listener;
+
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.service.UnicidadeService;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Leva aos filtros do {@link UnicidadeService} o ISBN, o email e o CPF de toda gravação de livro
+ * ou usuário feita pelo JPA, antes do INSERT ou UPDATE, inclusive as que não passam pelos
+ * serviços. Instanciado pelo Hibernate através do contêiner de beans do Spring.
+ */
+@RequiredArgsConstructor
+public class UnicidadeListener {
+
+    // Tardio: o listener é criado junto com o EntityManagerFactory, antes dos repositórios
+    private final ObjectProvider<UnicidadeService> unicidadeService;
+
+    @PrePersist
+    @PreUpdate
+    public void registrar(Object entidade) {
+        UnicidadeService servico = unicidadeService.getIfAvailable();
+        if (servico == null) return;
+
+        if (entidade instanceof Livro livro) {
+            servico.registrarIsbn(livro.getIsbn());
+        } else if (entidade instanceof Usuario usuario) {
+            servico.registrarUsuario(usuario.getEmail(), usuario.getCpf());
+        }
+    }
+}
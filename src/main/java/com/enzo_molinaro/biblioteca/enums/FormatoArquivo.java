@@ -0,0 +1,33 @@
+package com.enzo_molinaro.biblioteca.enums;
+
+import org.springframework.http.MediaType;
+
+public enum FormatoArquivo {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extensao;
+
+    FormatoArquivo(String mediaType, String extensao) {
+        this.mediaType = mediaType;
+        this.extensao = extensao;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public static FormatoArquivo deMediaType(MediaType mediaType) {
+        for (FormatoArquivo formato : values()) {
+            if (MediaType.parseMediaType(formato.mediaType).isCompatibleWith(mediaType)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato de arquivo não suportado: " + mediaType);
+    }
+}
@@ -0,0 +1,6 @@
+package com.enzo_molinaro.biblioteca.enums;
+
+public enum TipoSugestao {
+    TITULO,
+    AUTOR
+}
\ No newline at end of file
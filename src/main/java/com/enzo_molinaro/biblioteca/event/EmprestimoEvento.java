@@ -0,0 +1,40 @@
+package com.enzo_molinaro.biblioteca.event;
+
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class EmprestimoEvento {
+
+    public enum Tipo {
+        CRIADO,
+        DEVOLVIDO,
+        RENOVADO
+    }
+
+    private final Tipo tipo;
+    private final Long emprestimoId;
+    private final Long livroId;
+    private final Long usuarioId;
+
+    private final StatusEmprestimo statusAnterior;
+    private final StatusEmprestimo statusAtual;
+
+    // Situação de atraso antes da operação (relevante na devolução)
+    private final boolean atrasadoAnterior;
+    private final BigDecimal multaAnterior;
+
+    private final boolean livroIndisponivelAnterior;
+    private final boolean livroIndisponivelAtual;
+
+    // Dias afetados na consolidação diária (a anterior só muda na renovação)
+    private final LocalDate dataPrevistaDevolucaoAnterior;
+    private final LocalDate dataPrevistaDevolucaoAtual;
+}
@@ -0,0 +1,28 @@
+package com.enzo_molinaro.biblioteca.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class LivroEvento {
+
+    public enum Tipo {
+        CRIADO,
+        ATUALIZADO,
+        DESATIVADO
+    }
+
+    private final Tipo tipo;
+    private final Long livroId;
+
+    // Campos indexados pela busca do catálogo (ausentes em DESATIVADO)
+    private final String titulo;
+    private final String autor;
+    private final String isbn;
+
+    private final boolean indisponivelAnterior;
+    private final boolean indisponivelAtual;
+}
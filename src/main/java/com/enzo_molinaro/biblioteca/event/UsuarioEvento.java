@@ -0,0 +1,20 @@
+package com.enzo_molinaro.biblioteca.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class UsuarioEvento {
+
+    public enum Tipo {
+        CRIADO,
+        ATUALIZADO,
+        DESATIVADO
+    }
+
+    private final Tipo tipo;
+    private final Long usuarioId;
+}
@@ -0,0 +1,8 @@
+package com.enzo_molinaro.biblioteca.exception;
+
+public class ServicoSobrecarregadoException extends RuntimeException {
+
+    public ServicoSobrecarregadoException(String message) {
+        super(message);
+    }
+}
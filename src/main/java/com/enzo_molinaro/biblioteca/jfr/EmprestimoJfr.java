@@ -0,0 +1,66 @@
+package com.enzo_molinaro.biblioteca.jfr;
+
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.Setter;
+
+/**
+ * Empréstimo, devolução ou renovação, do início da chamada ao serviço até a resposta.
+ * <p>
+ * O tipo do usuário só é conhecido dentro do serviço, depois de carregado: o serviço o informa
+ * com {@link #informarTipoUsuario(TipoUsuario)}, que não faz nada quando não há gravação.
+ */
+@Name("biblioteca.Emprestimo")
+@Label("Operação de empréstimo")
+@Description("Empréstimo, devolução ou renovação, com o tipo do usuário e o resultado")
+@Category({"Biblioteca", "Circulação"})
+@StackTrace(false)
+@Setter
+public class EmprestimoJfr extends Event {
+
+    private static final ThreadLocal<EmprestimoJfr> ATUAL = new ThreadLocal<>();
+
+    @Label("Operação")
+    private String operacao;
+
+    @Label("Empréstimo")
+    private long emprestimoId;
+
+    @Label("Tipo de usuário")
+    private String tipoUsuario;
+
+    @Label("Resultado")
+    private String resultado;
+
+    @Label("Motivo")
+    private String motivo;
+
+    @Label("Instruções SQL")
+    private int consultasSql;
+
+    @Label("Tempo no banco")
+    @Timespan(Timespan.MILLISECONDS)
+    private long tempoNoBanco;
+
+    public static void informarTipoUsuario(TipoUsuario tipo) {
+        EmprestimoJfr evento = ATUAL.get();
+        if (evento != null) {
+            evento.tipoUsuario = tipo.name();
+        }
+    }
+
+    // Torna este o evento da thread, até desvincular()
+    public void vincular() {
+        ATUAL.set(this);
+    }
+
+    public void desvincular() {
+        ATUAL.remove();
+    }
+}
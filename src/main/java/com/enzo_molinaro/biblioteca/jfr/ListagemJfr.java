@@ -0,0 +1,39 @@
+package com.enzo_molinaro.biblioteca.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.Setter;
+
+/**
+ * Listagem de livros, usuários ou empréstimos convertida em DTOs pelos mappers. A duração menos o
+ * tempo no banco é, quase toda, mapeamento: é o que cruzar com os picos de CPU e alocação.
+ */
+@Name("biblioteca.Listagem")
+@Label("Listagem")
+@Description("Listagem mapeada para DTOs, com o número de itens e o custo no banco")
+@Category({"Biblioteca", "Listagens"})
+@StackTrace(false)
+@Setter
+public class ListagemJfr extends Event {
+
+    @Label("Serviço")
+    private String servico;
+
+    @Label("Operação")
+    private String operacao;
+
+    @Label("Itens")
+    private int itens;
+
+    @Label("Instruções SQL")
+    private int consultasSql;
+
+    @Label("Tempo no banco")
+    @Timespan(Timespan.MILLISECONDS)
+    private long tempoNoBanco;
+}
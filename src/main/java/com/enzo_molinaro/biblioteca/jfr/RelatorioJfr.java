@@ -0,0 +1,42 @@
+package com.enzo_molinaro.biblioteca.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.Setter;
+
+/**
+ * Geração de um relatório, contada por fora do cache: sem instruções SQL, veio do cache.
+ */
+@Name("biblioteca.Relatorio")
+@Label("Relatório")
+@Description("Relatório gerado, com os parâmetros, os itens devolvidos e o custo no banco")
+@Category({"Biblioteca", "Relatórios"})
+@StackTrace(false)
+@Setter
+public class RelatorioJfr extends Event {
+
+    @Label("Relatório")
+    private String relatorio;
+
+    @Label("Parâmetros")
+    private String parametros;
+
+    @Label("Itens")
+    @Description("Linhas das listas ou entradas dos mapas da resposta")
+    private int itens;
+
+    @Label("Resultado")
+    private String resultado;
+
+    @Label("Instruções SQL")
+    private int consultasSql;
+
+    @Label("Tempo no banco")
+    @Timespan(Timespan.MILLISECONDS)
+    private long tempoNoBanco;
+}
@@ -18,6 +18,10 @@ public interface UsuarioMapper {
     @Mapping(target = "emprestimoAtivos", expression = "java(entity.getEmprestimosAtivos())")
     UsuarioResponseDTO toResponseDTO(Usuario entity);
 
+    // Com a contagem já consultada: não carrega a coleção de empréstimos do usuário
+    @Mapping(target = "emprestimoAtivos", source = "emprestimosAtivos")
+    UsuarioResponseDTO toResponseDTO(Usuario entity, Long emprestimosAtivos);
+
     List<UsuarioResponseDTO> toResponseDTOList(List<Usuario> entities);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
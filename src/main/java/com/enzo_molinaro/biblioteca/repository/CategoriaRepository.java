@@ -1,8 +1,11 @@
 package com.enzo_molinaro.biblioteca.repository;
 
 import com.enzo_molinaro.biblioteca.entity.Categoria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,6 +14,18 @@ import java.util.Optional;
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
 
+    // Categorias quase nunca mudam: consultas no cache, invalidadas por qualquer gravação nelas
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas-catalogo")
+    })
+    @Override
+    List<Categoria> findAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas-catalogo")
+    })
     Optional<Categoria> findByNome(String nome);
 
     boolean existsByNome(String nome);
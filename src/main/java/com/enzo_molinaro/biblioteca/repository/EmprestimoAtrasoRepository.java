@@ -0,0 +1,13 @@
+package com.enzo_molinaro.biblioteca.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Transição em massa dos empréstimos vencidos para {@code ATRASADO}, com a multa corrida até a
+ * data informada.
+ */
+public interface EmprestimoAtrasoRepository {
+
+    // Atualiza no máximo {@code lote} empréstimos; retorna quantos foram atualizados
+    int marcarAtrasados(LocalDate hoje, int lote);
+}
@@ -0,0 +1,38 @@
+package com.enzo_molinaro.biblioteca.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Em SQL pela conexão da transação, e não por JPQL ou consulta nativa do Hibernate, que
+ * esvaziariam o cache de segundo nível. A versão é incrementada para que uma devolução ou
+ * renovação concorrente falhe no bloqueio otimista e seja repetida com o estado novo.
+ * <p>
+ * Só entram empréstimos ainda não atrasados ou com a multa desatualizada, então o mesmo UPDATE
+ * pode ser repetido até não restar nenhum.
+ */
+@RequiredArgsConstructor
+public class EmprestimoAtrasoRepositoryImpl implements EmprestimoAtrasoRepository {
+
+    private static final String MULTA_CORRIDA = "(SELECT l.valor_multa_diaria FROM livros l WHERE l.id = emprestimos.livro_id) " +
+            "* TIMESTAMPDIFF(DAY, data_prevista_devolucao, :hoje)";
+
+    private static final String MARCAR_ATRASADOS = "UPDATE emprestimos " +
+            "SET status = 'ATRASADO', valor_multa = " + MULTA_CORRIDA + ", versao = versao + 1 " +
+            "WHERE status IN ('ATIVO', 'RENOVADO', 'ATRASADO') AND data_prevista_devolucao < :hoje " +
+            "AND data_devolucao IS NULL " +
+            "AND (status <> 'ATRASADO' OR COALESCE(valor_multa, -1) <> COALESCE(" + MULTA_CORRIDA + ", -1)) " +
+            "LIMIT :lote";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int marcarAtrasados(LocalDate hoje, int lote) {
+        return jdbcTemplate.update(MARCAR_ATRASADOS, new MapSqlParameterSource()
+                .addValue("hoje", hoje)
+                .addValue("lote", lote));
+    }
+}
@@ -1,19 +1,31 @@
 package com.enzo_molinaro.biblioteca.repository;
 
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoExportacaoDTO;
+import com.enzo_molinaro.biblioteca.dto.response.LivroRankingDTO;
+import com.enzo_molinaro.biblioteca.dto.response.UsuarioRankingDTO;
 import com.enzo_molinaro.biblioteca.entity.Emprestimo;
 import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.repository.projection.EmprestimosAtivosProjection;
+import com.enzo_molinaro.biblioteca.repository.projection.RelatorioGeralProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmprestimoRepository extends JpaRepository<Emprestimo, Long> {
+public interface EmprestimoRepository extends JpaRepository<Emprestimo, Long>, EmprestimoAtrasoRepository {
 
     List<Emprestimo> findByUsuarioIdAndStatus(Long usuarioId, StatusEmprestimo status);
 
@@ -25,29 +37,139 @@ public interface EmprestimoRepository extends JpaRepository<Emprestimo, Long> {
     @Query("SELECT COUNT(e) FROM Emprestimo e WHERE e.usuario.id = :usuarioId AND e.dataDevolucao IS NULL")
     long countEmprestimosAtivosByUsuarioId(@Param("usuarioId") Long usuarioId);
 
+    // Os já marcados como ATRASADO pela varredura, mais os que venceram desde a última execução:
+    // todas as condições são intervalos do índice (status, data_prevista_devolucao)
+    @EntityGraph(attributePaths = {"livro", "usuario"})
     @Query("SELECT e FROM Emprestimo e WHERE e.dataDevolucao IS NULL " +
-            "AND e.dataPrevistaDevolucao < :data")
+            "AND (e.status = com.enzo_molinaro.biblioteca.enums.StatusEmprestimo.ATRASADO " +
+            "OR (e.status IN (com.enzo_molinaro.biblioteca.enums.StatusEmprestimo.ATIVO, " +
+            "com.enzo_molinaro.biblioteca.enums.StatusEmprestimo.RENOVADO) " +
+            "AND e.dataPrevistaDevolucao < :data))")
     List<Emprestimo> findEmprestimosAtrasados(@Param("data") LocalDate data);
 
-    @Query("SELECT e FROM Emprestimo e WHERE e.dataPrevistaDevolucao BETWEEN :dataInicio AND :dataFim")
-    List<Emprestimo> findEmprestimosPorPeriodo(
+    @Query("SELECT DISTINCT e.dataPrevistaDevolucao FROM Emprestimo e " +
+            "WHERE e.status = :status AND e.dataDevolucao IS NULL")
+    List<LocalDate> findDatasPrevistasEmAbertoPorStatus(@Param("status") StatusEmprestimo status);
+
+    @EntityGraph(attributePaths = {"livro", "usuario"})
+    @Query("SELECT e FROM Emprestimo e " +
+            "WHERE e.dataDevolucao IS NULL " +
+            "AND e.dataPrevistaDevolucao BETWEEN :dataInicio AND :dataFim")
+    List<Emprestimo> findEmprestimosAbertosPorPeriodo(
             @Param("dataInicio") LocalDate dataInicio,
             @Param("dataFim") LocalDate dataFim
     );
 
+    // Listagens paginadas: livro e usuário vêm no mesmo SELECT; a contagem não faz JOIN
+    @Override
+    @EntityGraph(attributePaths = {"livro", "usuario"})
+    Page<Emprestimo> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"livro", "usuario"})
     Page<Emprestimo> findByStatus(StatusEmprestimo status, Pageable pageable);
 
-    @Query("SELECT e FROM Emprestimo e " +
+    @EntityGraph(attributePaths = {"livro", "usuario"})
+    @Query(value = "SELECT e FROM Emprestimo e " +
             "WHERE e.usuario.id = :usuarioId " +
-            "ORDER BY e.dataEmprestimo DESC")
+            "ORDER BY e.dataEmprestimo DESC, e.id DESC",
+            countQuery = "SELECT COUNT(e) FROM Emprestimo e WHERE e.usuario.id = :usuarioId")
     Page<Emprestimo> findByUsuarioIdOrderByDataEmprestimoDesc(
             @Param("usuarioId") Long usuarioId,
             Pageable pageable
     );
 
+    // Paginação por cursor, do mais recente ao mais antigo: busca por intervalo antes de
+    // (dataEmprestimo, id), sem OFFSET nem contagem (ver LivroRepository.findByAtivoTrueAposCursor)
+    @EntityGraph(attributePaths = {"livro", "usuario"})
+    @Query("SELECT e FROM Emprestimo e " +
+            "WHERE e.dataEmprestimo <= :dataEmprestimo AND (e.dataEmprestimo < :dataEmprestimo OR e.id < :id) " +
+            "ORDER BY e.dataEmprestimo DESC, e.id DESC")
+    List<Emprestimo> findAposCursor(@Param("dataEmprestimo") LocalDate dataEmprestimo, @Param("id") Long id,
+                                    Pageable limite);
+
+    @EntityGraph(attributePaths = {"livro", "usuario"})
+    @Query("SELECT e FROM Emprestimo e WHERE e.status = :status " +
+            "AND e.dataEmprestimo <= :dataEmprestimo AND (e.dataEmprestimo < :dataEmprestimo OR e.id < :id) " +
+            "ORDER BY e.status, e.dataEmprestimo DESC, e.id DESC")
+    List<Emprestimo> findByStatusAposCursor(@Param("status") StatusEmprestimo status,
+                                            @Param("dataEmprestimo") LocalDate dataEmprestimo,
+                                            @Param("id") Long id, Pageable limite);
+
+    @EntityGraph(attributePaths = {"livro", "usuario"})
+    @Query("SELECT e FROM Emprestimo e WHERE e.usuario.id = :usuarioId " +
+            "AND e.dataEmprestimo <= :dataEmprestimo AND (e.dataEmprestimo < :dataEmprestimo OR e.id < :id) " +
+            "ORDER BY e.usuario.id, e.dataEmprestimo DESC, e.id DESC")
+    List<Emprestimo> findByUsuarioIdAposCursor(@Param("usuarioId") Long usuarioId,
+                                               @Param("dataEmprestimo") LocalDate dataEmprestimo,
+                                               @Param("id") Long id, Pageable limite);
+
     @Query("SELECT e FROM Emprestimo e JOIN FETCH e.livro JOIN FETCH e.usuario " +
             "WHERE e.id = :id")
-    Emprestimo findByIdWithDetails(@Param("id") Long id);
+    Optional<Emprestimo> findByIdWithDetails(@Param("id") Long id);
+
+    @Query("SELECT e FROM Emprestimo e JOIN FETCH e.livro JOIN FETCH e.usuario " +
+            "WHERE e.id IN :ids")
+    List<Emprestimo> findAllByIdWithDetails(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT e.livro.id FROM Emprestimo e " +
+            "WHERE e.usuario.id = :usuarioId AND e.dataDevolucao IS NULL AND e.livro.id IN :livroIds")
+    List<Long> findLivroIdsEmprestadosAoUsuario(@Param("usuarioId") Long usuarioId,
+                                                @Param("livroIds") Collection<Long> livroIds);
 
     boolean existsByUsuarioIdAndLivroIdAndDataDevolucaoIsNull(Long usuarioId, Long livroId);
+
+    boolean existsByUsuarioIdAndDataDevolucaoIsNullAndDataPrevistaDevolucaoBefore(Long usuarioId, LocalDate data);
+
+    // Exportação: cursor somente-leitura consumido linha a linha. No MySQL o fetch size só é
+    // respeitado com useCursorFetch=true na URL de conexão
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.enzo_molinaro.biblioteca.dto.response.EmprestimoExportacaoDTO(" +
+            "e.id, l.id, l.titulo, l.isbn, u.id, u.nome, u.email, e.dataEmprestimo, e.dataPrevistaDevolucao, " +
+            "e.dataDevolucao, e.status, e.valorMulta, e.observacoes) " +
+            "FROM Emprestimo e JOIN e.livro l JOIN e.usuario u " +
+            "WHERE (:status IS NULL OR e.status = :status) " +
+            "AND (:dataInicio IS NULL OR e.dataEmprestimo >= :dataInicio) " +
+            "AND (:dataFim IS NULL OR e.dataEmprestimo <= :dataFim) " +
+            "ORDER BY e.id")
+    Stream<EmprestimoExportacaoDTO> exportar(@Param("status") StatusEmprestimo status,
+                                             @Param("dataInicio") LocalDate dataInicio,
+                                             @Param("dataFim") LocalDate dataFim);
+
+    // Empréstimos ativos de uma página de usuários numa consulta agrupada; quem não tem nenhum não aparece
+    @Query("SELECT e.usuario.id AS usuarioId, COUNT(e) AS emprestimosAtivos FROM Emprestimo e " +
+            "WHERE e.usuario.id IN :usuarioIds AND e.dataDevolucao IS NULL " +
+            "GROUP BY e.usuario.id")
+    List<EmprestimosAtivosProjection> countEmprestimosAtivosByUsuarioIds(@Param("usuarioIds") Collection<Long> usuarioIds);
+
+    // Rankings agregados no banco: GROUP BY/ORDER BY/LIMIT em uma única consulta
+    @Query("SELECT new com.enzo_molinaro.biblioteca.dto.response.LivroRankingDTO(" +
+            "l.id, l.titulo, l.autor, l.isbn, COUNT(e)) " +
+            "FROM Emprestimo e JOIN e.livro l " +
+            "GROUP BY l.id, l.titulo, l.autor, l.isbn " +
+            "ORDER BY COUNT(e) DESC, l.id")
+    List<LivroRankingDTO> findLivrosMaisEmprestados(Pageable pageable);
+
+    @Query("SELECT new com.enzo_molinaro.biblioteca.dto.response.UsuarioRankingDTO(" +
+            "u.id, u.nome, u.email, u.tipo, COUNT(e)) " +
+            "FROM Emprestimo e JOIN e.usuario u " +
+            "GROUP BY u.id, u.nome, u.email, u.tipo " +
+            "ORDER BY COUNT(e) DESC, u.id")
+    List<UsuarioRankingDTO> findUsuariosMaisAtivos(Pageable pageable);
+
+    // Todos os indicadores do relatório geral em uma única instrução, sem carregar entidades
+    @Query(value = "SELECT " +
+            "(SELECT COUNT(*) FROM livros) AS totalLivros, " +
+            "(SELECT COUNT(*) FROM usuarios) AS totalUsuarios, " +
+            "(SELECT COUNT(*) FROM emprestimos) AS totalEmprestimos, " +
+            "(SELECT COUNT(*) FROM emprestimos WHERE status = 'ATIVO') AS emprestimosAtivos, " +
+            "(SELECT COUNT(*) FROM emprestimos WHERE data_devolucao IS NULL " +
+            "AND data_prevista_devolucao < :hoje) AS emprestimosAtrasados, " +
+            "(SELECT COALESCE(SUM(valor_multa), 0) FROM emprestimos WHERE data_devolucao IS NULL " +
+            "AND data_prevista_devolucao < :hoje) AS multasAcumuladas, " +
+            "(SELECT COUNT(*) FROM livros WHERE quantidade_disponivel = 0 AND ativo = TRUE) AS livrosIndisponiveis",
+            nativeQuery = true)
+    RelatorioGeralProjection calcularRelatorioGeral(@Param("hoje") LocalDate hoje);
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.enzo_molinaro.biblioteca.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Tabela {@code estatisticas_emprestimos_diarias}, sem entidade JPA: os recálculos são
+ * DELETE + INSERT ... SELECT em SQL puro. Uma consulta nativa de escrita pelo Hibernate esvaziaria
+ * todas as regiões do cache de segundo nível.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EstatisticaDiariaRepository {
+
+    private static final String APAGAR = "DELETE FROM estatisticas_emprestimos_diarias WHERE ";
+
+    private static final String CONSOLIDAR = "INSERT INTO estatisticas_emprestimos_diarias (dia, categoria_id, " +
+            "tipo_usuario, total_emprestimos, devolvidos_no_prazo, devolvidos_com_atraso, ainda_emprestados, multas_geradas) " +
+            "SELECT e.data_prevista_devolucao, COALESCE(l.categoria_id, 0), u.tipo, COUNT(*), " +
+            "SUM(CASE WHEN e.data_devolucao <= e.data_prevista_devolucao THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN e.data_devolucao > e.data_prevista_devolucao THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN e.data_devolucao IS NULL THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(e.valor_multa), 0) " +
+            "FROM emprestimos e " +
+            "JOIN livros l ON l.id = e.livro_id " +
+            "JOIN usuarios u ON u.id = e.usuario_id " +
+            "WHERE %s " +
+            "GROUP BY e.data_prevista_devolucao, COALESCE(l.categoria_id, 0), u.tipo";
+
+    private static final String SOMAR = "SELECT COALESCE(SUM(total_emprestimos), 0) AS total_emprestimos, " +
+            "COALESCE(SUM(devolvidos_no_prazo), 0) AS devolvidos_no_prazo, " +
+            "COALESCE(SUM(devolvidos_com_atraso), 0) AS devolvidos_com_atraso, " +
+            "COALESCE(SUM(ainda_emprestados), 0) AS ainda_emprestados, " +
+            "COALESCE(SUM(multas_geradas), 0) AS multas_geradas " +
+            "FROM estatisticas_emprestimos_diarias WHERE dia BETWEEN :inicio AND :fim";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Totais(long totalEmprestimos, long devolvidosNoPrazo, long devolvidosComAtraso,
+                         long aindaEmprestados, BigDecimal multasGeradas) {
+    }
+
+    public record Intervalo(LocalDate inicio, LocalDate fim) {
+    }
+
+    // Recalcula os dias informados; dias sem empréstimos ficam sem linhas
+    public int recalcular(Collection<LocalDate> dias) {
+        if (dias.isEmpty()) return 0;
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource("dias", dias);
+        jdbcTemplate.update(APAGAR + "dia IN (:dias)", parametros);
+        return jdbcTemplate.update(CONSOLIDAR.formatted("e.data_prevista_devolucao IN (:dias)"), parametros);
+    }
+
+    public int recalcular(LocalDate inicio, LocalDate fim) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("inicio", inicio)
+                .addValue("fim", fim);
+        jdbcTemplate.update(APAGAR + "dia BETWEEN :inicio AND :fim", parametros);
+        return jdbcTemplate.update(
+                CONSOLIDAR.formatted("e.data_prevista_devolucao BETWEEN :inicio AND :fim"), parametros);
+    }
+
+    public Totais somar(LocalDate inicio, LocalDate fim) {
+        return jdbcTemplate.queryForObject(SOMAR, new MapSqlParameterSource()
+                        .addValue("inicio", inicio)
+                        .addValue("fim", fim),
+                (rs, linha) -> new Totais(
+                        rs.getLong("total_emprestimos"),
+                        rs.getLong("devolvidos_no_prazo"),
+                        rs.getLong("devolvidos_com_atraso"),
+                        rs.getLong("ainda_emprestados"),
+                        rs.getBigDecimal("multas_geradas")));
+    }
+
+    public boolean vazia() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM estatisticas_emprestimos_diarias)",
+                new MapSqlParameterSource(), Boolean.class));
+    }
+
+    // Datas previstas do primeiro e do último empréstimo (pelo índice de data_prevista_devolucao)
+    public Optional<Intervalo> intervaloDosEmprestimos() {
+        return jdbcTemplate.query("SELECT MIN(data_prevista_devolucao) AS inicio, MAX(data_prevista_devolucao) AS fim " +
+                                "FROM emprestimos", new MapSqlParameterSource(),
+                        (rs, linha) -> rs.getDate("inicio") == null ? null
+                                : new Intervalo(rs.getDate("inicio").toLocalDate(), rs.getDate("fim").toLocalDate()))
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+}
@@ -0,0 +1,25 @@
+package com.enzo_molinaro.biblioteca.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Atualizações condicionais atômicas da quantidade disponível: nunca empresta além do estoque nem
+ * devolve acima do total. Retornam o número de livros atualizados.
+ */
+public interface LivroEstoqueRepository {
+
+    int decrementarDisponivel(Long id);
+
+    int incrementarDisponivel(Long id);
+
+    int decrementarDisponivel(Collection<Long> ids, int quantidade);
+
+    int incrementarDisponivel(Collection<Long> ids, int quantidade);
+
+    /**
+     * Quantidade disponível dos livros ativos, lida pela conexão da transação. Depois de um dos
+     * UPDATEs acima, é o valor da linha ainda bloqueada por ele, e não o da entidade carregada antes.
+     */
+    Map<Long, Integer> quantidadesDisponiveis(Collection<Long> ids);
+}
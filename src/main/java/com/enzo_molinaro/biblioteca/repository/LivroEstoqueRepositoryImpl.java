@@ -0,0 +1,90 @@
+package com.enzo_molinaro.biblioteca.repository;
+
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * O UPDATE em massa do JPQL esvaziaria toda a região de livros do cache de segundo nível a cada
+ * empréstimo. Em SQL pela mesma conexão da transação, só os livros alterados saem do cache: agora
+ * e de novo ao fim da transação, para descartar o que outra transação tenha lido antes do commit.
+ */
+@RequiredArgsConstructor
+public class LivroEstoqueRepositoryImpl implements LivroEstoqueRepository {
+
+    private static final String DECREMENTAR = "UPDATE livros SET quantidade_disponivel = quantidade_disponivel - :quantidade, " +
+            "versao = versao + 1, atualizado_em = CURRENT_TIMESTAMP " +
+            "WHERE id IN (:ids) AND ativo = TRUE AND quantidade_disponivel >= :quantidade";
+
+    private static final String INCREMENTAR = "UPDATE livros SET quantidade_disponivel = quantidade_disponivel + :quantidade, " +
+            "versao = versao + 1, atualizado_em = CURRENT_TIMESTAMP " +
+            "WHERE id IN (:ids) AND quantidade_disponivel + :quantidade <= quantidade_total";
+
+    private static final String DISPONIVEIS = "SELECT id, quantidade_disponivel FROM livros " +
+            "WHERE id IN (:ids) AND ativo = TRUE";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public int decrementarDisponivel(Long id) {
+        return atualizar(DECREMENTAR, List.of(id), 1);
+    }
+
+    @Override
+    public int incrementarDisponivel(Long id) {
+        return atualizar(INCREMENTAR, List.of(id), 1);
+    }
+
+    @Override
+    public int decrementarDisponivel(Collection<Long> ids, int quantidade) {
+        return atualizar(DECREMENTAR, ids, quantidade);
+    }
+
+    @Override
+    public int incrementarDisponivel(Collection<Long> ids, int quantidade) {
+        return atualizar(INCREMENTAR, ids, quantidade);
+    }
+
+    @Override
+    public Map<Long, Integer> quantidadesDisponiveis(Collection<Long> ids) {
+        Map<Long, Integer> disponiveis = new HashMap<>();
+        if (ids.isEmpty()) return disponiveis;
+
+        jdbcTemplate.query(DISPONIVEIS, new MapSqlParameterSource("ids", ids), (RowCallbackHandler) rs ->
+                disponiveis.put(rs.getLong("id"), rs.getInt("quantidade_disponivel")));
+        return disponiveis;
+    }
+
+    private int atualizar(String sql, Collection<Long> ids, int quantidade) {
+        if (ids.isEmpty()) return 0;
+
+        int atualizados = jdbcTemplate.update(sql, new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("quantidade", quantidade));
+
+        List<Long> alterados = List.copyOf(ids);
+        Cache cache = entityManagerFactory.getCache();
+        alterados.forEach(id -> cache.evict(Livro.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    alterados.forEach(id -> cache.evict(Livro.class, id));
+                }
+            });
+        }
+        return atualizados;
+    }
+}
@@ -1,23 +1,46 @@
 package com.enzo_molinaro.biblioteca.repository;
 
+import com.enzo_molinaro.biblioteca.dto.response.LivroExportacaoDTO;
 import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.repository.projection.LivroIndexacaoProjection;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface LivroRepository extends JpaRepository<Livro, Long> {
+public interface LivroRepository extends JpaRepository<Livro, Long>, LivroEstoqueRepository {
 
     Optional<Livro> findByIsbn(String isbn);
 
     boolean existsByIsbn(String isbn);
 
+    @Query("SELECT l.isbn FROM Livro l WHERE l.isbn IN :isbns")
+    List<String> findIsbnsExistentes(@Param("isbns") Collection<String> isbns);
+
+    @Query("SELECT l.id FROM Livro l WHERE l.isbn = :isbn")
+    Optional<Long> findIdByIsbn(@Param("isbn") String isbn);
+
+    // Carga do filtro de unicidade (ver exportar)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l.isbn FROM Livro l")
+    Stream<String> findTodosOsIsbns();
+
     Page<Livro> findByAtivoTrue(Pageable pageable);
 
     @Query("SELECT l FROM Livro l WHERE l.ativo = true AND " +
@@ -26,6 +49,33 @@ public interface LivroRepository extends JpaRepository<Livro, Long> {
             "LOWER(l.isbn) LIKE LOWER(CONCAT('%', :termo, '%')))")
     Page<Livro> buscarPorTermo(@Param("termo") String termo, Pageable pageable);
 
+    // Busca pelo índice do catálogo: carrega de uma vez os IDs já ordenados por relevância
+    @Query("SELECT l FROM Livro l LEFT JOIN FETCH l.categoria WHERE l.id IN :ids AND l.ativo = true")
+    List<Livro> findAtivosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Paginação por cursor: busca por intervalo depois de (titulo, id), sem OFFSET; a primeira
+    // condição é redundante, mas é a que o banco usa para posicionar no índice. Ordenar também
+    // pela coluna fixa (ativo) permite ao H2 ler na ordem do índice. O Pageable só limita
+    @Query("SELECT l FROM Livro l WHERE l.ativo = true " +
+            "AND l.titulo >= :titulo AND (l.titulo > :titulo OR l.id > :id) " +
+            "ORDER BY l.ativo, l.titulo, l.id")
+    List<Livro> findByAtivoTrueAposCursor(@Param("titulo") String titulo, @Param("id") Long id,
+                                          Pageable limite);
+
+    @Query("SELECT l FROM Livro l WHERE l.ativo = true " +
+            "AND l.titulo >= :titulo AND (l.titulo > :titulo OR l.id > :id) AND " +
+            "(LOWER(l.titulo) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
+            "LOWER(l.autor) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
+            "LOWER(l.isbn) LIKE LOWER(CONCAT('%', :termo, '%'))) " +
+            "ORDER BY l.ativo, l.titulo, l.id")
+    List<Livro> buscarPorTermoAposCursor(@Param("termo") String termo, @Param("titulo") String titulo,
+                                         @Param("id") Long id, Pageable limite);
+
+    // Resultado no cache de consultas: invalidado por gravações de livros feitas pelo Hibernate
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "consultas-catalogo")
+    })
     @Query("SELECT l FROM Livro l WHERE l.categoria.id = :categoriaId AND l.ativo = true")
     Page<Livro> findByCategoriaId(@Param("categoriaId") Long categoriaId, Pageable pageable);
 
@@ -36,4 +86,32 @@ public interface LivroRepository extends JpaRepository<Livro, Long> {
     List<Livro> findIndisponiveis();
 
     List<Livro> findByAutorContainingIgnoreCaseAndAtivoTrue(String autor);
+
+    // Exportação: cursor somente-leitura (ver EmprestimoRepository.exportar)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.enzo_molinaro.biblioteca.dto.response.LivroExportacaoDTO(" +
+            "l.id, l.isbn, l.titulo, l.autor, l.editora, l.anoPublicacao, l.quantidadeTotal, " +
+            "l.quantidadeDisponivel, l.valorMultaDiaria, c.nome, l.ativo) " +
+            "FROM Livro l LEFT JOIN l.categoria c " +
+            "WHERE (:ativo IS NULL OR l.ativo = :ativo) " +
+            "ORDER BY l.id")
+    Stream<LivroExportacaoDTO> exportar(@Param("ativo") Boolean ativo);
+
+    // Construção do índice de busca do catálogo (ver exportar)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l.id AS id, l.titulo AS titulo, l.autor AS autor, l.isbn AS isbn " +
+            "FROM Livro l WHERE l.ativo = true ORDER BY l.id")
+    Stream<LivroIndexacaoProjection> findParaIndexacao();
+
+    // Operações em lote: as linhas ficam bloqueadas (em ordem de id, evitando deadlock) até o
+    // commit, então a disponibilidade lida é a que será atualizada
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Livro l WHERE l.id IN :ids ORDER BY l.id")
+    List<Livro> findAllByIdParaAtualizacao(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
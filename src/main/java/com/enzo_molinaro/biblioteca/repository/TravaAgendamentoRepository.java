@@ -0,0 +1,42 @@
+package com.enzo_molinaro.biblioteca.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+/**
+ * Travas com prazo da tabela {@code travas_agendamento}. Adquirir e renovar são o mesmo UPDATE
+ * condicional (trava livre, vencida ou já do próprio dono), atômico no banco; o prazo é medido
+ * pelo relógio do banco, comum a todos os nós. Fora de transação, cada instrução é confirmada
+ * na hora.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TravaAgendamentoRepository {
+
+    private static final String ADQUIRIR = "UPDATE travas_agendamento " +
+            "SET dono = :dono, expira_em = TIMESTAMPADD(SECOND, :segundos, CURRENT_TIMESTAMP) " +
+            "WHERE nome = :nome AND (dono IS NULL OR dono = :dono OR expira_em < CURRENT_TIMESTAMP)";
+
+    private static final String LIBERAR = "UPDATE travas_agendamento SET dono = NULL, expira_em = CURRENT_TIMESTAMP " +
+            "WHERE nome = :nome AND dono = :dono";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Também renova a trava que o dono já tem
+    public boolean adquirir(String nome, String dono, Duration prazo) {
+        return jdbcTemplate.update(ADQUIRIR, new MapSqlParameterSource()
+                .addValue("nome", nome)
+                .addValue("dono", dono)
+                .addValue("segundos", prazo.toSeconds())) == 1;
+    }
+
+    public void liberar(String nome, String dono) {
+        jdbcTemplate.update(LIBERAR, new MapSqlParameterSource()
+                .addValue("nome", nome)
+                .addValue("dono", dono));
+    }
+}
@@ -2,15 +2,21 @@ package com.enzo_molinaro.biblioteca.repository;
 
 import com.enzo_molinaro.biblioteca.entity.Usuario;
 import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.repository.projection.UsuarioChavesProjection;
+import com.enzo_molinaro.biblioteca.repository.projection.UsuarioVersaoProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
@@ -23,6 +29,27 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     boolean existsByCpf(String cpf);
 
+    // Validadores do cache HTTP: a contagem de empréstimos ativos muda sem alterar o usuário
+    @Query("SELECT u.atualizadoEm AS atualizadoEm, " +
+            "(SELECT COUNT(e) FROM Emprestimo e WHERE e.usuario.id = u.id AND e.dataDevolucao IS NULL) AS emprestimosAtivos " +
+            "FROM Usuario u WHERE u.id = :id")
+    Optional<UsuarioVersaoProjection> findVersaoById(@Param("id") Long id);
+
+    // Validação de unicidade: donos do email e do CPF numa única consulta (no máximo duas linhas).
+    // UNION em vez de OR: cada metade é uma busca no seu índice único
+    @Query("SELECT u.id AS id, u.email AS email, u.cpf AS cpf FROM Usuario u WHERE u.email = :email " +
+            "UNION " +
+            "SELECT u.id AS id, u.email AS email, u.cpf AS cpf FROM Usuario u WHERE u.cpf = :cpf")
+    List<UsuarioChavesProjection> findByEmailOuCpf(@Param("email") String email, @Param("cpf") String cpf);
+
+    // Carga do filtro de unicidade (ver LivroRepository.exportar)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.id AS id, u.email AS email, u.cpf AS cpf FROM Usuario u")
+    Stream<UsuarioChavesProjection> findTodasAsChaves();
+
     Page<Usuario> findByAtivoTrue(Pageable pageable);
 
     List<Usuario> findByTipoAndAtivoTrue(TipoUsuario tipo);
@@ -33,6 +60,22 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
             "u.cpf LIKE CONCAT('%', :termo, '%'))")
     Page<Usuario> buscarPorTermo(@Param("termo") String termo, Pageable pageable);
 
+    // Paginação por cursor: mesma forma das consultas de LivroRepository, por (nome, id)
+    @Query("SELECT u FROM Usuario u WHERE u.ativo = true " +
+            "AND u.nome >= :nome AND (u.nome > :nome OR u.id > :id) " +
+            "ORDER BY u.ativo, u.nome, u.id")
+    List<Usuario> findByAtivoTrueAposCursor(@Param("nome") String nome, @Param("id") Long id,
+                                            Pageable limite);
+
+    @Query("SELECT u FROM Usuario u WHERE u.ativo = true " +
+            "AND u.nome >= :nome AND (u.nome > :nome OR u.id > :id) AND " +
+            "(LOWER(u.nome) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
+            "u.cpf LIKE CONCAT('%', :termo, '%')) " +
+            "ORDER BY u.ativo, u.nome, u.id")
+    List<Usuario> buscarPorTermoAposCursor(@Param("termo") String termo, @Param("nome") String nome,
+                                           @Param("id") Long id, Pageable limite);
+
     @Query("SELECT u FROM Usuario u JOIN u.emprestimos e " +
             "WHERE e.dataDevolucao IS NULL " +
             "GROUP BY u HAVING COUNT(e) >= u.limiteEmprestimos")
@@ -0,0 +1,8 @@
+package com.enzo_molinaro.biblioteca.repository.projection;
+
+public interface EmprestimosAtivosProjection {
+
+    Long getUsuarioId();
+
+    Long getEmprestimosAtivos();
+}
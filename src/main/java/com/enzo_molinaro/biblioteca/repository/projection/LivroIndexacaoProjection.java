@@ -0,0 +1,12 @@
+package com.enzo_molinaro.biblioteca.repository.projection;
+
+public interface LivroIndexacaoProjection {
+
+    Long getId();
+
+    String getTitulo();
+
+    String getAutor();
+
+    String getIsbn();
+}
\ No newline at end of file
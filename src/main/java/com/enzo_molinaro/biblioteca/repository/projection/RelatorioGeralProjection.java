@@ -0,0 +1,20 @@
+package com.enzo_molinaro.biblioteca.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface RelatorioGeralProjection {
+
+    Long getTotalLivros();
+
+    Long getTotalUsuarios();
+
+    Long getTotalEmprestimos();
+
+    Long getEmprestimosAtivos();
+
+    Long getEmprestimosAtrasados();
+
+    BigDecimal getMultasAcumuladas();
+
+    Long getLivrosIndisponiveis();
+}
@@ -0,0 +1,10 @@
+package com.enzo_molinaro.biblioteca.repository.projection;
+
+public interface UsuarioChavesProjection {
+
+    Long getId();
+
+    String getEmail();
+
+    String getCpf();
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.enzo_molinaro.biblioteca.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface UsuarioVersaoProjection {
+
+    LocalDateTime getAtualizadoEm();
+
+    Long getEmprestimosAtivos();
+}
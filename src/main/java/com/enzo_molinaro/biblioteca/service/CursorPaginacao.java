@@ -0,0 +1,70 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginação por cursor (keyset): o token codifica a chave de ordenação e o ID do último item
+ * entregue, e a próxima página é lida a partir dali com WHERE, sem OFFSET nem COUNT. Sem cursor,
+ * a consulta parte de uma posição anterior a qualquer registro, e a primeira página usa a mesma
+ * consulta das demais.
+ */
+public final class CursorPaginacao {
+
+    public static final int TAMANHO_MAXIMO = 100;
+
+    private CursorPaginacao() {
+    }
+
+    public record Posicao<T>(T chave, Long id) {
+    }
+
+    public static <T> Posicao<T> decodificar(String cursor, Function<String, T> conversor, Posicao<T> inicio) {
+        if (cursor == null || cursor.isBlank()) {
+            return inicio;
+        }
+
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // O ID vem primeiro: a chave pode conter o separador
+            int separador = conteudo.indexOf(':');
+            Long id = Long.valueOf(conteudo.substring(0, separador));
+            return new Posicao<>(conversor.apply(conteudo.substring(separador + 1)), id);
+        } catch (RuntimeException ex) {
+            throw new BusinessException("Cursor de paginação inválido");
+        }
+    }
+
+    public static String codificar(Object chave, Long id) {
+        String conteudo = id + ":" + chave;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Um item a mais que o pedido indica se há próxima página
+    public static Pageable limite(int tamanho) {
+        if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO) {
+            throw new BusinessException("Tamanho da página deve ser entre 1 e " + TAMANHO_MAXIMO);
+        }
+        return PageRequest.of(0, tamanho + 1);
+    }
+
+    public static <E, D> PaginaCursorDTO<D> pagina(List<E> resultados, int tamanho,
+                                                    Function<E, D> mapeador, Function<E, String> cursorDe) {
+        boolean temProxima = resultados.size() > tamanho;
+        List<E> itens = temProxima ? resultados.subList(0, tamanho) : resultados;
+
+        return PaginaCursorDTO.<D>builder()
+                .conteudo(itens.stream().map(mapeador).toList())
+                .tamanho(itens.size())
+                .temProxima(temProxima)
+                .proximoCursor(temProxima ? cursorDe.apply(itens.get(itens.size() - 1)) : null)
+                .build();
+    }
+}
@@ -1,36 +1,60 @@
 package com.enzo_molinaro.biblioteca.service;
 
+import com.enzo_molinaro.biblioteca.dto.request.DevolucaoLoteRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoLoteRequestDTO;
 import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
 import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ItemLoteDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ResultadoLoteDTO;
 import com.enzo_molinaro.biblioteca.entity.Emprestimo;
 import com.enzo_molinaro.biblioteca.entity.Livro;
 import com.enzo_molinaro.biblioteca.entity.Usuario;
 import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.event.EmprestimoEvento;
 import com.enzo_molinaro.biblioteca.exception.BusinessException;
 import com.enzo_molinaro.biblioteca.exception.ResourceNotFoundException;
+import com.enzo_molinaro.biblioteca.jfr.EmprestimoJfr;
 import com.enzo_molinaro.biblioteca.mapper.EmprestimoMapper;
 import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
 import com.enzo_molinaro.biblioteca.repository.LivroRepository;
 import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmprestimoService {
 
+    // Ordem decrescente por data: todo empréstimo vem antes desta posição
+    private static final CursorPaginacao.Posicao<LocalDate> INICIO =
+            new CursorPaginacao.Posicao<>(LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
     private final EmprestimoRepository emprestimoRepository;
     private final LivroRepository livroRepository;
     private final UsuarioRepository usuarioRepository;
     private final EmprestimoMapper emprestimoMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public EmprestimoResponseDTO criar(EmprestimoRequestDTO dto) {
@@ -42,6 +66,7 @@ public class EmprestimoService {
 
         Usuario usuario = usuarioRepository.findById(dto.getUsuarioId())
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+        EmprestimoJfr.informarTipoUsuario(usuario.getTipo());
 
         validarEmprestimo(livro, usuario);
 
@@ -54,20 +79,132 @@ public class EmprestimoService {
                 .observacoes(dto.getObservacoes())
                 .build();
 
-        livro.emprestar();
-        livroRepository.save(livro);
+        // Decremento condicional no banco: dois empréstimos simultâneos do último exemplar
+        // não podem ambos ter sucesso
+        if (livroRepository.decrementarDisponivel(livro.getId()) == 0) {
+            throw new BusinessException("Não há exemplares disponíveis deste livro");
+        }
+        // Lido da linha bloqueada pelo UPDATE: a entidade (talvez do cache) é de antes dele
+        boolean livroIndisponivelAtual = Integer.valueOf(0).equals(
+                livroRepository.quantidadesDisponiveis(List.of(livro.getId())).get(livro.getId()));
 
         Emprestimo emprestimoSalvo = emprestimoRepository.save(emprestimo);
         log.info("Empréstimo criado com sucesso. ID: {}", emprestimoSalvo.getId());
 
+        eventPublisher.publishEvent(EmprestimoEvento.builder()
+                .tipo(EmprestimoEvento.Tipo.CRIADO)
+                .emprestimoId(emprestimoSalvo.getId())
+                .livroId(livro.getId())
+                .usuarioId(usuario.getId())
+                .statusAtual(emprestimoSalvo.getStatus())
+                .livroIndisponivelAtual(livroIndisponivelAtual)
+                .dataPrevistaDevolucaoAtual(emprestimoSalvo.getDataPrevistaDevolucao())
+                .build());
+
         return emprestimoMapper.toResponseDTO(emprestimoSalvo);
     }
 
+    /**
+     * Empresta uma pilha de livros a um mesmo usuário em uma única transação. Livros e empréstimos
+     * em aberto são carregados com uma consulta IN cada e o limite do usuário é verificado uma vez;
+     * itens recusados não impedem o empréstimo dos demais.
+     */
+    @Transactional
+    public ResultadoLoteDTO criarLote(EmprestimoLoteRequestDTO dto) {
+        log.info("Criando empréstimos em lote - Usuário ID: {}, Livros: {}",
+                dto.getUsuarioId(), dto.getLivroIds().size());
+
+        Usuario usuario = usuarioRepository.findById(dto.getUsuarioId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+
+        validarSituacaoUsuario(usuario);
+
+        Set<Long> livroIds = new HashSet<>(dto.getLivroIds());
+        Map<Long, Livro> livros = livroRepository.findAllByIdParaAtualizacao(livroIds).stream()
+                .collect(Collectors.toMap(Livro::getId, Function.identity()));
+        Set<Long> jaEmprestados = new HashSet<>(
+                emprestimoRepository.findLivroIdsEmprestadosAoUsuario(usuario.getId(), livroIds));
+        long vagas = usuario.getLimiteEmprestimos()
+                - emprestimoRepository.countEmprestimosAtivosByUsuarioId(usuario.getId());
+
+        List<ItemLoteDTO> itens = new ArrayList<>();
+        List<ItemLoteDTO> itensAceitos = new ArrayList<>();
+        List<Emprestimo> novos = new ArrayList<>();
+        Set<Long> processados = new HashSet<>();
+
+        for (Long livroId : dto.getLivroIds()) {
+            Livro livro = livros.get(livroId);
+            String recusa;
+
+            if (!processados.add(livroId)) {
+                recusa = "Livro repetido no lote";
+            } else if (livro == null) {
+                recusa = "Livro não encontrado";
+            } else if (!livro.getAtivo()) {
+                recusa = "Livro não está disponível para empréstimo";
+            } else if (livro.getQuantidadeDisponivel() <= 0) {
+                recusa = "Não há exemplares disponíveis deste livro";
+            } else if (jaEmprestados.contains(livroId)) {
+                recusa = "Usuário já possui este livro emprestado";
+            } else if (novos.size() >= vagas) {
+                recusa = "Usuário atingiu o limite de empréstimos simultâneos (" +
+                        usuario.getLimiteEmprestimos() + ")";
+            } else {
+                recusa = null;
+            }
+
+            if (recusa != null) {
+                itens.add(itemRecusado(livroId, recusa));
+                continue;
+            }
+
+            ItemLoteDTO item = ItemLoteDTO.builder().id(livroId).sucesso(true).build();
+            itens.add(item);
+            itensAceitos.add(item);
+            novos.add(Emprestimo.builder()
+                    .livro(livro)
+                    .usuario(usuario)
+                    .dataEmprestimo(LocalDate.now())
+                    .dataPrevistaDevolucao(LocalDate.now().plusDays(usuario.getTipo().getDiasEmprestimo()))
+                    .status(StatusEmprestimo.ATIVO)
+                    .observacoes(dto.getObservacoes())
+                    .build());
+        }
+
+        if (!novos.isEmpty()) {
+            List<Long> emprestados = novos.stream().map(e -> e.getLivro().getId()).toList();
+            if (livroRepository.decrementarDisponivel(emprestados, 1) != emprestados.size()) {
+                throw new IllegalStateException("Estoque alterado durante o empréstimo em lote");
+            }
+
+            List<Emprestimo> salvos = emprestimoRepository.saveAll(novos);
+            for (int i = 0; i < salvos.size(); i++) {
+                Emprestimo emprestimo = salvos.get(i);
+                itensAceitos.get(i).setEmprestimo(emprestimoMapper.toResponseDTO(emprestimo));
+
+                eventPublisher.publishEvent(EmprestimoEvento.builder()
+                        .tipo(EmprestimoEvento.Tipo.CRIADO)
+                        .emprestimoId(emprestimo.getId())
+                        .livroId(emprestimo.getLivro().getId())
+                        .usuarioId(usuario.getId())
+                        .statusAtual(emprestimo.getStatus())
+                        .livroIndisponivelAtual(emprestimo.getLivro().getQuantidadeDisponivel() == 1)
+                        .dataPrevistaDevolucaoAtual(emprestimo.getDataPrevistaDevolucao())
+                        .build());
+            }
+        }
+
+        ResultadoLoteDTO resultado = resultadoLote(itens);
+        log.info("Empréstimos em lote concluídos. Sucessos: {}, Falhas: {}",
+                resultado.getSucessos(), resultado.getFalhas());
+        return resultado;
+    }
+
     @Transactional(readOnly = true)
     public EmprestimoResponseDTO buscarPorId(Long id) {
         log.debug("Buscando empréstimo por ID: {}", id);
 
-        Emprestimo emprestimo = emprestimoRepository.findById(id)
+        Emprestimo emprestimo = emprestimoRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado com ID: " + id));
 
         return emprestimoMapper.toResponseDTO(emprestimo);
@@ -99,6 +236,31 @@ public class EmprestimoService {
                 .map(emprestimoMapper::toResponseDTO);
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<EmprestimoResponseDTO> listar(StatusEmprestimo status, Long usuarioId,
+                                                         String cursor, int tamanho) {
+        log.debug("Listando empréstimos por cursor - Status: {}, Usuário ID: {}", status, usuarioId);
+
+        if (usuarioId != null && !usuarioRepository.existsById(usuarioId)) {
+            throw new ResourceNotFoundException("Usuário não encontrado");
+        }
+
+        CursorPaginacao.Posicao<LocalDate> posicao = CursorPaginacao.decodificar(cursor, LocalDate::parse, INICIO);
+        Pageable limite = CursorPaginacao.limite(tamanho);
+        List<Emprestimo> emprestimos;
+        if (usuarioId != null) {
+            emprestimos = emprestimoRepository.findByUsuarioIdAposCursor(
+                    usuarioId, posicao.chave(), posicao.id(), limite);
+        } else if (status != null) {
+            emprestimos = emprestimoRepository.findByStatusAposCursor(status, posicao.chave(), posicao.id(), limite);
+        } else {
+            emprestimos = emprestimoRepository.findAposCursor(posicao.chave(), posicao.id(), limite);
+        }
+
+        return CursorPaginacao.pagina(emprestimos, tamanho, emprestimoMapper::toResponseDTO,
+                emprestimo -> CursorPaginacao.codificar(emprestimo.getDataEmprestimo(), emprestimo.getId()));
+    }
+
     @Transactional(readOnly = true)
     public List<EmprestimoResponseDTO> listarAtrasados() {
         log.debug("Listando empréstimos atrasados");
@@ -106,21 +268,34 @@ public class EmprestimoService {
         return emprestimoMapper.toResponseDTOList(emprestimos);
     }
 
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, multiplier = 2))
     @Transactional
     public EmprestimoResponseDTO devolver(Long id) {
         log.info("Devolvendo empréstimo ID: {}", id);
 
-        Emprestimo emprestimo = emprestimoRepository.findById(id)
+        Emprestimo emprestimo = emprestimoRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado"));
+        EmprestimoJfr.informarTipoUsuario(emprestimo.getUsuario().getTipo());
 
         if (emprestimo.getDataDevolucao() != null) {
             throw new BusinessException("Este empréstimo já foi devolvido");
         }
 
+        StatusEmprestimo statusAnterior = emprestimo.getStatus();
+        boolean atrasadoAnterior = emprestimo.isAtrasado();
+        BigDecimal multaAnterior = emprestimo.getValorMulta();
+
         emprestimo.devolver();
-        emprestimo.getLivro().devolver();
 
-        livroRepository.save(emprestimo.getLivro());
+        Long livroId = emprestimo.getLivro().getId();
+        if (livroRepository.incrementarDisponivel(livroId) == 0) {
+            throw new IllegalStateException("Quantidade disponível não pode exceder total");
+        }
+        // Estava esgotado se esta devolução deixou exatamente um exemplar (lido após o UPDATE)
+        boolean livroIndisponivelAnterior = Integer.valueOf(1).equals(
+                livroRepository.quantidadesDisponiveis(List.of(livroId)).get(livroId));
+
         Emprestimo emprestimoDevolucao = emprestimoRepository.save(emprestimo);
 
         log.info("Empréstimo devolvido com sucesso. ID: {}", id);
@@ -128,9 +303,115 @@ public class EmprestimoService {
             log.info("Multa gerada: R$ {}", emprestimo.getValorMulta());
         }
 
+        eventPublisher.publishEvent(EmprestimoEvento.builder()
+                .tipo(EmprestimoEvento.Tipo.DEVOLVIDO)
+                .emprestimoId(id)
+                .livroId(emprestimo.getLivro().getId())
+                .usuarioId(emprestimo.getUsuario().getId())
+                .statusAnterior(statusAnterior)
+                .statusAtual(emprestimo.getStatus())
+                .atrasadoAnterior(atrasadoAnterior)
+                .multaAnterior(multaAnterior)
+                .livroIndisponivelAnterior(livroIndisponivelAnterior)
+                .livroIndisponivelAtual(false)
+                .dataPrevistaDevolucaoAtual(emprestimo.getDataPrevistaDevolucao())
+                .build());
+
         return emprestimoMapper.toResponseDTO(emprestimoDevolucao);
     }
 
+    /**
+     * Registra a devolução de vários empréstimos em uma única transação. A reposição do estoque é
+     * feita com um UPDATE por quantidade devolvida de cada título, e não por empréstimo.
+     */
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, multiplier = 2))
+    @Transactional
+    public ResultadoLoteDTO devolverLote(DevolucaoLoteRequestDTO dto) {
+        log.info("Devolvendo empréstimos em lote: {}", dto.getEmprestimoIds().size());
+
+        Map<Long, Emprestimo> emprestimos = emprestimoRepository
+                .findAllByIdWithDetails(new HashSet<>(dto.getEmprestimoIds())).stream()
+                .collect(Collectors.toMap(Emprestimo::getId, Function.identity()));
+
+        List<ItemLoteDTO> itens = new ArrayList<>();
+        List<EmprestimoEvento.EmprestimoEventoBuilder> eventos = new ArrayList<>();
+        // Primeira devolução de cada título: a única que pode torná-lo disponível
+        Map<Long, EmprestimoEvento.EmprestimoEventoBuilder> primeiraDevolucao = new HashMap<>();
+        Map<Long, Integer> devolucoesPorLivro = new HashMap<>();
+        Set<Long> processados = new HashSet<>();
+
+        for (Long emprestimoId : dto.getEmprestimoIds()) {
+            Emprestimo emprestimo = emprestimos.get(emprestimoId);
+
+            if (!processados.add(emprestimoId)) {
+                itens.add(itemRecusado(emprestimoId, "Empréstimo repetido no lote"));
+                continue;
+            }
+            if (emprestimo == null) {
+                itens.add(itemRecusado(emprestimoId, "Empréstimo não encontrado"));
+                continue;
+            }
+            if (emprestimo.getDataDevolucao() != null) {
+                itens.add(itemRecusado(emprestimoId, "Este empréstimo já foi devolvido"));
+                continue;
+            }
+
+            Livro livro = emprestimo.getLivro();
+            StatusEmprestimo statusAnterior = emprestimo.getStatus();
+            boolean atrasadoAnterior = emprestimo.isAtrasado();
+            BigDecimal multaAnterior = emprestimo.getValorMulta();
+
+            emprestimo.devolver();
+            devolucoesPorLivro.merge(livro.getId(), 1, Integer::sum);
+
+            itens.add(ItemLoteDTO.builder()
+                    .id(emprestimoId)
+                    .sucesso(true)
+                    .emprestimo(emprestimoMapper.toResponseDTO(emprestimo))
+                    .build());
+            EmprestimoEvento.EmprestimoEventoBuilder evento = EmprestimoEvento.builder()
+                    .tipo(EmprestimoEvento.Tipo.DEVOLVIDO)
+                    .emprestimoId(emprestimoId)
+                    .livroId(livro.getId())
+                    .usuarioId(emprestimo.getUsuario().getId())
+                    .statusAnterior(statusAnterior)
+                    .statusAtual(emprestimo.getStatus())
+                    .atrasadoAnterior(atrasadoAnterior)
+                    .multaAnterior(multaAnterior)
+                    .livroIndisponivelAnterior(false)
+                    .livroIndisponivelAtual(false)
+                    .dataPrevistaDevolucaoAtual(emprestimo.getDataPrevistaDevolucao());
+            eventos.add(evento);
+            primeiraDevolucao.putIfAbsent(livro.getId(), evento);
+        }
+
+        Map<Integer, List<Long>> livrosPorQuantidade = devolucoesPorLivro.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        livrosPorQuantidade.forEach((quantidade, livroIds) -> {
+            if (livroRepository.incrementarDisponivel(livroIds, quantidade) != livroIds.size()) {
+                throw new IllegalStateException("Quantidade disponível não pode exceder total");
+            }
+        });
+
+        // Esgotado antes do lote se, após o UPDATE, sobraram só os exemplares devolvidos nele
+        livroRepository.quantidadesDisponiveis(devolucoesPorLivro.keySet()).forEach((livroId, disponivel) -> {
+            if (disponivel.equals(devolucoesPorLivro.get(livroId))) {
+                primeiraDevolucao.get(livroId).livroIndisponivelAnterior(true);
+            }
+        });
+
+        eventos.forEach(evento -> eventPublisher.publishEvent(evento.build()));
+
+        ResultadoLoteDTO resultado = resultadoLote(itens);
+        log.info("Devoluções em lote concluídas. Sucessos: {}, Falhas: {}",
+                resultado.getSucessos(), resultado.getFalhas());
+        return resultado;
+    }
+
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, multiplier = 2))
     @Transactional
     public EmprestimoResponseDTO renovar(Long id, int dias) {
         log.info("Renovando empréstimo ID: {} por {} dias", id, dias);
@@ -139,12 +420,27 @@ public class EmprestimoService {
             throw new BusinessException("Número de dias para renovação deve ser entre 1 e 30");
         }
 
-        Emprestimo emprestimo = emprestimoRepository.findById(id)
+        Emprestimo emprestimo = emprestimoRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Empréstimo não encontrado"));
+        EmprestimoJfr.informarTipoUsuario(emprestimo.getUsuario().getTipo());
+
+        StatusEmprestimo statusAnterior = emprestimo.getStatus();
+        LocalDate dataPrevistaAnterior = emprestimo.getDataPrevistaDevolucao();
 
         emprestimo.renovar(dias);
         Emprestimo emprestimoRenovado = emprestimoRepository.save(emprestimo);
 
+        eventPublisher.publishEvent(EmprestimoEvento.builder()
+                .tipo(EmprestimoEvento.Tipo.RENOVADO)
+                .emprestimoId(id)
+                .livroId(emprestimo.getLivro().getId())
+                .usuarioId(emprestimo.getUsuario().getId())
+                .statusAnterior(statusAnterior)
+                .statusAtual(emprestimoRenovado.getStatus())
+                .dataPrevistaDevolucaoAnterior(dataPrevistaAnterior)
+                .dataPrevistaDevolucaoAtual(emprestimoRenovado.getDataPrevistaDevolucao())
+                .build());
+
         log.info("Empréstimo renovado com sucesso. Nova data: {}",
                 emprestimoRenovado.getDataPrevistaDevolucao());
 
@@ -164,7 +460,8 @@ public class EmprestimoService {
             throw new BusinessException("Usuário não está ativo");
         }
 
-        if (!usuario.podeEmprestar()) {
+        long emprestimosAtivos = emprestimoRepository.countEmprestimosAtivosByUsuarioId(usuario.getId());
+        if (!usuario.podeEmprestar(emprestimosAtivos)) {
             throw new BusinessException(
                     "Usuário atingiu o limite de empréstimos simultâneos (" +
                             usuario.getLimiteEmprestimos() + ")"
@@ -178,16 +475,38 @@ public class EmprestimoService {
         }
 
         // Verificar se o usuário tem empréstimos atrasados
-        long emprestimosAtrasados = emprestimoRepository
-                .findEmprestimosAtivosDoUsuario(usuario.getId())
-                .stream()
-                .filter(Emprestimo::isAtrasado)
-                .count();
+        if (emprestimoRepository.existsByUsuarioIdAndDataDevolucaoIsNullAndDataPrevistaDevolucaoBefore(
+                usuario.getId(), LocalDate.now())) {
+            throw new BusinessException(
+                    "Usuário possui empréstimos em atraso. Regularize a situação antes de novo empréstimo"
+            );
+        }
+    }
+
+    private void validarSituacaoUsuario(Usuario usuario) {
+        if (!usuario.getAtivo()) {
+            throw new BusinessException("Usuário não está ativo");
+        }
 
-        if (emprestimosAtrasados > 0) {
+        if (emprestimoRepository.existsByUsuarioIdAndDataDevolucaoIsNullAndDataPrevistaDevolucaoBefore(
+                usuario.getId(), LocalDate.now())) {
             throw new BusinessException(
                     "Usuário possui empréstimos em atraso. Regularize a situação antes de novo empréstimo"
             );
         }
     }
+
+    private ItemLoteDTO itemRecusado(Long id, String mensagem) {
+        return ItemLoteDTO.builder().id(id).sucesso(false).mensagem(mensagem).build();
+    }
+
+    private ResultadoLoteDTO resultadoLote(List<ItemLoteDTO> itens) {
+        int sucessos = (int) itens.stream().filter(ItemLoteDTO::isSucesso).count();
+        return ResultadoLoteDTO.builder()
+                .total(itens.size())
+                .sucessos(sucessos)
+                .falhas(itens.size() - sucessos)
+                .itens(itens)
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.config.CacheConfig;
+import com.enzo_molinaro.biblioteca.event.EmprestimoEvento;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.EstatisticaDiariaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantém a tabela {@code estatisticas_emprestimos_diarias}, com os totais do relatório por período
+ * agregados por dia (data prevista de devolução), categoria e tipo de usuário.
+ * <p>
+ * Cada empréstimo confirmado marca os seus dias; a consolidação periódica recalcula só esses dias
+ * a partir de {@code emprestimos}, o que é idempotente e não depende da ordem dos eventos. Uma
+ * reconciliação mais espaçada recalcula a janela em torno de hoje, para cobrir alterações feitas
+ * fora da aplicação; o histórico inteiro é refeito por {@link #reprocessar(LocalDate, LocalDate)}.
+ */
+@Service
+@Slf4j
+public class EstatisticaDiariaService {
+
+    // Dias recalculados por transação no reprocessamento
+    private static final int DIAS_POR_LOTE = 31;
+
+    private final EstatisticaDiariaRepository estatisticaDiariaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final int janelaDias;
+
+    private final Set<LocalDate> pendentes = ConcurrentHashMap.newKeySet();
+
+    // Consolidação, reconciliação e reprocessamento não recalculam os mesmos dias ao mesmo tempo
+    private final ReentrantLock recalculo = new ReentrantLock();
+
+    public EstatisticaDiariaService(
+            EstatisticaDiariaRepository estatisticaDiariaRepository,
+            TransactionTemplate transactionTemplate,
+            CacheManager cacheManager,
+            @Value("${biblioteca.estatisticas.diarias.janela-dias:60}") int janelaDias) {
+        this.estatisticaDiariaRepository = estatisticaDiariaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.janelaDias = janelaDias;
+    }
+
+    @TransactionalEventListener
+    public void onEmprestimo(EmprestimoEvento evento) {
+        if (evento.getDataPrevistaDevolucaoAnterior() != null) {
+            pendentes.add(evento.getDataPrevistaDevolucaoAnterior());
+        }
+        if (evento.getDataPrevistaDevolucaoAtual() != null) {
+            pendentes.add(evento.getDataPrevistaDevolucaoAtual());
+        }
+    }
+
+    // Dias alterados sem evento de empréstimo (varredura de atrasos)
+    public void marcar(Collection<LocalDate> dias) {
+        pendentes.addAll(dias);
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.estatisticas.diarias.consolidacao-ms:5000}")
+    public void consolidarPendentes() {
+        if (pendentes.isEmpty()) return;
+
+        List<LocalDate> dias = new ArrayList<>();
+        // Remove antes de recalcular: um evento que chegue no meio volta a marcar o dia
+        pendentes.removeIf(dias::add);
+
+        try {
+            recalcular(() -> estatisticaDiariaRepository.recalcular(dias));
+            log.debug("Estatísticas diárias consolidadas. Dias: {}", dias.size());
+        } catch (DataAccessException ex) {
+            pendentes.addAll(dias);
+            log.warn("Falha ao consolidar estatísticas diárias; nova tentativa no próximo ciclo: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${biblioteca.estatisticas.diarias.reconciliacao-ms:3600000}",
+            initialDelayString = "${biblioteca.estatisticas.diarias.reconciliacao-ms:3600000}")
+    public void reconciliarJanela() {
+        LocalDate hoje = LocalDate.now();
+        try {
+            reprocessar(hoje.minusDays(janelaDias), hoje.plusDays(janelaDias));
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao reconciliar estatísticas diárias com o banco: {}", ex.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        try {
+            if (estatisticaDiariaRepository.vazia()) {
+                reprocessarHistorico();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao carregar estatísticas diárias: {}", ex.getMessage());
+        }
+    }
+
+    // Recalcula todos os dias com empréstimos; retorna o número de dias do intervalo
+    public long reprocessarHistorico() {
+        return estatisticaDiariaRepository.intervaloDosEmprestimos()
+                .map(intervalo -> reprocessar(intervalo.inicio(), intervalo.fim()))
+                .orElse(0L);
+    }
+
+    public long reprocessar(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) {
+            throw new BusinessException("Data inicial deve ser anterior ou igual à data final");
+        }
+
+        long inicio = System.nanoTime();
+        LocalDate lote = dataInicio;
+        while (!lote.isAfter(dataFim)) {
+            LocalDate fimLote = lote.plusDays(DIAS_POR_LOTE - 1L);
+            LocalDate ate = fimLote.isAfter(dataFim) ? dataFim : fimLote;
+            LocalDate de = lote;
+            recalcular(() -> estatisticaDiariaRepository.recalcular(de, ate));
+            lote = ate.plusDays(1);
+        }
+
+        long dias = dataFim.toEpochDay() - dataInicio.toEpochDay() + 1;
+        log.info("Estatísticas diárias reprocessadas de {} a {}. Dias: {}, Tempo: {} ms",
+                dataInicio, dataFim, dias, (System.nanoTime() - inicio) / 1_000_000);
+        return dias;
+    }
+
+    private void recalcular(Runnable recalculoDosDias) {
+        recalculo.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> recalculoDosDias.run());
+        } finally {
+            recalculo.unlock();
+        }
+
+        Cache cache = cacheManager.getCache(CacheConfig.EMPRESTIMOS_POR_PERIODO);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.RegiaoCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class EstatisticasCacheService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Acertos, falhas e gravações de cada região do cache de segundo nível desde a inicialização.
+     */
+    public List<RegiaoCacheDTO> estatisticasPorRegiao() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(regiao -> {
+                    CacheRegionStatistics regiaoStatistics = statistics.getCacheRegionStatistics(regiao);
+                    if (regiaoStatistics == null) return null;
+
+                    long acertos = regiaoStatistics.getHitCount();
+                    long falhas = regiaoStatistics.getMissCount();
+                    return RegiaoCacheDTO.builder()
+                            .regiao(regiao)
+                            .acertos(acertos)
+                            .falhas(falhas)
+                            .gravacoes(regiaoStatistics.getPutCount())
+                            .taxaAcerto(acertos + falhas == 0 ? 0 : (double) acertos / (acertos + falhas))
+                            .build();
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
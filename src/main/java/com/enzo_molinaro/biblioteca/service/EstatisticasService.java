@@ -0,0 +1,233 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.event.EmprestimoEvento;
+import com.enzo_molinaro.biblioteca.event.LivroEvento;
+import com.enzo_molinaro.biblioteca.event.UsuarioEvento;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.projection.RelatorioGeralProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mantém em memória os indicadores do relatório geral, atualizados a cada transação confirmada
+ * pelos serviços de livros, usuários e empréstimos. Os contadores usam {@link LongAdder} para
+ * que empréstimos simultâneos não disputem a mesma posição de memória.
+ * <p>
+ * Empréstimos passam a ficar em atraso com a simples virada do dia, sem nenhum evento; esse
+ * desvio (e qualquer alteração feita fora da aplicação) é corrigido pela reconciliação periódica
+ * com o banco.
+ * <p>
+ * Cada transação com eventos segura a trava compartilhada do início do commit até aplicar os
+ * eventos, e a reconciliação lê os contadores e consulta o banco com a trava exclusiva. Assim
+ * nenhuma transação pode estar confirmada no banco sem ter sido aplicada (ou o contrário)
+ * enquanto a consulta roda; os commits com eventos esperam essa única consulta agregada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EstatisticasService {
+
+    private final EmprestimoRepository emprestimoRepository;
+
+    private final LongAdder totalLivros = new LongAdder();
+    private final LongAdder totalUsuarios = new LongAdder();
+    private final LongAdder totalEmprestimos = new LongAdder();
+    private final LongAdder emprestimosAtivos = new LongAdder();
+    private final LongAdder emprestimosAtrasados = new LongAdder();
+    private final LongAdder livrosIndisponiveis = new LongAdder();
+    private final LongAdder multasAcumuladasCentavos = new LongAdder();
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    private volatile boolean inicializado = false;
+
+    public RelatorioDTO obterRelatorioGeral() {
+        if (!inicializado) {
+            return reconciliar();
+        }
+
+        return RelatorioDTO.builder()
+                .totalLivros(totalLivros.sum())
+                .totalUsuarios(totalUsuarios.sum())
+                .totalEmprestimos(totalEmprestimos.sum())
+                .emprestimosAtivos(emprestimosAtivos.sum())
+                .emprestimosAtrasados(emprestimosAtrasados.sum())
+                .multasAcumuladas(BigDecimal.valueOf(multasAcumuladasCentavos.sum(), 2))
+                .livrosIndisponiveis(livrosIndisponiveis.sum())
+                .dataGeracao(LocalDate.now())
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            fixedDelayString = "${biblioteca.estatisticas.reconciliacao-ms:60000}",
+            initialDelayString = "${biblioteca.estatisticas.reconciliacao-ms:60000}")
+    public void reconciliarPeriodicamente() {
+        try {
+            reconciliar();
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao reconciliar estatísticas com o banco: {}", ex.getMessage());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RelatorioDTO reconciliar() {
+        List<LongAdder> contadores = List.of(totalLivros, totalUsuarios, totalEmprestimos, emprestimosAtivos,
+                emprestimosAtrasados, livrosIndisponiveis, multasAcumuladasCentavos);
+        RelatorioGeralProjection totais;
+        long desvio = 0;
+
+        // Com a trava exclusiva, o banco e os contadores refletem as mesmas transações
+        trava.writeLock().lock();
+        try {
+            long[] antes = contadores.stream().mapToLong(LongAdder::sum).toArray();
+
+            totais = emprestimoRepository.calcularRelatorioGeral(LocalDate.now());
+
+            long[] banco = {
+                    totais.getTotalLivros(),
+                    totais.getTotalUsuarios(),
+                    totais.getTotalEmprestimos(),
+                    totais.getEmprestimosAtivos(),
+                    totais.getEmprestimosAtrasados(),
+                    totais.getLivrosIndisponiveis(),
+                    centavos(totais.getMultasAcumuladas())
+            };
+            for (int i = 0; i < banco.length; i++) {
+                long diferenca = banco[i] - antes[i];
+                contadores.get(i).add(diferenca);
+                desvio += Math.abs(diferenca);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+
+        if (inicializado && desvio != 0) {
+            log.info("Estatísticas reconciliadas com o banco. Desvio corrigido: {}", desvio);
+        }
+        inicializado = true;
+
+        return RelatorioDTO.builder()
+                .totalLivros(totais.getTotalLivros())
+                .totalUsuarios(totais.getTotalUsuarios())
+                .totalEmprestimos(totais.getTotalEmprestimos())
+                .emprestimosAtivos(totais.getEmprestimosAtivos())
+                .emprestimosAtrasados(totais.getEmprestimosAtrasados())
+                .multasAcumuladas(totais.getMultasAcumuladas())
+                .livrosIndisponiveis(totais.getLivrosIndisponiveis())
+                .dataGeracao(LocalDate.now())
+                .build();
+    }
+
+    @EventListener
+    public void onEmprestimo(EmprestimoEvento evento) {
+        aplicarNoCommit(() -> {
+            if (evento.getTipo() == EmprestimoEvento.Tipo.CRIADO) {
+                totalEmprestimos.increment();
+            }
+
+            emprestimosAtivos.add(ativo(evento.getStatusAtual()) - ativo(evento.getStatusAnterior()));
+
+            if (evento.isAtrasadoAnterior()) {
+                emprestimosAtrasados.decrement();
+                multasAcumuladasCentavos.add(-centavos(evento.getMultaAnterior()));
+            }
+
+            livrosIndisponiveis.add(
+                    indicador(evento.isLivroIndisponivelAtual()) - indicador(evento.isLivroIndisponivelAnterior()));
+        });
+    }
+
+    @EventListener
+    public void onLivro(LivroEvento evento) {
+        aplicarNoCommit(() -> {
+            if (evento.getTipo() == LivroEvento.Tipo.CRIADO) {
+                totalLivros.increment();
+            }
+
+            livrosIndisponiveis.add(
+                    indicador(evento.isIndisponivelAtual()) - indicador(evento.isIndisponivelAnterior()));
+        });
+    }
+
+    @EventListener
+    public void onUsuario(UsuarioEvento evento) {
+        aplicarNoCommit(() -> {
+            if (evento.getTipo() == UsuarioEvento.Tipo.CRIADO) {
+                totalUsuarios.increment();
+            }
+        });
+    }
+
+    // Como um @TransactionalEventListener, só aplica após o commit, mas com a trava compartilhada
+    // tomada antes dele: a reconciliação não vê o commit sem ver também a aplicação
+    private void aplicarNoCommit(Runnable aplicacao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicarComTrava(aplicacao);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean travado;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                trava.readLock().lock();
+                travado = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        aplicacao.run();
+                    }
+                } finally {
+                    if (travado) {
+                        trava.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    private void aplicarComTrava(Runnable aplicacao) {
+        trava.readLock().lock();
+        try {
+            aplicacao.run();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private static long ativo(StatusEmprestimo status) {
+        return status == StatusEmprestimo.ATIVO ? 1 : 0;
+    }
+
+    private static long indicador(boolean valor) {
+        return valor ? 1 : 0;
+    }
+
+    private static long centavos(BigDecimal valor) {
+        if (valor == null) return 0;
+        return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,100 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoExportacaoDTO;
+import com.enzo_molinaro.biblioteca.dto.response.LivroExportacaoDTO;
+import com.enzo_molinaro.biblioteca.enums.FormatoArquivo;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta empréstimos e o catálogo direto de um cursor do banco para a resposta: uma única
+ * consulta, e cada linha é serializada e descartada antes da próxima ser lida.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportacaoService {
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final LivroRepository livroRepository;
+    private final ObjectMapper objectMapper;
+
+    public void validarPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            throw new BusinessException("Data inicial deve ser anterior ou igual à data final");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportarEmprestimos(StatusEmprestimo status, LocalDate dataInicio, LocalDate dataFim,
+                                    FormatoArquivo formato, OutputStream saida) throws IOException {
+        log.info("Exportando empréstimos ({}) - Status: {}, Período: {} a {}", formato, status, dataInicio, dataFim);
+
+        try (Stream<EmprestimoExportacaoDTO> linhas = emprestimoRepository.exportar(status, dataInicio, dataFim)) {
+            long total = escrever(linhas, EmprestimoExportacaoDTO.class, formato, saida);
+            log.info("Exportação de empréstimos concluída. Linhas: {}", total);
+            return total;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportarLivros(Boolean ativo, FormatoArquivo formato, OutputStream saida) throws IOException {
+        log.info("Exportando livros ({}) - Ativo: {}", formato, ativo);
+
+        try (Stream<LivroExportacaoDTO> linhas = livroRepository.exportar(ativo)) {
+            long total = escrever(linhas, LivroExportacaoDTO.class, formato, saida);
+            log.info("Exportação de livros concluída. Linhas: {}", total);
+            return total;
+        }
+    }
+
+    private <T> long escrever(Stream<T> linhas, Class<T> tipo, FormatoArquivo formato, OutputStream saida)
+            throws IOException {
+        ObjectWriter writer = formato == FormatoArquivo.CSV
+                ? CSV_MAPPER.writer(CSV_MAPPER.schemaFor(tipo).withHeader())
+                : objectMapper.writerFor(tipo).withRootValueSeparator("\n");
+
+        long total = 0;
+        // Sem flush por linha: o buffer da resposta decide quando enviar
+        try (SequenceWriter sequencia = writer
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(saida)) {
+            Iterator<T> iterator = linhas.iterator();
+            while (iterator.hasNext()) {
+                sequencia.write(iterator.next());
+                total++;
+            }
+        }
+
+        if (formato == FormatoArquivo.NDJSON && total > 0) {
+            saida.write('\n');
+        }
+        saida.flush();
+        return total;
+    }
+}
@@ -0,0 +1,66 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de textos: {@link #talvezContenha} nunca responde {@code false} para um valor
+ * adicionado, e responde {@code true} por engano para cerca de 1% dos demais enquanto o total
+ * adicionado não passar da capacidade (depois disso a taxa de enganos só cresce). Adições e
+ * consultas concorrentes são seguras e não bloqueiam.
+ */
+final class FiltroBloom {
+
+    // ~1% de falsos positivos: 9,6 bits por valor e 7 posições por valor
+    private static final int BITS_POR_VALOR = 10;
+    private static final int FUNCOES = 7;
+
+    private final AtomicLongArray palavras;
+    private final long bits;
+
+    FiltroBloom(long capacidade) {
+        long palavrasNecessarias = Math.max(1, (capacidade * BITS_POR_VALOR + 63) / 64);
+        this.palavras = new AtomicLongArray(Math.toIntExact(palavrasNecessarias));
+        this.bits = palavrasNecessarias * 64;
+    }
+
+    void adicionar(String valor) {
+        long h1 = hash(valor, 0x9E3779B97F4A7C15L);
+        long h2 = hash(valor, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < FUNCOES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual;
+            while (((atual = palavras.get(palavra)) & mascara) == 0
+                    && !palavras.compareAndSet(palavra, atual, atual | mascara)) {
+                // outra thread alterou a mesma palavra: tenta de novo
+            }
+        }
+    }
+
+    boolean talvezContenha(String valor) {
+        long h1 = hash(valor, 0x9E3779B97F4A7C15L);
+        long h2 = hash(valor, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < FUNCOES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((palavras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a sobre os caracteres com semente, finalizado pelo misturador do SplitMix64
+    private static long hash(String valor, long semente) {
+        long h = 0xCBF29CE484222325L ^ semente;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 30;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 27;
+        h *= 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,290 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.request.LivroImportacaoDTO;
+import com.enzo_molinaro.biblioteca.dto.request.LivroRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ErroImportacaoDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ImportacaoLivrosDTO;
+import com.enzo_molinaro.biblioteca.entity.Categoria;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.enums.FormatoArquivo;
+import com.enzo_molinaro.biblioteca.event.LivroEvento;
+import com.enzo_molinaro.biblioteca.mapper.LivroMapper;
+import com.enzo_molinaro.biblioteca.repository.CategoriaRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de catálogo em massa. O arquivo é lido registro a registro e gravado em lotes de
+ * {@value #TAMANHO_LOTE} livros, cada um em sua própria transação: memória constante para
+ * qualquer tamanho de arquivo, e uma falha afeta apenas as linhas do lote em que ocorreu.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportacaoLivroService {
+
+    private static final int TAMANHO_LOTE = 1_000;
+    private static final int MAXIMO_ERROS_DETALHADOS = 1_000;
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final LivroRepository livroRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final UnicidadeService unicidadeService;
+    private final LivroMapper livroMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public ImportacaoLivrosDTO importar(InputStream entrada, FormatoArquivo formato) throws IOException {
+        log.info("Iniciando importação de livros ({})", formato);
+        long inicio = System.nanoTime();
+
+        Map<String, Long> categorias = categoriaRepository.findAll().stream()
+                .collect(Collectors.toMap(c -> chaveCategoria(c.getNome()), Categoria::getId));
+        Importacao importacao = new Importacao(categorias);
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            if (formato == FormatoArquivo.CSV) {
+                lerCsv(leitor, importacao);
+            } else {
+                lerNdjson(leitor, importacao);
+            }
+        }
+        gravarLote(importacao);
+
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        log.info("Importação de livros concluída em {} ms. Linhas: {}, Importados: {}, Duplicados: {}, Erros: {}",
+                duracaoMs, importacao.linhas, importacao.importados, importacao.duplicados, importacao.erros);
+
+        return ImportacaoLivrosDTO.builder()
+                .linhasProcessadas(importacao.linhas)
+                .importados(importacao.importados)
+                .duplicados(importacao.duplicados)
+                .erros(importacao.erros)
+                .detalhesErros(importacao.detalhesErros)
+                .duracaoMs(duracaoMs)
+                .build();
+    }
+
+    private void lerCsv(BufferedReader leitor, Importacao importacao) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+
+        try (MappingIterator<LivroImportacaoDTO> registros = CSV_MAPPER
+                .readerFor(LivroImportacaoDTO.class)
+                .with(schema)
+                .readValues(leitor)) {
+            // Linha 1 é o cabeçalho
+            long linha = 1;
+            while (registros.hasNextValue()) {
+                linha++;
+                importacao.linhas++;
+
+                LivroImportacaoDTO registro;
+                try {
+                    registro = registros.nextValue();
+                } catch (JsonProcessingException ex) {
+                    importacao.registrarErro(linha, null, "Registro CSV inválido: " + ex.getOriginalMessage());
+                    continue;
+                }
+                adicionar(importacao, linha, registro);
+            }
+        }
+    }
+
+    private void lerNdjson(BufferedReader leitor, Importacao importacao) throws IOException {
+        long linha = 0;
+        String conteudo;
+        while ((conteudo = leitor.readLine()) != null) {
+            linha++;
+            if (conteudo.isBlank()) continue;
+            importacao.linhas++;
+
+            LivroImportacaoDTO registro;
+            try {
+                registro = objectMapper.readValue(conteudo, LivroImportacaoDTO.class);
+            } catch (JsonProcessingException ex) {
+                importacao.registrarErro(linha, null, "JSON inválido: " + ex.getOriginalMessage());
+                continue;
+            }
+            adicionar(importacao, linha, registro);
+        }
+    }
+
+    private void adicionar(Importacao importacao, long linha, LivroImportacaoDTO registro) {
+        LivroRequestDTO dto;
+        try {
+            dto = converter(registro, importacao.categorias);
+        } catch (IllegalArgumentException ex) {
+            importacao.registrarErro(linha, registro.getIsbn(), ex.getMessage());
+            return;
+        }
+
+        Set<ConstraintViolation<LivroRequestDTO>> violacoes = validator.validate(dto);
+        if (!violacoes.isEmpty()) {
+            importacao.registrarErro(linha, dto.getIsbn(), violacoes.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+
+        importacao.lote.add(new LinhaValida(linha, dto));
+        if (importacao.lote.size() >= TAMANHO_LOTE) {
+            gravarLote(importacao);
+        }
+    }
+
+    private void gravarLote(Importacao importacao) {
+        List<LinhaValida> lote = importacao.lote;
+        if (lote.isEmpty()) return;
+        importacao.lote = new ArrayList<>(TAMANHO_LOTE);
+
+        Set<String> isbns = lote.stream().map(l -> l.dto().getIsbn()).collect(Collectors.toSet());
+
+        try {
+            int[] gravados = transactionTemplate.execute(status -> {
+                // Uma consulta por lote: ISBNs já cadastrados (inclusive pelos lotes anteriores)
+                Set<String> vistos = new HashSet<>(unicidadeService.isbnsCadastrados(isbns));
+                List<Livro> novos = new ArrayList<>(lote.size());
+
+                for (LinhaValida linha : lote) {
+                    if (!vistos.add(linha.dto().getIsbn())) continue;
+
+                    Livro livro = livroMapper.toEntity(linha.dto());
+                    livro.setCategoria(linha.dto().getCategoriaId() == null ? null
+                            : categoriaRepository.getReferenceById(linha.dto().getCategoriaId()));
+                    novos.add(livro);
+                }
+
+                for (Livro livro : livroRepository.saveAll(novos)) {
+                    eventPublisher.publishEvent(LivroEvento.builder()
+                            .tipo(LivroEvento.Tipo.CRIADO)
+                            .livroId(livro.getId())
+                            .titulo(livro.getTitulo())
+                            .autor(livro.getAutor())
+                            .isbn(livro.getIsbn())
+                            .indisponivelAtual(livro.isIndisponivel())
+                            .build());
+                }
+                return new int[]{novos.size(), lote.size() - novos.size()};
+            });
+
+            importacao.importados += gravados[0];
+            importacao.duplicados += gravados[1];
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao gravar lote da importação (linhas {} a {}): {}",
+                    lote.get(0).linha(), lote.get(lote.size() - 1).linha(), ex.getMessage());
+            importacao.registrarErro(lote.get(0).linha(), null, "Lote das linhas " + lote.get(0).linha() +
+                    " a " + lote.get(lote.size() - 1).linha() + " não importado: " + ex.getMostSpecificCause().getMessage());
+            importacao.erros += lote.size() - 1;
+        }
+
+        log.info("Importação de livros: {} linhas processadas, {} importadas, {} duplicadas, {} com erro",
+                importacao.linhas, importacao.importados, importacao.duplicados, importacao.erros);
+    }
+
+    private LivroRequestDTO converter(LivroImportacaoDTO registro, Map<String, Long> categorias) {
+        LivroRequestDTO dto = LivroRequestDTO.builder()
+                .isbn(texto(registro.getIsbn()))
+                .titulo(texto(registro.getTitulo()))
+                .autor(texto(registro.getAutor()))
+                .editora(texto(registro.getEditora()))
+                .anoPublicacao(inteiro("anoPublicacao", registro.getAnoPublicacao()))
+                .quantidadeTotal(inteiro("quantidadeTotal", registro.getQuantidadeTotal()))
+                .valorMultaDiaria(decimal("valorMultaDiaria", registro.getValorMultaDiaria()))
+                .build();
+
+        String categoria = texto(registro.getCategoria());
+        if (categoria != null) {
+            Long categoriaId = categorias.get(chaveCategoria(categoria));
+            if (categoriaId == null) {
+                throw new IllegalArgumentException("Categoria não encontrada: " + categoria);
+            }
+            dto.setCategoriaId(categoriaId);
+        }
+        return dto;
+    }
+
+    private static String texto(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+
+    private static Integer inteiro(String campo, String valor) {
+        String texto = texto(valor);
+        if (texto == null) return null;
+        try {
+            return Integer.valueOf(texto);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(campo + ": valor inválido '" + texto + "'");
+        }
+    }
+
+    private static BigDecimal decimal(String campo, String valor) {
+        String texto = texto(valor);
+        if (texto == null) return null;
+        try {
+            return new BigDecimal(texto);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(campo + ": valor inválido '" + texto + "'");
+        }
+    }
+
+    private static String chaveCategoria(String nome) {
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record LinhaValida(long linha, LivroRequestDTO dto) {
+    }
+
+    private static final class Importacao {
+        private final Map<String, Long> categorias;
+        private List<LinhaValida> lote = new ArrayList<>(TAMANHO_LOTE);
+        private final List<ErroImportacaoDTO> detalhesErros = new ArrayList<>();
+        private long linhas;
+        private long importados;
+        private long duplicados;
+        private long erros;
+
+        private Importacao(Map<String, Long> categorias) {
+            this.categorias = categorias;
+        }
+
+        private void registrarErro(long linha, String isbn, String mensagem) {
+            erros++;
+            if (detalhesErros.size() < MAXIMO_ERROS_DETALHADOS) {
+                detalhesErros.add(ErroImportacaoDTO.builder()
+                        .linha(linha)
+                        .isbn(isbn)
+                        .mensagem(mensagem)
+                        .build());
+            }
+        }
+    }
+}
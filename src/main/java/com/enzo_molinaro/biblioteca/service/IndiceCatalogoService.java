@@ -0,0 +1,141 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.SugestaoDTO;
+import com.enzo_molinaro.biblioteca.event.LivroEvento;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.projection.LivroIndexacaoProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Índices em memória do catálogo: a busca (título, autor e ISBN dos livros ativos) e as sugestões
+ * de autocompletar (títulos e autores). São construídos juntos na inicialização e mantidos pelos
+ * eventos de livros confirmados. Enquanto não estiverem prontos, a busca volta a usar a consulta
+ * com LIKE e não há sugestões.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceCatalogoService {
+
+    public static final int MAXIMO_SUGESTOES = 20;
+
+    private final LivroRepository livroRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object monitor = new Object();
+    private volatile Indices indices;
+    // Eventos recebidos durante uma reconstrução, reaplicados no novo índice antes da troca
+    private List<LivroEvento> pendentes;
+
+    public record ResultadoBusca(List<Long> livroIds, long total) {
+    }
+
+    private record Indices(IndiceInvertido busca, IndiceSugestoes sugestoes) {
+    }
+
+    /**
+     * IDs dos livros ativos que contêm todos os termos, do mais relevante ao menos, a partir da
+     * posição {@code inicio}; vazio enquanto o índice não foi construído.
+     */
+    public Optional<ResultadoBusca> buscar(String termo, long inicio, int limite) {
+        Indices atuais = indices;
+        if (atuais == null || inicio > Integer.MAX_VALUE - limite) {
+            return Optional.empty();
+        }
+
+        IndiceInvertido.Resultado resultado = atuais.busca().buscar(termo, (int) inicio, limite);
+        return Optional.of(new ResultadoBusca(resultado.livroIds(), resultado.total()));
+    }
+
+    public List<SugestaoDTO> sugerir(String prefixo, int limite) {
+        if (limite < 1 || limite > MAXIMO_SUGESTOES) {
+            throw new BusinessException("Limite de sugestões deve estar entre 1 e " + MAXIMO_SUGESTOES);
+        }
+
+        Indices atuais = indices;
+        if (atuais == null) {
+            return List.of();
+        }
+
+        return atuais.sugestoes().sugerir(prefixo, limite).stream()
+                .map(s -> new SugestaoDTO(s.texto(), s.tipo(), s.livros()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirNaInicializacao() {
+        try {
+            reconstruir();
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao construir os índices do catálogo; a busca usará o banco: {}", ex.getMessage());
+        }
+    }
+
+    public void reconstruir() {
+        synchronized (monitor) {
+            pendentes = new ArrayList<>();
+        }
+
+        try {
+            long inicio = System.nanoTime();
+            Indices novos = new Indices(new IndiceInvertido(), new IndiceSugestoes());
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                try (Stream<LivroIndexacaoProjection> livros = livroRepository.findParaIndexacao()) {
+                    livros.forEach(l -> {
+                        novos.busca().indexar(l.getId(), l.getTitulo(), l.getAutor(), l.getIsbn());
+                        novos.sugestoes().indexar(l.getId(), l.getTitulo(), l.getAutor());
+                    });
+                }
+            });
+
+            synchronized (monitor) {
+                pendentes.forEach(evento -> aplicar(novos, evento));
+                indices = novos;
+            }
+            log.info("Índices do catálogo construídos. Livros: {}, Tempo: {} ms",
+                    novos.busca().tamanho(), (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            synchronized (monitor) {
+                pendentes = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onLivro(LivroEvento evento) {
+        synchronized (monitor) {
+            if (pendentes != null) {
+                pendentes.add(evento);
+            }
+            Indices atuais = indices;
+            if (atuais != null) {
+                aplicar(atuais, evento);
+            }
+        }
+    }
+
+    private static void aplicar(Indices indices, LivroEvento evento) {
+        // Livros desativados não estão nos índices e a atualização não os reativa
+        if (evento.getTipo() == LivroEvento.Tipo.DESATIVADO) {
+            indices.busca().remover(evento.getLivroId());
+            indices.sugestoes().remover(evento.getLivroId());
+        } else if (evento.getTipo() == LivroEvento.Tipo.CRIADO || indices.busca().contem(evento.getLivroId())) {
+            indices.busca().indexar(evento.getLivroId(), evento.getTitulo(), evento.getAutor(), evento.getIsbn());
+            indices.sugestoes().indexar(evento.getLivroId(), evento.getTitulo(), evento.getAutor());
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido do catálogo: cada termo (minúsculo e sem acentos) aponta para os documentos
+ * que o contêm em título, autor ou ISBN. Os termos ficam ordenados, então um termo da consulta
+ * casa também com todos os que começam por ele.
+ * <p>
+ * Cada indexação de um livro gera um novo documento; o anterior é apenas marcado como removido
+ * e as listas são compactadas quando os removidos passam de um quarto do total. Leituras
+ * concorrentes não bloqueiam umas às outras; escritas são exclusivas.
+ */
+final class IndiceInvertido {
+
+    static final int TITULO = 1;
+    static final int AUTOR = 2;
+    static final int ISBN = 4;
+
+    private static final int BITS_CAMPOS = 3;
+    private static final int MAXIMO_TERMOS_CONSULTA = 8;
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postagens> termos = new TreeMap<>();
+    private final MapaLongInt documentoPorLivro = new MapaLongInt();
+    private final BitSet removidos = new BitSet();
+    private long[] livroIds = new long[1024];
+    private int documentos;
+    private int totalRemovidos;
+
+    record Resultado(List<Long> livroIds, int total) {
+    }
+
+    void indexar(long livroId, String titulo, String autor, String isbn) {
+        Map<String, Integer> campos = new HashMap<>();
+        adicionarTermos(campos, titulo, TITULO);
+        adicionarTermos(campos, autor, AUTOR);
+        adicionarTermos(campos, isbn, ISBN);
+
+        lock.writeLock().lock();
+        try {
+            removerDocumento(livroId);
+
+            int documento = documentos++;
+            if (documento == livroIds.length) {
+                livroIds = Arrays.copyOf(livroIds, livroIds.length * 2);
+            }
+            livroIds[documento] = livroId;
+            documentoPorLivro.colocar(livroId, documento);
+
+            campos.forEach((termo, mascara) ->
+                    termos.computeIfAbsent(termo, t -> new Postagens()).adicionar(documento << BITS_CAMPOS | mascara));
+
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remover(long livroId) {
+        lock.writeLock().lock();
+        try {
+            removerDocumento(livroId);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contem(long livroId) {
+        lock.readLock().lock();
+        try {
+            return documentoPorLivro.buscar(livroId) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentos - totalRemovidos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Livros que contêm todos os termos da consulta (cada um como palavra inteira ou prefixo),
+     * do mais relevante ao menos: título pesa mais que autor, e autor mais que ISBN; palavra
+     * inteira vale o dobro de prefixo. Empates ficam na ordem de indexação.
+     */
+    Resultado buscar(String consulta, int inicio, int limite) {
+        List<String> termosConsulta = new ArrayList<>(termosUnicos(consulta));
+        if (termosConsulta.isEmpty()) {
+            return new Resultado(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<Map.Entry<String, Postagens>>> expansoes = new ArrayList<>(termosConsulta.size());
+            for (String termo : termosConsulta) {
+                List<Map.Entry<String, Postagens>> expansao =
+                        new ArrayList<>(termos.subMap(termo, true, termo + Character.MAX_VALUE, false).entrySet());
+                if (expansao.isEmpty()) {
+                    return new Resultado(List.of(), 0);
+                }
+                expansoes.add(expansao);
+            }
+
+            // O termo mais seletivo primeiro: os seguintes só pontuam quem já casou com os anteriores
+            int[] ordem = new int[termosConsulta.size()];
+            long[] custos = new long[ordem.length];
+            for (int i = 0; i < ordem.length; i++) {
+                ordem[i] = i;
+                custos[i] = expansoes.get(i).stream().mapToLong(e -> e.getValue().tamanho).sum();
+            }
+            ordem = Arrays.stream(ordem).boxed()
+                    .sorted((a, b) -> Long.compare(custos[a], custos[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            // Só os documentos do termo mais seletivo são candidatos: as estruturas têm o tamanho
+            // das postagens dele, e não do catálogo, e os termos seguintes apenas pontuam ou
+            // descartam quem já está no mapa
+            int capacidade = (int) Math.min(custos[ordem[0]], documentos);
+            MapaLongInt candidatoPorDocumento = new MapaLongInt(capacidade);
+            int[] candidatos = new int[capacidade];
+            float[] pontuacao = new float[capacidade];
+            byte[] casados = new byte[capacidade];
+            int totalCandidatos = 0;
+            for (int passo = 0; passo < ordem.length; passo++) {
+                String termo = termosConsulta.get(ordem[passo]);
+                for (Map.Entry<String, Postagens> entrada : expansoes.get(ordem[passo])) {
+                    float fator = entrada.getKey().equals(termo) ? 2f : 1f;
+                    Postagens postagens = entrada.getValue();
+                    for (int i = 0; i < postagens.tamanho; i++) {
+                        int item = postagens.itens[i];
+                        int documento = item >>> BITS_CAMPOS;
+                        int candidato = candidatoPorDocumento.buscar(documento);
+                        if (candidato < 0) {
+                            if (passo > 0 || removidos.get(documento)) continue;
+                            candidato = totalCandidatos++;
+                            candidatoPorDocumento.colocar(documento, candidato);
+                            candidatos[candidato] = documento;
+                        }
+                        // Só avança quem casou com todos os termos anteriores
+                        if (casados[candidato] < passo) continue;
+                        casados[candidato] = (byte) (passo + 1);
+                        pontuacao[candidato] += fator * peso(item & ((1 << BITS_CAMPOS) - 1));
+                    }
+                }
+            }
+
+            return melhores(candidatos, totalCandidatos, pontuacao, casados, (byte) ordem.length, inicio, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> termosUnicos(String texto) {
+        Set<String> resultado = new LinkedHashSet<>();
+        if (texto == null) return resultado;
+
+        for (String termo : termos(texto)) {
+            if (resultado.size() < MAXIMO_TERMOS_CONSULTA) {
+                resultado.add(termo);
+            }
+        }
+        return resultado;
+    }
+
+    // Palavras do texto, minúsculas e sem acentos
+    static String[] termos(String texto) {
+        String normalizado = SEPARADORES.matcher(normalizar(texto)).replaceAll(" ").strip();
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+
+    static String normalizar(String texto) {
+        return DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private Resultado melhores(int[] candidatos, int totalCandidatos, float[] pontuacao, byte[] casados,
+                               byte todos, int inicio, int limite) {
+        int quantidade = Math.max(0, inicio) + Math.max(0, limite);
+        // Chave ordenável: pontuação nos bits altos (float positivo ordena como int) e, em empate,
+        // o documento mais antigo primeiro
+        PriorityQueue<Long> fila = new PriorityQueue<>(Math.max(1, Math.min(quantidade, 1024)));
+        int total = 0;
+
+        for (int candidato = 0; candidato < totalCandidatos; candidato++) {
+            if (casados[candidato] != todos) continue;
+            total++;
+            if (quantidade == 0) continue;
+
+            long chave = (long) Float.floatToIntBits(pontuacao[candidato]) << 32
+                    | (Integer.MAX_VALUE - candidatos[candidato]);
+            if (fila.size() < quantidade) {
+                fila.add(chave);
+            } else if (chave > fila.peek()) {
+                fila.poll();
+                fila.add(chave);
+            }
+        }
+
+        long[] ordenados = fila.stream().mapToLong(Long::longValue).sorted().toArray();
+        List<Long> ids = new ArrayList<>(Math.max(0, ordenados.length - inicio));
+        for (int i = ordenados.length - 1 - Math.max(0, inicio); i >= 0; i--) {
+            ids.add(livroIds[Integer.MAX_VALUE - (int) ordenados[i]]);
+        }
+        return new Resultado(ids, total);
+    }
+
+    private static float peso(int campos) {
+        float peso = 0;
+        if ((campos & TITULO) != 0) peso += 3;
+        if ((campos & AUTOR) != 0) peso += 2;
+        if ((campos & ISBN) != 0) peso += 1;
+        return peso;
+    }
+
+    private static void adicionarTermos(Map<String, Integer> campos, String texto, int campo) {
+        if (texto == null) return;
+        for (String termo : termos(texto)) {
+            campos.merge(termo, campo, (a, b) -> a | b);
+        }
+    }
+
+    private void removerDocumento(long livroId) {
+        int documento = documentoPorLivro.remover(livroId);
+        if (documento >= 0) {
+            removidos.set(documento);
+            totalRemovidos++;
+        }
+    }
+
+    private void compactarSeNecessario() {
+        if (totalRemovidos < 1024 || totalRemovidos * 4 < documentos) return;
+
+        int[] novoNumero = new int[documentos];
+        int ativos = 0;
+        for (int documento = 0; documento < documentos; documento++) {
+            if (removidos.get(documento)) {
+                novoNumero[documento] = -1;
+            } else {
+                novoNumero[documento] = ativos;
+                livroIds[ativos] = livroIds[documento];
+                documentoPorLivro.colocar(livroIds[ativos], ativos);
+                ativos++;
+            }
+        }
+
+        Iterator<Postagens> iterador = termos.values().iterator();
+        while (iterador.hasNext()) {
+            Postagens postagens = iterador.next();
+            postagens.renumerar(novoNumero);
+            if (postagens.tamanho == 0) {
+                iterador.remove();
+            }
+        }
+
+        documentos = ativos;
+        totalRemovidos = 0;
+        removidos.clear();
+    }
+
+    // Documento << 3 | campos, em ordem crescente de documento (novos documentos vão ao final)
+    private static final class Postagens {
+        private int[] itens = new int[2];
+        private int tamanho;
+
+        private void adicionar(int item) {
+            if (tamanho == itens.length) {
+                itens = Arrays.copyOf(itens, tamanho * 2);
+            }
+            itens[tamanho++] = item;
+        }
+
+        private void renumerar(int[] novoNumero) {
+            int mantidos = 0;
+            for (int i = 0; i < tamanho; i++) {
+                int documento = novoNumero[itens[i] >>> BITS_CAMPOS];
+                if (documento >= 0) {
+                    itens[mantidos++] = documento << BITS_CAMPOS | (itens[i] & ((1 << BITS_CAMPOS) - 1));
+                }
+            }
+            tamanho = mantidos;
+            if (itens.length > 2 * mantidos + 2) {
+                itens = Arrays.copyOf(itens, Math.max(2, mantidos));
+            }
+        }
+    }
+}
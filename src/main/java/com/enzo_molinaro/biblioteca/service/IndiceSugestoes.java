@@ -0,0 +1,256 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.enums.TipoSugestao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sugestões de autocompletar: títulos e nomes de autores distintos do catálogo, cada um com o
+ * número de livros ativos em que aparece. Um texto é encontrado pelo início de qualquer uma de
+ * suas palavras ("casm" sugere "Dom Casmurro").
+ * <p>
+ * Cada início de palavra é uma chave {@code long} (sugestão e posição no texto normalizado) em
+ * um vetor ordenado pelo texto a partir daquela posição; a busca é uma pesquisa binária seguida
+ * de uma leitura sequencial. Chaves de textos novos entram num mapa ordenado menor, intercalado
+ * ao vetor quando passa de um dezesseis avos dele. Textos sem livros ativos deixam de ser
+ * sugeridos, mas só saem da memória na próxima reconstrução.
+ */
+final class IndiceSugestoes {
+
+    // Prefixos curtos casam com boa parte do catálogo: só os primeiros em ordem alfabética disputam
+    private static final int MAXIMO_CANDIDATOS = 2_000;
+    private static final int BITS_POSICAO = 16;
+    private static final int MINIMO_RECENTES = 4_096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> sugestaoPorChave = new HashMap<>();
+    private final List<String> textos = new ArrayList<>();
+    private final List<String> normalizados = new ArrayList<>();
+    private final List<TipoSugestao> tipos = new ArrayList<>();
+    private int[] livros = new int[1024];
+
+    private final MapaLongInt tituloPorLivro = new MapaLongInt();
+    private final MapaLongInt autorPorLivro = new MapaLongInt();
+
+    private long[] chaves = new long[0];
+    private final TreeMap<String, Long> recentes = new TreeMap<>();
+
+    record Sugestao(String texto, TipoSugestao tipo, int livros) {
+    }
+
+    void indexar(long livroId, String titulo, String autor) {
+        lock.writeLock().lock();
+        try {
+            removerLivro(livroId);
+            associar(livroId, tituloPorLivro, TipoSugestao.TITULO, titulo);
+            associar(livroId, autorPorLivro, TipoSugestao.AUTOR, autor);
+
+            if (recentes.size() >= Math.max(MINIMO_RECENTES, chaves.length / 16)) {
+                intercalarRecentes();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remover(long livroId) {
+        lock.writeLock().lock();
+        try {
+            removerLivro(livroId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Até {@code limite} sugestões cujo texto tem uma palavra começando pelo prefixo: primeiro as
+     * que começam por ele, depois as que aparecem em mais livros e as mais curtas.
+     */
+    List<Sugestao> sugerir(String prefixo, int limite) {
+        String consulta = prefixo == null ? "" : String.join(" ", IndiceInvertido.termos(prefixo));
+        if (consulta.isEmpty()) {
+            return List.of();
+        }
+        // "dom " só casa com a palavra "dom" inteira
+        if (!Character.isLetterOrDigit(prefixo.charAt(prefixo.length() - 1))) {
+            consulta += " ";
+        }
+
+        lock.readLock().lock();
+        try {
+            Candidatos candidatos = new Candidatos(limite);
+            for (int i = primeiraChave(consulta); i < chaves.length && candidatos.lidos < MAXIMO_CANDIDATOS; i++) {
+                if (comparar(chaves[i], consulta) != 0) break;
+                candidatos.considerar(chaves[i]);
+            }
+            for (long chave : recentes.subMap(consulta, consulta + Character.MAX_VALUE).values()) {
+                candidatos.considerar(chave);
+            }
+            return candidatos.sugestoes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * As {@code limite} melhores sugestões vistas até agora, em ordem, sem guardar as demais:
+     * ordena no máximo {@code limite} itens em vez de todos os candidatos.
+     */
+    private final class Candidatos {
+
+        private final int[] sugestoes;
+        private final int[] posicoes;
+        private int tamanho;
+        private int lidos;
+
+        Candidatos(int limite) {
+            this.sugestoes = new int[limite];
+            this.posicoes = new int[limite];
+        }
+
+        void considerar(long chave) {
+            lidos++;
+            int sugestao = (int) (chave >>> BITS_POSICAO);
+            int posicao = (int) (chave & ((1 << BITS_POSICAO) - 1));
+            if (livros[sugestao] == 0) return;
+
+            // O mesmo texto pode casar em mais de uma palavra: vale a posição mais à esquerda
+            for (int i = 0; i < tamanho; i++) {
+                if (sugestoes[i] == sugestao) {
+                    if (posicao >= posicoes[i]) return;
+                    System.arraycopy(sugestoes, i + 1, sugestoes, i, tamanho - i - 1);
+                    System.arraycopy(posicoes, i + 1, posicoes, i, tamanho - i - 1);
+                    tamanho--;
+                    break;
+                }
+            }
+            if (tamanho == sugestoes.length && comparar(sugestao, posicao, tamanho - 1) >= 0) return;
+
+            int destino = Math.min(tamanho, sugestoes.length - 1);
+            while (destino > 0 && comparar(sugestao, posicao, destino - 1) < 0) {
+                sugestoes[destino] = sugestoes[destino - 1];
+                posicoes[destino] = posicoes[destino - 1];
+                destino--;
+            }
+            sugestoes[destino] = sugestao;
+            posicoes[destino] = posicao;
+            tamanho = Math.min(tamanho + 1, sugestoes.length);
+        }
+
+        // Quem começa pelo prefixo, depois mais livros, textos mais curtos e ordem alfabética
+        private int comparar(int sugestao, int posicao, int indice) {
+            int outra = sugestoes[indice];
+            if ((posicao == 0) != (posicoes[indice] == 0)) return posicao == 0 ? -1 : 1;
+            if (livros[sugestao] != livros[outra]) return Integer.compare(livros[outra], livros[sugestao]);
+            String texto = normalizados.get(sugestao);
+            String outroTexto = normalizados.get(outra);
+            if (texto.length() != outroTexto.length()) return Integer.compare(texto.length(), outroTexto.length());
+            return texto.compareTo(outroTexto);
+        }
+
+        List<Sugestao> sugestoes() {
+            List<Sugestao> resultado = new ArrayList<>(tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                resultado.add(new Sugestao(textos.get(sugestoes[i]), tipos.get(sugestoes[i]), livros[sugestoes[i]]));
+            }
+            return resultado;
+        }
+    }
+
+    private void associar(long livroId, MapaLongInt porLivro, TipoSugestao tipo, String texto) {
+        if (texto == null) return;
+        String[] termos = IndiceInvertido.termos(texto);
+        if (termos.length == 0) return;
+        // O espaço final permite exigir a palavra inteira, como em "dom "
+        String normalizado = String.join(" ", termos) + ' ';
+
+        Integer sugestao = sugestaoPorChave.get(tipo.name() + ':' + normalizado);
+        if (sugestao == null) {
+            sugestao = textos.size();
+            sugestaoPorChave.put(tipo.name() + ':' + normalizado, sugestao);
+            textos.add(texto.strip());
+            normalizados.add(normalizado);
+            tipos.add(tipo);
+            if (sugestao == livros.length) {
+                livros = Arrays.copyOf(livros, livros.length * 2);
+            }
+
+            // Uma chave por início de palavra
+            for (int posicao = 0; posicao < normalizado.length() && posicao < 1 << BITS_POSICAO; posicao++) {
+                if (posicao == 0 || normalizado.charAt(posicao - 1) == ' ') {
+                    long chave = (long) sugestao << BITS_POSICAO | posicao;
+                    recentes.put(normalizado.substring(posicao) + '\u0000' + chave, chave);
+                }
+            }
+        }
+
+        livros[sugestao]++;
+        porLivro.colocar(livroId, sugestao);
+    }
+
+    private void removerLivro(long livroId) {
+        int titulo = tituloPorLivro.remover(livroId);
+        if (titulo >= 0) livros[titulo]--;
+        int autor = autorPorLivro.remover(livroId);
+        if (autor >= 0) livros[autor]--;
+    }
+
+    private void intercalarRecentes() {
+        long[] intercaladas = new long[chaves.length + recentes.size()];
+        int i = 0;
+        int destino = 0;
+        for (long recente : recentes.values()) {
+            while (i < chaves.length && comparar(chaves[i], recente) <= 0) {
+                intercaladas[destino++] = chaves[i++];
+            }
+            intercaladas[destino++] = recente;
+        }
+        System.arraycopy(chaves, i, intercaladas, destino, chaves.length - i);
+
+        chaves = intercaladas;
+        recentes.clear();
+    }
+
+    private int primeiraChave(String prefixo) {
+        int inicio = 0;
+        int fim = chaves.length;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (comparar(chaves[meio], prefixo) < 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    // Texto da chave comparado ao prefixo: 0 quando começa por ele
+    private int comparar(long chave, String prefixo) {
+        String texto = normalizados.get((int) (chave >>> BITS_POSICAO));
+        int posicao = (int) (chave & ((1 << BITS_POSICAO) - 1));
+        for (int i = 0; i < prefixo.length(); i++) {
+            if (posicao + i == texto.length()) return -1;
+            int diferenca = texto.charAt(posicao + i) - prefixo.charAt(i);
+            if (diferenca != 0) return diferenca;
+        }
+        return 0;
+    }
+
+    // Ordem dos textos a partir das posições das chaves, a mesma do mapa de recentes
+    private int comparar(long chave, long outra) {
+        String texto = normalizados.get((int) (chave >>> BITS_POSICAO));
+        String outroTexto = normalizados.get((int) (outra >>> BITS_POSICAO));
+        int posicao = (int) (chave & ((1 << BITS_POSICAO) - 1));
+        int outraPosicao = (int) (outra & ((1 << BITS_POSICAO) - 1));
+        return CharSequence.compare(
+                texto.subSequence(posicao, texto.length()), outroTexto.subSequence(outraPosicao, outroTexto.length()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.config.CacheConfig;
+import com.enzo_molinaro.biblioteca.event.EmprestimoEvento;
+import com.enzo_molinaro.biblioteca.event.LivroEvento;
+import com.enzo_molinaro.biblioteca.event.UsuarioEvento;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Descarta os relatórios em cache afetados por empréstimos, livros e usuários. Os eventos só
+ * marcam os caches; a limpeza acontece a cada {@code biblioteca.relatorios.invalidacao-ms}, de
+ * modo que uma rajada de empréstimos custa um recálculo por relatório no intervalo, e não um por
+ * empréstimo. Os relatórios ficam, no máximo, esse intervalo desatualizados: um cálculo que
+ * ainda estava em andamento na limpeza não é servido depois dela ({@code CacheComGeracao}).
+ * <p>
+ * O relatório por período é descartado pelo {@link EstatisticaDiariaService}, depois de
+ * consolidar os dias afetados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvalidacaoRelatoriosService {
+
+    private static final List<String> AFETADOS_POR_EMPRESTIMO = List.of(
+            CacheConfig.LIVROS_MAIS_EMPRESTADOS,
+            CacheConfig.USUARIOS_MAIS_ATIVOS,
+            CacheConfig.PROXIMOS_DO_VENCIMENTO);
+
+    private final CacheManager cacheManager;
+
+    private final Set<String> pendentes = ConcurrentHashMap.newKeySet();
+
+    @TransactionalEventListener
+    public void onEmprestimo(EmprestimoEvento evento) {
+        pendentes.addAll(AFETADOS_POR_EMPRESTIMO);
+    }
+
+    @TransactionalEventListener
+    public void onLivro(LivroEvento evento) {
+        pendentes.add(CacheConfig.LIVROS_POR_CATEGORIA);
+        if (evento.getTipo() != LivroEvento.Tipo.CRIADO) {
+            // Título e autor aparecem no ranking e nos empréstimos próximos do vencimento
+            pendentes.add(CacheConfig.LIVROS_MAIS_EMPRESTADOS);
+            pendentes.add(CacheConfig.PROXIMOS_DO_VENCIMENTO);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onUsuario(UsuarioEvento evento) {
+        if (evento.getTipo() != UsuarioEvento.Tipo.CRIADO) {
+            pendentes.add(CacheConfig.USUARIOS_MAIS_ATIVOS);
+            pendentes.add(CacheConfig.PROXIMOS_DO_VENCIMENTO);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.relatorios.invalidacao-ms:5000}")
+    public void invalidarPendentes() {
+        Iterator<String> iterator = pendentes.iterator();
+        while (iterator.hasNext()) {
+            String nome = iterator.next();
+            // Remove antes de limpar: um evento que chegue no meio volta a marcar o cache
+            iterator.remove();
+
+            Cache cache = cacheManager.getCache(nome);
+            if (cache != null) {
+                cache.clear();
+                log.debug("Cache de relatório invalidado: {}", nome);
+            }
+        }
+    }
+}
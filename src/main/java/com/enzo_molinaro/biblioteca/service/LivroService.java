@@ -2,8 +2,10 @@ package com.enzo_molinaro.biblioteca.service;
 
 import com.enzo_molinaro.biblioteca.dto.request.LivroRequestDTO;
 import com.enzo_molinaro.biblioteca.dto.response.LivroResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
 import com.enzo_molinaro.biblioteca.entity.Categoria;
 import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.event.LivroEvento;
 import com.enzo_molinaro.biblioteca.exception.BusinessException;
 import com.enzo_molinaro.biblioteca.exception.ResourceNotFoundException;
 import com.enzo_molinaro.biblioteca.mapper.LivroMapper;
@@ -11,29 +13,43 @@ import com.enzo_molinaro.biblioteca.repository.CategoriaRepository;
 import com.enzo_molinaro.biblioteca.repository.LivroRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class LivroService {
 
+    // Ordem crescente por título: todo título não vazio vem depois de ""
+    private static final CursorPaginacao.Posicao<String> INICIO = new CursorPaginacao.Posicao<>("", 0L);
+
     private final LivroRepository livroRepository;
     private final CategoriaRepository categoriaRepository;
     private final LivroMapper livroMapper;
+    private final IndiceCatalogoService indiceCatalogoService;
+    private final UnicidadeService unicidadeService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public LivroResponseDTO criar(LivroRequestDTO dto) {
         log.info("Criando livro com ISBN: {}", dto.getIsbn());
 
-        if (livroRepository.existsByIsbn(dto.getIsbn())) {
-            throw new BusinessException("Já existe um livro cadastrado com o ISBN: " + dto.getIsbn());
-        }
+        unicidadeService.validarIsbn(dto.getIsbn(), null);
 
         Livro livro = livroMapper.toEntity(dto);
 
@@ -46,9 +62,27 @@ public class LivroService {
         Livro livroSalvo = livroRepository.save(livro);
         log.info("Livro criado com sucesso. ID: {}", livroSalvo.getId());
 
+        eventPublisher.publishEvent(LivroEvento.builder()
+                .tipo(LivroEvento.Tipo.CRIADO)
+                .livroId(livroSalvo.getId())
+                .titulo(livroSalvo.getTitulo())
+                .autor(livroSalvo.getAutor())
+                .isbn(livroSalvo.getIsbn())
+                .indisponivelAtual(livroSalvo.isIndisponivel())
+                .build());
+
         return livroMapper.toResponseDTO(livroSalvo);
     }
 
+    @Transactional(readOnly = true)
+    public VersaoRecurso obterVersao(Long id) {
+        // Pelo cache de segundo nível: a versão avança também nas baixas e devoluções de estoque
+        Livro livro = livroRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado com ID: " + id));
+
+        return VersaoRecurso.forte("v" + livro.getVersao(), livro.getAtualizadoEm());
+    }
+
     @Transactional(readOnly = true)
     public LivroResponseDTO buscarPorId(Long id) {
         log.debug("Buscando livro por ID: {}", id);
@@ -69,8 +103,43 @@ public class LivroService {
     @Transactional(readOnly = true)
     public Page<LivroResponseDTO> buscar(String termo, Pageable pageable) {
         log.debug("Buscando livros por termo: {}", termo);
-        return livroRepository.buscarPorTermo(termo, pageable)
-                .map(livroMapper::toResponseDTO);
+
+        Optional<IndiceCatalogoService.ResultadoBusca> resultado =
+                indiceCatalogoService.buscar(termo, pageable.getOffset(), pageable.getPageSize());
+        if (resultado.isEmpty()) {
+            return livroRepository.buscarPorTermo(termo, pageable)
+                    .map(livroMapper::toResponseDTO);
+        }
+
+        // Uma consulta para a página inteira, devolvida na ordem de relevância do índice
+        List<Long> ids = resultado.get().livroIds();
+        Map<Long, Livro> livros = ids.isEmpty() ? Map.of() : livroRepository.findAtivosByIdIn(ids).stream()
+                .collect(Collectors.toMap(Livro::getId, Function.identity()));
+        List<LivroResponseDTO> conteudo = ids.stream()
+                .map(livros::get)
+                .filter(Objects::nonNull)
+                .map(livroMapper::toResponseDTO)
+                .toList();
+
+        return new PageImpl<>(conteudo, pageable, resultado.get().total());
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<LivroResponseDTO> listarTodos(String cursor, int tamanho) {
+        log.debug("Listando livros ativos por cursor");
+        CursorPaginacao.Posicao<String> posicao = CursorPaginacao.decodificar(cursor, titulo -> titulo, INICIO);
+        List<Livro> livros = livroRepository.findByAtivoTrueAposCursor(
+                posicao.chave(), posicao.id(), CursorPaginacao.limite(tamanho));
+        return paginaDeLivros(livros, tamanho);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<LivroResponseDTO> buscar(String termo, String cursor, int tamanho) {
+        log.debug("Buscando livros por termo com cursor: {}", termo);
+        CursorPaginacao.Posicao<String> posicao = CursorPaginacao.decodificar(cursor, titulo -> titulo, INICIO);
+        List<Livro> livros = livroRepository.buscarPorTermoAposCursor(
+                termo, posicao.chave(), posicao.id(), CursorPaginacao.limite(tamanho));
+        return paginaDeLivros(livros, tamanho);
     }
 
     @Transactional(readOnly = true)
@@ -84,7 +153,8 @@ public class LivroService {
     public Page<LivroResponseDTO> listarPorCategoria(Long categoriaId, Pageable pageable) {
         log.debug("Listando livros da categoria ID: {}", categoriaId);
 
-        if (!categoriaRepository.existsById(categoriaId)) {
+        // findById, e não existsById, para ser respondido pelo cache de segundo nível
+        if (categoriaRepository.findById(categoriaId).isEmpty()) {
             throw new ResourceNotFoundException("Categoria não encontrada");
         }
 
@@ -92,6 +162,8 @@ public class LivroService {
                 .map(livroMapper::toResponseDTO);
     }
 
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, multiplier = 2))
     @Transactional
     public LivroResponseDTO atualizar(Long id, LivroRequestDTO dto) {
         log.info("Atualizando livro ID: {}", id);
@@ -99,11 +171,12 @@ public class LivroService {
         Livro livro = livroRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
 
-        if (!livro.getIsbn().equals(dto.getIsbn()) && livroRepository.existsByIsbn(dto.getIsbn())) {
-            throw new BusinessException("Já existe outro livro com o ISBN: " + dto.getIsbn());
+        if (!livro.getIsbn().equals(dto.getIsbn())) {
+            unicidadeService.validarIsbn(dto.getIsbn(), id);
         }
 
         Integer quantidadeAntiga = livro.getQuantidadeTotal();
+        boolean indisponivelAnterior = livro.isIndisponivel();
 
         livroMapper.updateEntityFromDTO(dto, livro);
 
@@ -126,9 +199,21 @@ public class LivroService {
         Livro livroAtualizado = livroRepository.save(livro);
         log.info("Livro atualizado com sucesso. ID: {}", id);
 
+        eventPublisher.publishEvent(LivroEvento.builder()
+                .tipo(LivroEvento.Tipo.ATUALIZADO)
+                .livroId(id)
+                .titulo(livroAtualizado.getTitulo())
+                .autor(livroAtualizado.getAutor())
+                .isbn(livroAtualizado.getIsbn())
+                .indisponivelAnterior(indisponivelAnterior)
+                .indisponivelAtual(livroAtualizado.isIndisponivel())
+                .build());
+
         return livroMapper.toResponseDTO(livroAtualizado);
     }
 
+    @Retryable(retryFor = OptimisticLockingFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 20, multiplier = 2))
     @Transactional
     public void deletar(Long id) {
         log.info("Deletando (desativando) livro ID: {}", id);
@@ -136,10 +221,19 @@ public class LivroService {
         Livro livro = livroRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
 
+        boolean indisponivelAnterior = livro.isIndisponivel();
+
         livro.setAtivo(false);
         livroRepository.save(livro);
 
         log.info("Livro desativado com sucesso. ID: {}", id);
+
+        eventPublisher.publishEvent(LivroEvento.builder()
+                .tipo(LivroEvento.Tipo.DESATIVADO)
+                .livroId(id)
+                .indisponivelAnterior(indisponivelAnterior)
+                .indisponivelAtual(false)
+                .build());
     }
 
     @Transactional(readOnly = true)
@@ -155,4 +249,9 @@ public class LivroService {
                 .orElseThrow(() -> new ResourceNotFoundException("Livro não encontrado"));
         return livro.getQuantidadeDisponivel() > 0;
     }
+
+    private PaginaCursorDTO<LivroResponseDTO> paginaDeLivros(List<Livro> livros, int tamanho) {
+        return CursorPaginacao.pagina(livros, tamanho, livroMapper::toResponseDTO,
+                livro -> CursorPaginacao.codificar(livro.getTitulo(), livro.getId()));
+    }
 }
\ No newline at end of file
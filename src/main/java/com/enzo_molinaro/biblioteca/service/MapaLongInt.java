@@ -0,0 +1,94 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de {@code long} para {@code int} não negativo, em endereçamento aberto com sondagem
+ * linear: os índices em memória do catálogo guardam um valor por livro sem criar um
+ * {@code Long} e uma entrada de {@code HashMap} para cada um. Não é thread-safe.
+ */
+final class MapaLongInt {
+
+    private static final long VAZIO = Long.MIN_VALUE;
+
+    private long[] chaves;
+    private int[] valores;
+    private int tamanho;
+
+    MapaLongInt() {
+        this(512);
+    }
+
+    // Cabe a quantidade esperada sem redimensionar (ocupação de no máximo metade)
+    MapaLongInt(int quantidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(8, quantidadeEsperada) * 2 - 1) << 1;
+        chaves = novasChaves(capacidade);
+        valores = new int[capacidade];
+    }
+
+    void colocar(long chave, int valor) {
+        if ((tamanho + 1) * 2 > chaves.length) {
+            redimensionar();
+        }
+        int posicao = posicao(chave, chaves);
+        if (chaves[posicao] == VAZIO) {
+            chaves[posicao] = chave;
+            tamanho++;
+        }
+        valores[posicao] = valor;
+    }
+
+    // -1 quando a chave não existe
+    int buscar(long chave) {
+        int posicao = posicao(chave, chaves);
+        return chaves[posicao] == VAZIO ? -1 : valores[posicao];
+    }
+
+    int remover(long chave) {
+        int posicao = posicao(chave, chaves);
+        if (chaves[posicao] == VAZIO) return -1;
+
+        int valor = valores[posicao];
+        chaves[posicao] = VAZIO;
+        tamanho--;
+
+        // Reinsere o restante do agrupamento para não quebrar a sondagem linear
+        int mascara = chaves.length - 1;
+        for (int i = (posicao + 1) & mascara; chaves[i] != VAZIO; i = (i + 1) & mascara) {
+            long deslocada = chaves[i];
+            int valorDeslocado = valores[i];
+            chaves[i] = VAZIO;
+            tamanho--;
+            colocar(deslocada, valorDeslocado);
+        }
+        return valor;
+    }
+
+    private void redimensionar() {
+        long[] antigasChaves = chaves;
+        int[] antigosValores = valores;
+        chaves = novasChaves(antigasChaves.length * 2);
+        valores = new int[antigasChaves.length * 2];
+        tamanho = 0;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasChaves[i] != VAZIO) {
+                colocar(antigasChaves[i], antigosValores[i]);
+            }
+        }
+    }
+
+    private static int posicao(long chave, long[] chaves) {
+        int mascara = chaves.length - 1;
+        int i = (int) (chave * 0x9E3779B97F4A7C15L >>> 32) & mascara;
+        while (chaves[i] != VAZIO && chaves[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private static long[] novasChaves(int capacidade) {
+        long[] chaves = new long[capacidade];
+        Arrays.fill(chaves, VAZIO);
+        return chaves;
+    }
+}
@@ -0,0 +1,133 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PainelDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingLivrosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingUsuariosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Painel com todas as seções de relatório. As seções são independentes e rodam em paralelo, cada
+ * uma na sua transação somente leitura (e na sua conexão), de modo que o painel leva o tempo da
+ * seção mais lenta, e não a soma. Uma seção que excede o tempo limite ou falha vai nula e é listada
+ * em {@code secoesIndisponiveis}; as demais são entregues assim mesmo.
+ * <p>
+ * O executor é próprio e limitado: cada seção ocupa uma conexão, e painéis simultâneos não podem
+ * tomar o pool inteiro. Sem vaga na fila, a seção é reportada como indisponível. Não é exposto como
+ * bean para não substituir o executor padrão do Spring Boot (usado pelo MVC assíncrono).
+ */
+@Service
+@Slf4j
+public class PainelService {
+
+    private final RelatorioService relatorioService;
+    private final ExecutorService executor;
+    private final long tempoLimiteMs;
+
+    @Autowired
+    public PainelService(
+            RelatorioService relatorioService,
+            @Value("${biblioteca.relatorios.painel.threads:4}") int threads,
+            @Value("${biblioteca.relatorios.painel.tempo-limite-ms:3000}") long tempoLimiteMs) {
+        this(relatorioService, new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 10), new CustomizableThreadFactory("painel-")), tempoLimiteMs);
+    }
+
+    PainelService(RelatorioService relatorioService, ExecutorService executor, long tempoLimiteMs) {
+        this.relatorioService = relatorioService;
+        this.executor = executor;
+        this.tempoLimiteMs = tempoLimiteMs;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public PainelDTO gerarPainel(int limite, int dias) {
+        log.info("Gerando painel de relatórios - Limite: {}, dias: {}", limite, dias);
+
+        Map<String, String> indisponiveis = new ConcurrentHashMap<>();
+
+        CompletableFuture<RelatorioDTO> geral =
+                secao("geral", relatorioService::gerarRelatorioGeral, indisponiveis);
+        CompletableFuture<RankingLivrosDTO> livros = secao("livrosMaisEmprestados",
+                () -> relatorioService.relatorioLivrosMaisEmprestados(limite), indisponiveis);
+        CompletableFuture<RankingUsuariosDTO> usuarios = secao("usuariosMaisAtivos",
+                () -> relatorioService.relatorioUsuariosMaisAtivos(limite), indisponiveis);
+        CompletableFuture<List<EmprestimoResponseDTO>> vencimentos = secao("proximosDoVencimento",
+                () -> relatorioService.relatorioEmprestimosProximosDoVencimento(dias), indisponiveis);
+        CompletableFuture<Map<String, Long>> categorias =
+                secao("livrosPorCategoria", relatorioService::relatorioLivrosPorCategoria, indisponiveis);
+
+        try {
+            CompletableFuture.allOf(geral, livros, usuarios, vencimentos, categorias).join();
+        } catch (CompletionException ex) {
+            // Parâmetro inválido não é indisponibilidade: responde 400 como os relatórios avulsos
+            if (ex.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw ex;
+        }
+
+        return PainelDTO.builder()
+                .geral(geral.join())
+                .livrosMaisEmprestados(livros.join())
+                .usuariosMaisAtivos(usuarios.join())
+                .proximosDoVencimento(vencimentos.join())
+                .livrosPorCategoria(categorias.join())
+                .completo(indisponiveis.isEmpty())
+                .secoesIndisponiveis(new TreeMap<>(indisponiveis))
+                .dataGeracao(LocalDateTime.now())
+                .build();
+    }
+
+    private <T> CompletableFuture<T> secao(String nome, Supplier<T> consulta, Map<String, String> indisponiveis) {
+        CompletableFuture<T> futuro;
+        try {
+            futuro = CompletableFuture.supplyAsync(consulta, executor);
+        } catch (RejectedExecutionException ex) {
+            futuro = CompletableFuture.failedFuture(ex);
+        }
+
+        // A consulta que excede o tempo limite não é interrompida: termina no executor e é descartada
+        return futuro
+                .orTimeout(tempoLimiteMs, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    Throwable causa = ex instanceof CompletionException ? ex.getCause() : ex;
+                    if (causa instanceof BusinessException businessException) {
+                        throw businessException;
+                    }
+                    if (causa instanceof TimeoutException) {
+                        log.warn("Seção {} do painel excedeu o tempo limite de {} ms", nome, tempoLimiteMs);
+                        indisponiveis.put(nome, "Tempo limite de " + tempoLimiteMs + " ms excedido");
+                    } else {
+                        log.error("Falha ao gerar a seção {} do painel", nome, causa);
+                        indisponiveis.put(nome, "Falha ao gerar a seção");
+                    }
+                    return null;
+                });
+    }
+}
@@ -1,199 +1,111 @@
 package com.enzo_molinaro.biblioteca.service;
 
+import com.enzo_molinaro.biblioteca.config.CacheConfig;
 import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
-import com.enzo_molinaro.biblioteca.dto.response.LivroResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.LivroRankingDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingLivrosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingUsuariosDTO;
 import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.dto.response.UsuarioRankingDTO;
 import com.enzo_molinaro.biblioteca.entity.Emprestimo;
-import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
 import com.enzo_molinaro.biblioteca.mapper.EmprestimoMapper;
-import com.enzo_molinaro.biblioteca.mapper.LivroMapper;
 import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.EstatisticaDiariaRepository;
 import com.enzo_molinaro.biblioteca.repository.LivroRepository;
-import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Os relatórios, exceto o geral (já mantido em memória), ficam em cache por parâmetros. Com
+ * {@code sync = true}, requisições simultâneas pela mesma chave ausente esperam uma única
+ * execução da consulta. A invalidação vem dos eventos de domínio, via
+ * {@link InvalidacaoRelatoriosService}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RelatorioService {
 
+    private static final int LIMITE_MAXIMO_RANKING = 100;
+
     private final EmprestimoRepository emprestimoRepository;
+    private final EstatisticaDiariaRepository estatisticaDiariaRepository;
     private final LivroRepository livroRepository;
-    private final UsuarioRepository usuarioRepository;
     private final EmprestimoMapper emprestimoMapper;
-    private final LivroMapper livroMapper;
+    private final EstatisticasService estatisticasService;
 
-    @Transactional(readOnly = true)
     public RelatorioDTO gerarRelatorioGeral() {
         log.info("Gerando relatório geral do sistema");
 
-        long totalLivros = livroRepository.count();
-        long totalUsuarios = usuarioRepository.count();
-        long totalEmprestimos = emprestimoRepository.count();
-
-        List<Emprestimo> emprestimosAtivos = emprestimoRepository
-                .findEmprestimosAtivosDoUsuario(null);
-
-        long emprestimosAtivos_count = emprestimoRepository
-                .findByStatus(com.enzo_molinaro.biblioteca.enums.StatusEmprestimo.ATIVO,
-                        org.springframework.data.domain.Pageable.unpaged())
-                .getTotalElements();
-
-        List<Emprestimo> emprestimosAtrasados = emprestimoRepository
-                .findEmprestimosAtrasados(LocalDate.now());
-
-        BigDecimal multasAcumuladas = emprestimosAtrasados.stream()
-                .map(Emprestimo::getValorMulta)
-                .filter(multa -> multa != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        List<Livro> livrosIndisponiveis = livroRepository.findIndisponiveis();
-
-        return RelatorioDTO.builder()
-                .totalLivros(totalLivros)
-                .totalUsuarios(totalUsuarios)
-                .totalEmprestimos(totalEmprestimos)
-                .emprestimosAtivos(emprestimosAtivos_count)
-                .emprestimosAtrasados((long) emprestimosAtrasados.size())
-                .multasAcumuladas(multasAcumuladas)
-                .livrosIndisponiveis((long) livrosIndisponiveis.size())
-                .dataGeracao(LocalDate.now())
-                .build();
+        return estatisticasService.obterRelatorioGeral();
     }
 
+    @Cacheable(cacheNames = CacheConfig.LIVROS_MAIS_EMPRESTADOS, sync = true)
     @Transactional(readOnly = true)
-    public Map<String, Object> relatorioLivrosMaisEmprestados(int limite) {
+    public RankingLivrosDTO relatorioLivrosMaisEmprestados(int limite) {
         log.info("Gerando relatório de livros mais emprestados - Limite: {}", limite);
 
-        List<Object[]> resultado = emprestimoRepository
-                .findAll()
-                .stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getLivro().getId(),
-                        Collectors.counting()
-                ))
-                .entrySet()
-                .stream()
-                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
-                .limit(limite)
-                .map(entry -> new Object[]{
-                        livroRepository.findById(entry.getKey()).orElse(null),
-                        entry.getValue()
-                })
-                .collect(Collectors.toList());
-
-        List<Map<String, Object>> livrosMaisEmprestados = resultado.stream()
-                .filter(obj -> obj[0] != null)
-                .map(obj -> {
-                    Livro livro = (Livro) obj[0];
-                    Long quantidade = (Long) obj[1];
-
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("livro", livroMapper.toResponseDTO(livro));
-                    item.put("quantidadeEmprestimos", quantidade);
-                    return item;
-                })
-                .collect(Collectors.toList());
+        validarLimite(limite);
 
-        Map<String, Object> relatorio = new HashMap<>();
-        relatorio.put("livrosMaisEmprestados", livrosMaisEmprestados);
-        relatorio.put("dataGeracao", LocalDate.now());
+        List<LivroRankingDTO> livrosMaisEmprestados = emprestimoRepository
+                .findLivrosMaisEmprestados(PageRequest.of(0, limite));
 
-        return relatorio;
+        return RankingLivrosDTO.builder()
+                .livrosMaisEmprestados(livrosMaisEmprestados)
+                .dataGeracao(LocalDate.now())
+                .build();
     }
 
+    @Cacheable(cacheNames = CacheConfig.USUARIOS_MAIS_ATIVOS, sync = true)
     @Transactional(readOnly = true)
-    public Map<String, Object> relatorioUsuariosMaisAtivos(int limite) {
+    public RankingUsuariosDTO relatorioUsuariosMaisAtivos(int limite) {
         log.info("Gerando relatório de usuários mais ativos - Limite: {}", limite);
 
-        List<Object[]> resultado = emprestimoRepository
-                .findAll()
-                .stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getUsuario().getId(),
-                        Collectors.counting()
-                ))
-                .entrySet()
-                .stream()
-                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
-                .limit(limite)
-                .map(entry -> new Object[]{
-                        usuarioRepository.findById(entry.getKey()).orElse(null),
-                        entry.getValue()
-                })
-                .collect(Collectors.toList());
-
-        List<Map<String, Object>> usuariosMaisAtivos = resultado.stream()
-                .filter(obj -> obj[0] != null)
-                .map(obj -> {
-                    var usuario = obj[0];
-                    Long quantidade = (Long) obj[1];
-
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("usuario", usuario);
-                    item.put("quantidadeEmprestimos", quantidade);
-                    return item;
-                })
-                .collect(Collectors.toList());
+        validarLimite(limite);
 
-        Map<String, Object> relatorio = new HashMap<>();
-        relatorio.put("usuariosMaisAtivos", usuariosMaisAtivos);
-        relatorio.put("dataGeracao", LocalDate.now());
+        List<UsuarioRankingDTO> usuariosMaisAtivos = emprestimoRepository
+                .findUsuariosMaisAtivos(PageRequest.of(0, limite));
 
-        return relatorio;
+        return RankingUsuariosDTO.builder()
+                .usuariosMaisAtivos(usuariosMaisAtivos)
+                .dataGeracao(LocalDate.now())
+                .build();
     }
 
+    @Cacheable(cacheNames = CacheConfig.EMPRESTIMOS_POR_PERIODO, sync = true)
     @Transactional(readOnly = true)
     public Map<String, Object> relatorioEmprestimosPorPeriodo(
             LocalDate dataInicio, LocalDate dataFim) {
 
         log.info("Gerando relatório de empréstimos por período: {} a {}", dataInicio, dataFim);
 
-        List<Emprestimo> emprestimos = emprestimoRepository
-                .findEmprestimosPorPeriodo(dataInicio, dataFim);
-
-        long totalEmprestimos = emprestimos.size();
-        long devolvidosNoPrazo = emprestimos.stream()
-                .filter(e -> e.getDataDevolucao() != null &&
-                        !e.getDataDevolucao().isAfter(e.getDataPrevistaDevolucao()))
-                .count();
-
-        long devolvidosComAtraso = emprestimos.stream()
-                .filter(e -> e.getDataDevolucao() != null &&
-                        e.getDataDevolucao().isAfter(e.getDataPrevistaDevolucao()))
-                .count();
-
-        long aindaEmprestados = emprestimos.stream()
-                .filter(e -> e.getDataDevolucao() == null)
-                .count();
-
-        BigDecimal multasGeradas = emprestimos.stream()
-                .map(Emprestimo::getValorMulta)
-                .filter(multa -> multa != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        EstatisticaDiariaRepository.Totais totais = estatisticaDiariaRepository.somar(dataInicio, dataFim);
 
         Map<String, Object> relatorio = new HashMap<>();
         relatorio.put("periodo", Map.of("inicio", dataInicio, "fim", dataFim));
-        relatorio.put("totalEmprestimos", totalEmprestimos);
-        relatorio.put("devolvidosNoPrazo", devolvidosNoPrazo);
-        relatorio.put("devolvidosComAtraso", devolvidosComAtraso);
-        relatorio.put("aindaEmprestados", aindaEmprestados);
-        relatorio.put("multasGeradas", multasGeradas);
+        relatorio.put("totalEmprestimos", totais.totalEmprestimos());
+        relatorio.put("devolvidosNoPrazo", totais.devolvidosNoPrazo());
+        relatorio.put("devolvidosComAtraso", totais.devolvidosComAtraso());
+        relatorio.put("aindaEmprestados", totais.aindaEmprestados());
+        relatorio.put("multasGeradas", totais.multasGeradas());
         relatorio.put("dataGeracao", LocalDate.now());
 
         return relatorio;
     }
 
+    // A janela é relativa a hoje: a data entra na chave para não atravessar a virada do dia
+    @Cacheable(cacheNames = CacheConfig.PROXIMOS_DO_VENCIMENTO, key = "{#dias, T(java.time.LocalDate).now()}", sync = true)
     @Transactional(readOnly = true)
     public List<EmprestimoResponseDTO> relatorioEmprestimosProximosDoVencimento(int dias) {
         log.info("Gerando relatório de empréstimos próximos do vencimento - {} dias", dias);
@@ -201,14 +113,12 @@ public class RelatorioService {
         LocalDate dataLimite = LocalDate.now().plusDays(dias);
 
         List<Emprestimo> emprestimos = emprestimoRepository
-                .findEmprestimosPorPeriodo(LocalDate.now(), dataLimite)
-                .stream()
-                .filter(e -> e.getDataDevolucao() == null)
-                .collect(Collectors.toList());
+                .findEmprestimosAbertosPorPeriodo(LocalDate.now(), dataLimite);
 
         return emprestimoMapper.toResponseDTOList(emprestimos);
     }
 
+    @Cacheable(cacheNames = CacheConfig.LIVROS_POR_CATEGORIA, sync = true)
     @Transactional(readOnly = true)
     public Map<String, Long> relatorioLivrosPorCategoria() {
         log.info("Gerando relatório de livros por categoria");
@@ -221,4 +131,10 @@ public class RelatorioService {
                         Collectors.counting()
                 ));
     }
+
+    private void validarLimite(int limite) {
+        if (limite <= 0 || limite > LIMITE_MAXIMO_RANKING) {
+            throw new BusinessException("Limite deve ser entre 1 e " + LIMITE_MAXIMO_RANKING);
+        }
+    }
 }
\ No newline at end of file
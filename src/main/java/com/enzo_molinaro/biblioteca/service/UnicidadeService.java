@@ -0,0 +1,170 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.repository.projection.UsuarioChavesProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Verifica ISBN, email e CPF já cadastrados com no máximo uma consulta por entidade. Filtros de
+ * Bloom carregados na inicialização respondem sem acessar o banco quando o valor certamente é
+ * novo, o caso comum em cadastros em massa; só os "talvez já exista" chegam ao banco.
+ * <p>
+ * Toda gravação pelo JPA adiciona seus valores aos filtros antes de chegar ao banco
+ * ({@link com.enzo_molinaro.biblioteca.entity.listener.UnicidadeListener}), então um valor do
+ * banco nunca é tomado por novo; se a transação falhar ou o registro for excluído, sobra apenas
+ * um falso positivo. Gravações por SQL direto
+ * exigem {@link #reconstruir()}. As restrições únicas das tabelas continuam sendo a garantia
+ * final contra cadastros simultâneos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnicidadeService {
+
+    private static final long CAPACIDADE_MINIMA = 100_000;
+
+    private final LivroRepository livroRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object monitor = new Object();
+    private volatile Filtros filtros;
+    // Valores gravados durante uma reconstrução, adicionados aos novos filtros antes da troca
+    private List<Consumer<Filtros>> pendentes;
+
+    private record Filtros(FiltroBloom isbns, FiltroBloom emails, FiltroBloom cpfs) {
+    }
+
+    public void validarIsbn(String isbn, Long livroId) {
+        Filtros atuais = filtros;
+        if (atuais == null || atuais.isbns().talvezContenha(isbn)) {
+            livroRepository.findIdByIsbn(isbn)
+                    .filter(dono -> !dono.equals(livroId))
+                    .ifPresent(dono -> {
+                        throw new BusinessException(livroId == null
+                                ? "Já existe um livro cadastrado com o ISBN: " + isbn
+                                : "Já existe outro livro com o ISBN: " + isbn);
+                    });
+        }
+    }
+
+    public void validarUsuario(String email, String cpf, Long usuarioId) {
+        Filtros atuais = filtros;
+        if (atuais == null || atuais.emails().talvezContenha(chaveEmail(email)) || atuais.cpfs().talvezContenha(cpf)) {
+            List<UsuarioChavesProjection> donos = usuarioRepository.findByEmailOuCpf(email, cpf);
+            for (UsuarioChavesProjection dono : donos) {
+                if (!dono.getId().equals(usuarioId) && dono.getEmail().equalsIgnoreCase(email)) {
+                    throw new BusinessException("Já existe um usuário cadastrado com o email: " + email);
+                }
+            }
+            for (UsuarioChavesProjection dono : donos) {
+                if (!dono.getId().equals(usuarioId) && dono.getCpf().equals(cpf)) {
+                    throw new BusinessException("Já existe um usuário cadastrado com o CPF: " + cpf);
+                }
+            }
+        }
+    }
+
+    /**
+     * ISBNs do lote que já estão cadastrados, com uma consulta apenas para os que o filtro não
+     * descarta (nenhuma, se todos forem novos).
+     */
+    public Set<String> isbnsCadastrados(Collection<String> isbns) {
+        Filtros atuais = filtros;
+        List<String> talvez = atuais == null ? new ArrayList<>(isbns)
+                : isbns.stream().filter(atuais.isbns()::talvezContenha).toList();
+
+        return talvez.isEmpty() ? Set.of() : Set.copyOf(livroRepository.findIsbnsExistentes(talvez));
+    }
+
+    public void registrarIsbn(String isbn) {
+        registrar(f -> f.isbns().adicionar(isbn));
+    }
+
+    public void registrarUsuario(String email, String cpf) {
+        registrar(f -> {
+            f.emails().adicionar(chaveEmail(email));
+            f.cpfs().adicionar(cpf);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirNaInicializacao() {
+        try {
+            reconstruir();
+        } catch (DataAccessException ex) {
+            log.warn("Falha ao carregar os filtros de unicidade; as validações usarão o banco: {}", ex.getMessage());
+        }
+    }
+
+    public void reconstruir() {
+        synchronized (monitor) {
+            pendentes = new ArrayList<>();
+        }
+
+        try {
+            long inicio = System.nanoTime();
+            Filtros novos = new TransactionTemplate(transactionManager).execute(status -> {
+                long usuarios = usuarioRepository.count();
+                FiltroBloom isbns = new FiltroBloom(Math.max(CAPACIDADE_MINIMA, 2 * livroRepository.count()));
+                FiltroBloom emails = new FiltroBloom(Math.max(CAPACIDADE_MINIMA, 2 * usuarios));
+                FiltroBloom cpfs = new FiltroBloom(Math.max(CAPACIDADE_MINIMA, 2 * usuarios));
+
+                try (Stream<String> todos = livroRepository.findTodosOsIsbns()) {
+                    todos.forEach(isbns::adicionar);
+                }
+                try (Stream<UsuarioChavesProjection> todos = usuarioRepository.findTodasAsChaves()) {
+                    todos.forEach(u -> {
+                        emails.adicionar(chaveEmail(u.getEmail()));
+                        cpfs.adicionar(u.getCpf());
+                    });
+                }
+                return new Filtros(isbns, emails, cpfs);
+            });
+
+            synchronized (monitor) {
+                pendentes.forEach(adicao -> adicao.accept(novos));
+                filtros = novos;
+            }
+            log.info("Filtros de unicidade carregados em {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            synchronized (monitor) {
+                pendentes = null;
+            }
+        }
+    }
+
+    private void registrar(Consumer<Filtros> adicao) {
+        synchronized (monitor) {
+            Filtros atuais = filtros;
+            if (atuais != null) {
+                adicao.accept(atuais);
+            }
+            if (pendentes != null) {
+                pendentes.add(adicao);
+            }
+        }
+    }
+
+    // O email é único sem distinção de maiúsculas no MySQL: o filtro não pode distinguir
+    private static String chaveEmail(String email) {
+        return email.strip().toLowerCase(Locale.ROOT);
+    }
+}
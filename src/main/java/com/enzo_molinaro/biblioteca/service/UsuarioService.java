@@ -1,40 +1,58 @@
 package com.enzo_molinaro.biblioteca.service;
 
 import com.enzo_molinaro.biblioteca.dto.request.UsuarioRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
 import com.enzo_molinaro.biblioteca.dto.response.UsuarioResponseDTO;
 import com.enzo_molinaro.biblioteca.entity.Usuario;
 import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.event.UsuarioEvento;
 import com.enzo_molinaro.biblioteca.exception.BusinessException;
 import com.enzo_molinaro.biblioteca.exception.ResourceNotFoundException;
 import com.enzo_molinaro.biblioteca.mapper.UsuarioMapper;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
 import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.repository.projection.UsuarioVersaoProjection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UsuarioService {
 
+    // Ordem crescente por nome: todo nome não vazio vem depois de ""
+    private static final CursorPaginacao.Posicao<String> INICIO = new CursorPaginacao.Posicao<>("", 0L);
+
     private final UsuarioRepository usuarioRepository;
+    private final EmprestimoRepository emprestimoRepository;
     private final UsuarioMapper usuarioMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnicidadeService unicidadeService;
 
     @Transactional
     public UsuarioResponseDTO criar(UsuarioRequestDTO dto) {
         log.info("Criando usuário com email: {}", dto.getEmail());
 
-        validarUsuarioUnico(dto.getEmail(), dto.getCpf(), null);
+        unicidadeService.validarUsuario(dto.getEmail(), dto.getCpf(), null);
 
         Usuario usuario = usuarioMapper.toEntity(dto);
         Usuario usuarioSalvo = usuarioRepository.save(usuario);
 
         log.info("Usuário criado com sucesso. ID: {}", usuarioSalvo.getId());
+        eventPublisher.publishEvent(new UsuarioEvento(UsuarioEvento.Tipo.CRIADO, usuarioSalvo.getId()));
         return usuarioMapper.toResponseDTO(usuarioSalvo);
     }
 
@@ -48,6 +66,16 @@ public class UsuarioService {
         return usuarioMapper.toResponseDTO(usuario);
     }
 
+    @Transactional(readOnly = true)
+    public VersaoRecurso obterVersao(Long id) {
+        UsuarioVersaoProjection versao = usuarioRepository.findVersaoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado com ID: " + id));
+
+        // Fraca e sem data de modificação: empréstimos e devoluções não atualizam o usuário
+        return VersaoRecurso.fraca(Long.toHexString(microssegundos(versao.getAtualizadoEm()))
+                + "-" + versao.getEmprestimosAtivos());
+    }
+
     @Transactional(readOnly = true)
     public Page<UsuarioResponseDTO> listarTodos(Pageable pageable) {
         log.debug("Listando todos os usuários ativos");
@@ -62,6 +90,24 @@ public class UsuarioService {
                 .map(usuarioMapper::toResponseDTO);
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<UsuarioResponseDTO> listarTodos(String cursor, int tamanho) {
+        log.debug("Listando usuários ativos por cursor");
+        CursorPaginacao.Posicao<String> posicao = CursorPaginacao.decodificar(cursor, nome -> nome, INICIO);
+        List<Usuario> usuarios = usuarioRepository.findByAtivoTrueAposCursor(
+                posicao.chave(), posicao.id(), CursorPaginacao.limite(tamanho));
+        return paginaDeUsuarios(usuarios, tamanho);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<UsuarioResponseDTO> buscar(String termo, String cursor, int tamanho) {
+        log.debug("Buscando usuários por termo com cursor: {}", termo);
+        CursorPaginacao.Posicao<String> posicao = CursorPaginacao.decodificar(cursor, nome -> nome, INICIO);
+        List<Usuario> usuarios = usuarioRepository.buscarPorTermoAposCursor(
+                termo, posicao.chave(), posicao.id(), CursorPaginacao.limite(tamanho));
+        return paginaDeUsuarios(usuarios, tamanho);
+    }
+
     @Transactional(readOnly = true)
     public List<UsuarioResponseDTO> listarPorTipo(TipoUsuario tipo) {
         log.debug("Listando usuários do tipo: {}", tipo);
@@ -77,12 +123,13 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
-        validarUsuarioUnico(dto.getEmail(), dto.getCpf(), id);
+        unicidadeService.validarUsuario(dto.getEmail(), dto.getCpf(), id);
 
         usuarioMapper.updateEntityFromDTO(dto, usuario);
         Usuario usuarioAtualizado = usuarioRepository.save(usuario);
 
         log.info("Usuário atualizado com sucesso. ID: {}", id);
+        eventPublisher.publishEvent(new UsuarioEvento(UsuarioEvento.Tipo.ATUALIZADO, id));
         return usuarioMapper.toResponseDTO(usuarioAtualizado);
     }
 
@@ -93,7 +140,7 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
-        long emprestimosAtivos = usuario.getEmprestimosAtivos();
+        long emprestimosAtivos = emprestimoRepository.countEmprestimosAtivosByUsuarioId(id);
         if (emprestimosAtivos > 0) {
             throw new BusinessException(
                     "Não é possível desativar usuário com empréstimos ativos. " +
@@ -105,28 +152,30 @@ public class UsuarioService {
         usuarioRepository.save(usuario);
 
         log.info("Usuário desativado com sucesso. ID: {}", id);
+        eventPublisher.publishEvent(new UsuarioEvento(UsuarioEvento.Tipo.DESATIVADO, id));
     }
 
     @Transactional(readOnly = true)
     public boolean podeEmprestar(Long id) {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-        return usuario.podeEmprestar();
+        return usuario.podeEmprestar(emprestimoRepository.countEmprestimosAtivosByUsuarioId(id));
     }
 
-    private void validarUsuarioUnico(String email, String cpf, Long idExcluir) {
-        if (usuarioRepository.existsByEmail(email)) {
-            Usuario existente = usuarioRepository.findByEmail(email).orElseThrow();
-            if (idExcluir == null || !existente.getId().equals(idExcluir)) {
-                throw new BusinessException("Já existe um usuário cadastrado com o email: " + email);
-            }
+    // Empréstimos ativos da página numa consulta agrupada, em vez de carregar o histórico de cada usuário
+    private PaginaCursorDTO<UsuarioResponseDTO> paginaDeUsuarios(List<Usuario> usuarios, int tamanho) {
+        Map<Long, Long> emprestimosAtivos = new HashMap<>();
+        if (!usuarios.isEmpty()) {
+            emprestimoRepository.countEmprestimosAtivosByUsuarioIds(usuarios.stream().map(Usuario::getId).toList())
+                    .forEach(contagem -> emprestimosAtivos.put(contagem.getUsuarioId(), contagem.getEmprestimosAtivos()));
         }
+        return CursorPaginacao.pagina(usuarios, tamanho,
+                usuario -> usuarioMapper.toResponseDTO(usuario, emprestimosAtivos.getOrDefault(usuario.getId(), 0L)),
+                usuario -> CursorPaginacao.codificar(usuario.getNome(), usuario.getId()));
+    }
 
-        if (usuarioRepository.existsByCpf(cpf)) {
-            Usuario existente = usuarioRepository.findByCpf(cpf).orElseThrow();
-            if (idExcluir == null || !existente.getId().equals(idExcluir)) {
-                throw new BusinessException("Já existe um usuário cadastrado com o CPF: " + cpf);
-            }
-        }
+    private static long microssegundos(LocalDateTime dataHora) {
+        if (dataHora == null) return 0;
+        return ChronoUnit.MICROS.between(Instant.EPOCH, dataHora.atZone(ZoneId.systemDefault()).toInstant());
     }
 }
\ No newline at end of file
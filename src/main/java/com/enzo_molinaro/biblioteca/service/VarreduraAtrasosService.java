@@ -0,0 +1,100 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.TravaAgendamentoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Passa para {@code ATRASADO} os empréstimos em aberto com a data prevista vencida e atualiza a
+ * multa corrida dos que já estavam atrasados, em lotes de UPDATE, cada um na sua transação, para
+ * não segurar bloqueios de muitas linhas de uma vez.
+ * <p>
+ * Com vários nós, só o que detém a trava {@value #TRAVA} varre; ela é renovada a cada lote e,
+ * se o nó cair no meio, vence sozinha. A varredura é idempotente: repetir só encontra o que mudou.
+ */
+@Service
+@Slf4j
+public class VarreduraAtrasosService {
+
+    static final String TRAVA = "varredura-atrasos";
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final TravaAgendamentoRepository travaAgendamentoRepository;
+    private final EstatisticaDiariaService estatisticaDiariaService;
+    private final EstatisticasService estatisticasService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final Duration prazoTrava;
+
+    // Identifica este nó como dono da trava
+    private final String dono = UUID.randomUUID().toString();
+
+    public VarreduraAtrasosService(
+            EmprestimoRepository emprestimoRepository,
+            TravaAgendamentoRepository travaAgendamentoRepository,
+            EstatisticaDiariaService estatisticaDiariaService,
+            EstatisticasService estatisticasService,
+            TransactionTemplate transactionTemplate,
+            @Value("${biblioteca.emprestimos.atrasos.tamanho-lote:1000}") int tamanhoLote,
+            @Value("${biblioteca.emprestimos.atrasos.prazo-trava-s:300}") long prazoTravaSegundos) {
+        this.emprestimoRepository = emprestimoRepository;
+        this.travaAgendamentoRepository = travaAgendamentoRepository;
+        this.estatisticaDiariaService = estatisticaDiariaService;
+        this.estatisticasService = estatisticasService;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoLote = tamanhoLote;
+        this.prazoTrava = Duration.ofSeconds(prazoTravaSegundos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${biblioteca.emprestimos.atrasos.cron:0 5 * * * *}")
+    public void varrerPeriodicamente() {
+        try {
+            varrer(LocalDate.now());
+        } catch (DataAccessException ex) {
+            log.warn("Falha na varredura de empréstimos atrasados: {}", ex.getMessage());
+        }
+    }
+
+    // Retorna o número de empréstimos atualizados, ou -1 se outro nó detém a trava
+    public int varrer(LocalDate hoje) {
+        if (!travaAgendamentoRepository.adquirir(TRAVA, dono, prazoTrava)) {
+            log.debug("Varredura de atrasos em andamento em outro nó");
+            return -1;
+        }
+
+        long inicio = System.nanoTime();
+        int total = 0;
+        try {
+            int atualizados;
+            do {
+                atualizados = transactionTemplate.execute(status -> emprestimoRepository.marcarAtrasados(hoje, tamanhoLote));
+                total += atualizados;
+            } while (atualizados == tamanhoLote && travaAgendamentoRepository.adquirir(TRAVA, dono, prazoTrava));
+        } finally {
+            travaAgendamentoRepository.liberar(TRAVA, dono);
+        }
+
+        if (total > 0) {
+            // Multas e status mudaram sem eventos: consolidação diária e indicadores do relatório geral
+            estatisticaDiariaService.marcar(
+                    emprestimoRepository.findDatasPrevistasEmAbertoPorStatus(StatusEmprestimo.ATRASADO));
+            estatisticasService.reconciliar();
+            log.info("Varredura de atrasos concluída. Empréstimos atualizados: {}, Tempo: {} ms",
+                    total, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return total;
+    }
+}
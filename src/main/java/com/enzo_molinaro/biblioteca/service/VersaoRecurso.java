@@ -0,0 +1,25 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validadores HTTP de um recurso: a ETag e, quando confiável, a data da última modificação.
+ * Obtidos sem montar a resposta, para que uma requisição condicional atendida com 304 não passe
+ * pelo mapper nem pela serialização.
+ * <p>
+ * O Last-Modified tem resolução de um segundo: duas gravações no mesmo segundo (dois empréstimos
+ * do mesmo livro, por exemplo) só são distinguidas pelo If-None-Match, que tem precedência sobre o
+ * If-Modified-Since quando o cliente envia os dois.
+ */
+public record VersaoRecurso(String etag, LocalDateTime ultimaModificacao) {
+
+    // Forte: muda a cada gravação da entidade (versão otimista)
+    public static VersaoRecurso forte(String valor, LocalDateTime ultimaModificacao) {
+        return new VersaoRecurso("\"" + valor + "\"", ultimaModificacao);
+    }
+
+    // Fraca: representações equivalentes, sem data de modificação que cubra todos os campos
+    public static VersaoRecurso fraca(String valor) {
+        return new VersaoRecurso("W/\"" + valor + "\"", null);
+    }
+}
@@ -0,0 +1,58 @@
+CREATE TABLE categorias (
+    id        BIGINT       NOT NULL,
+    nome      VARCHAR(50)  NOT NULL,
+    descricao VARCHAR(200),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categorias_nome UNIQUE (nome)
+);
+
+CREATE TABLE livros (
+    id                    BIGINT        NOT NULL,
+    isbn                  VARCHAR(13)   NOT NULL,
+    titulo                VARCHAR(255)  NOT NULL,
+    autor                 VARCHAR(255)  NOT NULL,
+    editora               VARCHAR(100),
+    ano_publicacao        INTEGER,
+    quantidade_total      INTEGER       NOT NULL,
+    quantidade_disponivel INTEGER       NOT NULL,
+    valor_multa_diaria    NUMERIC(10, 2),
+    categoria_id          BIGINT,
+    ativo                 BOOLEAN       NOT NULL,
+    criado_em             TIMESTAMP(6),
+    atualizado_em         TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_livros_isbn UNIQUE (isbn),
+    CONSTRAINT fk_livros_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id)
+);
+
+CREATE TABLE usuarios (
+    id                 BIGINT       NOT NULL,
+    nome               VARCHAR(255) NOT NULL,
+    email              VARCHAR(255) NOT NULL,
+    cpf                VARCHAR(11)  NOT NULL,
+    telefone           VARCHAR(15),
+    tipo               VARCHAR(20)  NOT NULL,
+    ativo              BOOLEAN      NOT NULL,
+    limite_emprestimos INTEGER      NOT NULL,
+    criado_em          TIMESTAMP(6),
+    atualizado_em      TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_usuarios_email UNIQUE (email),
+    CONSTRAINT uk_usuarios_cpf UNIQUE (cpf)
+);
+
+CREATE TABLE emprestimos (
+    id                      BIGINT      NOT NULL,
+    livro_id                BIGINT      NOT NULL,
+    usuario_id              BIGINT      NOT NULL,
+    data_emprestimo         DATE        NOT NULL,
+    data_prevista_devolucao DATE        NOT NULL,
+    data_devolucao          DATE,
+    status                  VARCHAR(20) NOT NULL,
+    valor_multa             NUMERIC(10, 2),
+    observacoes             VARCHAR(500),
+    criado_em               TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_emprestimos_livro FOREIGN KEY (livro_id) REFERENCES livros (id),
+    CONSTRAINT fk_emprestimos_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+);
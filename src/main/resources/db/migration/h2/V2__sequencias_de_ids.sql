@@ -0,0 +1,4 @@
+CREATE SEQUENCE categorias_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE livros_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE usuarios_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE emprestimos_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,15 @@
+-- Índices das listagens por cursor: cada página é uma busca por intervalo que começa logo
+-- após (chave de ordenação, id) da página anterior, lida já na ordem do índice, em vez de
+-- percorrer e descartar as linhas do OFFSET.
+CREATE INDEX idx_livros_ativo_titulo_id ON livros (ativo, titulo, id);
+
+CREATE INDEX idx_usuarios_ativo_nome_id ON usuarios (ativo, nome, id);
+
+CREATE INDEX idx_emprestimos_data_emprestimo_id ON emprestimos (data_emprestimo DESC, id DESC);
+CREATE INDEX idx_emprestimos_status_data_emprestimo_id ON emprestimos (status, data_emprestimo DESC, id DESC);
+
+-- Recria a chave estrangeira para que ela use o índice composto (como o InnoDB faz no MySQL);
+-- com o índice próprio da FK, o H2 o prefere e deixa de ler o histórico já ordenado
+ALTER TABLE emprestimos DROP CONSTRAINT fk_emprestimos_usuario;
+CREATE INDEX idx_emprestimos_usuario_data_emprestimo_id ON emprestimos (usuario_id, data_emprestimo DESC, id DESC);
+ALTER TABLE emprestimos ADD CONSTRAINT fk_emprestimos_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
@@ -0,0 +1,18 @@
+-- Consolidação diária dos empréstimos por data prevista de devolução, categoria do livro e tipo de
+-- usuário. Mantida pelo EstatisticaDiariaService: o relatório por período soma estas linhas em vez
+-- de carregar cada empréstimo do intervalo.
+CREATE TABLE estatisticas_emprestimos_diarias (
+    dia                   DATE           NOT NULL,
+    -- 0 para livros sem categoria (a coluna faz parte da chave primária)
+    categoria_id          BIGINT         NOT NULL,
+    tipo_usuario          VARCHAR(20)    NOT NULL,
+    total_emprestimos     BIGINT         NOT NULL,
+    devolvidos_no_prazo   BIGINT         NOT NULL,
+    devolvidos_com_atraso BIGINT         NOT NULL,
+    ainda_emprestados     BIGINT         NOT NULL,
+    multas_geradas        DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (dia, categoria_id, tipo_usuario)
+);
+
+-- Recálculo de um dia (ou intervalo) a partir dos empréstimos
+CREATE INDEX idx_emprestimos_data_prevista_devolucao ON emprestimos (data_prevista_devolucao);
@@ -0,0 +1,13 @@
+-- Travas com prazo (lease) das tarefas agendadas que rodam em um único nó por vez. O nó que
+-- adquire a trava a renova enquanto trabalha; se ele cair, outro a assume quando o prazo vence.
+CREATE TABLE travas_agendamento (
+    nome      VARCHAR(100) NOT NULL,
+    dono      VARCHAR(100),
+    expira_em TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (nome)
+);
+
+INSERT INTO travas_agendamento (nome, dono, expira_em) VALUES ('varredura-atrasos', NULL, '2000-01-01 00:00:00');
+
+-- Varredura (status em aberto e data prevista vencida) e listagem dos atrasados por status
+CREATE INDEX idx_emprestimos_status_data_prevista_devolucao ON emprestimos (status, data_prevista_devolucao);
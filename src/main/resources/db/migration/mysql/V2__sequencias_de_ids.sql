@@ -0,0 +1,14 @@
+-- MySQL não tem sequences: o Hibernate as emula com uma tabela de uma linha por entidade.
+-- O otimizador "pooled" (allocationSize = 50) reserva os IDs (next_val - 49 .. next_val),
+-- por isso o valor inicial é MAX(id) + 50: bancos existentes continuam após o último ID.
+CREATE TABLE categorias_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO categorias_seq SELECT COALESCE(MAX(id), 0) + 50 FROM categorias;
+
+CREATE TABLE livros_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO livros_seq SELECT COALESCE(MAX(id), 0) + 50 FROM livros;
+
+CREATE TABLE usuarios_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO usuarios_seq SELECT COALESCE(MAX(id), 0) + 50 FROM usuarios;
+
+CREATE TABLE emprestimos_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO emprestimos_seq SELECT COALESCE(MAX(id), 0) + 50 FROM emprestimos;
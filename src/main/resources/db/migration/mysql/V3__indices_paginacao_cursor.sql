@@ -0,0 +1,11 @@
+-- Índices das listagens por cursor: cada página é uma busca por intervalo que começa logo
+-- após (chave de ordenação, id) da página anterior, lida já na ordem do índice, em vez de
+-- percorrer e descartar as linhas do OFFSET.
+CREATE INDEX idx_livros_ativo_titulo_id ON livros (ativo, titulo, id);
+
+CREATE INDEX idx_usuarios_ativo_nome_id ON usuarios (ativo, nome, id);
+
+CREATE INDEX idx_emprestimos_data_emprestimo_id ON emprestimos (data_emprestimo DESC, id DESC);
+CREATE INDEX idx_emprestimos_status_data_emprestimo_id ON emprestimos (status, data_emprestimo DESC, id DESC);
+-- Também atende fk_emprestimos_usuario: o InnoDB descarta o índice implícito da chave estrangeira
+CREATE INDEX idx_emprestimos_usuario_data_emprestimo_id ON emprestimos (usuario_id, data_emprestimo DESC, id DESC);
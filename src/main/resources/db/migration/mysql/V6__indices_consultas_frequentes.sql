@@ -0,0 +1,19 @@
+-- Índices compostos dos predicados mais frequentes dos repositórios, verificados com EXPLAIN por
+-- PlanoDeConsultasIntegrationTest. O status já é prefixo de idx_emprestimos_status_data_emprestimo_id
+-- e idx_emprestimos_status_data_prevista_devolucao e não ganha índice próprio.
+
+-- Empréstimos em aberto do usuário: limite, atraso e livros já emprestados a ele
+CREATE INDEX idx_emprestimos_usuario_devolucao_prevista ON emprestimos (usuario_id, data_devolucao, data_prevista_devolucao);
+
+-- Empréstimos em aberto por data prevista: atrasados, próximos do vencimento e relatório geral
+CREATE INDEX idx_emprestimos_devolucao_prevista ON emprestimos (data_devolucao, data_prevista_devolucao);
+
+-- Mesmo livro em aberto para o usuário; também atende fk_emprestimos_livro (o InnoDB descarta o
+-- índice implícito da chave estrangeira)
+CREATE INDEX idx_emprestimos_livro_usuario_devolucao ON emprestimos (livro_id, usuario_id, data_devolucao);
+
+-- Livros disponíveis e indisponíveis do acervo ativo
+CREATE INDEX idx_livros_ativo_quantidade_disponivel ON livros (ativo, quantidade_disponivel);
+
+-- Livros ativos da categoria; também atende fk_livros_categoria
+CREATE INDEX idx_livros_categoria_ativo ON livros (categoria_id, ativo);
@@ -0,0 +1,8 @@
+-- Versão otimista (@Version) de livros e empréstimos, incrementada também nas baixas e devoluções
+-- de estoque por SQL direto (versao = versao + 1). Fica fora do V1 para chegar aos bancos que já
+-- existiam antes do Flyway e são marcados na linha de base (baseline-on-migrate) sem executar o V1.
+-- NOT NULL com DEFAULT 0: as linhas existentes começam na versão 0, e uma versão nula desligaria a
+-- verificação otimista e somaria nulo nos UPDATEs de estoque.
+ALTER TABLE livros ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE emprestimos ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,157 @@
+package com.enzo_molinaro.biblioteca.benchmark;
+
+import com.enzo_molinaro.biblioteca.dto.response.LivroResponseDTO;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.service.IndiceCatalogoService;
+import com.enzo_molinaro.biblioteca.service.LivroService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara a busca do catálogo com 1 milhão de livros pela consulta com {@code LIKE '%termo%'}
+ * (página e contagem) e pelo índice invertido em memória, e mede as sugestões de autocompletar.
+ * Executar com {@code mvn test -Pbenchmark}.
+ * <p>
+ * Usa um banco próprio sem o reaproveitamento de resultados do H2 (ver PaginacaoBenchmarkTest).
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:busca;MODE=MySQL;DATABASE_TO_LOWER=TRUE;" +
+        "DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE")
+@ActiveProfiles("test")
+class BuscaCatalogoBenchmarkTest {
+
+    private static final int TOTAL_LIVROS = 1_000_000;
+    private static final int TAMANHO_PAGINA = 20;
+    private static final int AQUECIMENTO = 2;
+    private static final int MEDICOES = 7;
+    private static final int MEDICOES_SUGESTOES = 1_000;
+
+    private static final String[] PALAVRAS = {
+            "história", "memórias", "coração", "sertão", "cidade", "noite", "mar", "tempo", "guerra", "amor",
+            "caminho", "estrela", "viagem", "ilha", "segredo", "jardim", "rio", "sombra", "canção", "inverno",
+            "verão", "família", "república", "revolução", "ciência", "introdução", "programação", "cálculo",
+            "economia", "filosofia", "poesia", "crônicas", "contos", "manual", "geografia", "música", "arte",
+            "máquina", "navegação", "tecnologia"};
+    private static final String[] NOMES = {
+            "Ana", "João", "Maria", "José", "Lúcia", "Antônio", "Clarice", "Jorge", "Cecília", "Graciliano",
+            "Raquel", "Érico", "Conceição", "Rubem", "Lygia", "Inês"};
+    private static final String[] SOBRENOMES = {
+            "Silva", "Souza", "Oliveira", "Lispector", "Amado", "Meireles", "Ramos", "Queiroz", "Veríssimo",
+            "Braga", "Telles", "Assis", "Andrade", "Lima", "Guimarães", "Conceição", "Araújo", "Gonçalves"};
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private IndiceCatalogoService indiceCatalogoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        List<Object[]> linhas = new ArrayList<>(10_000);
+        for (int i = 0; i < TOTAL_LIVROS; i++) {
+            String titulo = palavra(random, PALAVRAS) + " " + palavra(random, PALAVRAS) + " e o " + palavra(random, PALAVRAS);
+            String autor = palavra(random, NOMES) + " " + palavra(random, SOBRENOMES);
+            linhas.add(new Object[]{(long) i + 1, String.format("978%010d", i), titulo, autor, i % 50 != 0});
+            if (linhas.size() == 10_000 || i == TOTAL_LIVROS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO livros (id, isbn, titulo, autor, quantidade_total, " +
+                        "quantidade_disponivel, ativo) VALUES (?, ?, ?, ?, 1, 1, ?)", linhas);
+                linhas.clear();
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM livros");
+        // Excluídos por SQL direto: o Hibernate não sabe que os livros do cache saíram
+        entityManagerFactory.getCache().evictAll();
+        indiceCatalogoService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Busca pelo índice responde muito antes que o LIKE e sugestões em menos de 1 ms")
+    void indiceSuperaLike() {
+        // Construção na inicialização da aplicação
+        long inicio = System.nanoTime();
+        indiceCatalogoService.reconstruir();
+        System.out.printf("livros=%,d construção do índice: %d ms%n",
+                TOTAL_LIVROS, (System.nanoTime() - inicio) / 1_000_000);
+
+        PageRequest pagina = PageRequest.of(0, TAMANHO_PAGINA);
+        for (String termo : List.of("guimaraes", "revolucao", "lispector", "9780000123")) {
+            Page<Livro> porLike = livroRepository.buscarPorTermo(termo, pagina);
+            Page<LivroResponseDTO> porIndice = livroService.buscar(termo, pagina);
+            assertFalse(porIndice.isEmpty(), "Índice sem resultados para " + termo);
+
+            double like = medir("LIKE   '" + termo + "' (total " + porLike.getTotalElements() + ")", MEDICOES,
+                    () -> livroRepository.buscarPorTermo(termo, pagina));
+            double indice = medir("índice '" + termo + "' (total " + porIndice.getTotalElements() + ")", MEDICOES,
+                    () -> livroService.buscar(termo, pagina));
+
+            System.out.printf("'%s': índice %.0fx mais rápido%n", termo, like / indice);
+            assertTrue(indice < like, "Busca pelo índice não foi mais rápida que o LIKE para " + termo);
+        }
+
+        // Sem equivalente em LIKE: termos fora de ordem e sem acento
+        medir("índice 'sertao mar' ", MEDICOES, () -> livroService.buscar("sertao mar", pagina));
+
+        for (String prefixo : List.of("c", "cora", "historia e o", "lisp", "guimar")) {
+            assertFalse(indiceCatalogoService.sugerir(prefixo, 10).isEmpty(), "Sem sugestões para " + prefixo);
+            double sugestao = medir("sugestões '" + prefixo + "'", MEDICOES_SUGESTOES,
+                    () -> indiceCatalogoService.sugerir(prefixo, 10));
+            assertTrue(sugestao < 1.0, "Sugestões para '" + prefixo + "' levaram mais de 1 ms");
+        }
+    }
+
+    private static String palavra(Random random, String[] palavras) {
+        return palavras[random.nextInt(palavras.length)];
+    }
+
+    private double medir(String descricao, int medicoes, Supplier<?> consulta) {
+        for (int i = 0; i < Math.max(AQUECIMENTO, medicoes / 10); i++) {
+            consulta.get();
+        }
+
+        long[] latencias = new long[medicoes];
+        for (int i = 0; i < medicoes; i++) {
+            long inicio = System.nanoTime();
+            consulta.get();
+            latencias[i] = System.nanoTime() - inicio;
+        }
+
+        Arrays.sort(latencias);
+        double mediana = latencias[medicoes / 2] / 1_000_000.0;
+        System.out.printf("%s: mediana=%.3f ms p95=%.3f ms%n",
+                descricao, mediana, latencias[(int) (medicoes * 0.95)] / 1_000_000.0);
+        return mediana;
+    }
+}
@@ -0,0 +1,146 @@
+package com.enzo_molinaro.biblioteca.benchmark;
+
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mede a vazão de INSERT de empréstimos via JPA com e sem lote JDBC. Com IDs por sequence
+ * (allocationSize = 50) o Hibernate agrupa os INSERTs; com IDENTITY cada linha seria uma ida ao banco.
+ * Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class EmprestimoInsercaoBenchmarkTest {
+
+    private static final int TOTAL = 100_000;
+    private static final int TAMANHO_TRANSACAO = 1_000;
+    private static final int TAMANHO_LOTE = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private Long livroId;
+    private Long usuarioId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate.executeWithoutResult(status -> {
+            Livro livro = Livro.builder()
+                    .isbn("9780000000001")
+                    .titulo("Livro")
+                    .autor("Autor")
+                    .quantidadeTotal(10)
+                    .quantidadeDisponivel(10)
+                    .valorMultaDiaria(new BigDecimal("1.00"))
+                    .build();
+            Usuario usuario = Usuario.builder()
+                    .nome("Usuário")
+                    .email("usuario@biblioteca.com")
+                    .cpf("00000000001")
+                    .tipo(TipoUsuario.ESTUDANTE)
+                    .build();
+            entityManager.persist(livro);
+            entityManager.persist(usuario);
+            livroId = livro.getId();
+            usuarioId = usuario.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM emprestimos");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM usuarios");
+        // Excluídos por SQL direto: o Hibernate não sabe que os livros e usuários do cache saíram
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("INSERT de 100 mil empréstimos em lotes JDBC usa uma fração das instruções")
+    void insercaoEmLote() {
+        // Aquecimento do caminho de persistência
+        inserir(TAMANHO_TRANSACAO * 5, TAMANHO_LOTE);
+        inserir(TAMANHO_TRANSACAO * 5, 1);
+
+        long semLote = inserir(TOTAL, 1);
+        long instrucoesSemLote = statistics.getPrepareStatementCount();
+
+        long comLote = inserir(TOTAL, TAMANHO_LOTE);
+        long instrucoesComLote = statistics.getPrepareStatementCount();
+
+        System.out.printf("sem lote: %,d linhas em %.0f ms (%,.0f linhas/s, %,d instruções)%n",
+                TOTAL, semLote / 1_000_000.0, TOTAL / (semLote / 1_000_000_000.0), instrucoesSemLote);
+        System.out.printf("lote=%d: %,d linhas em %.0f ms (%,.0f linhas/s, %,d instruções)%n",
+                TAMANHO_LOTE, TOTAL, comLote / 1_000_000.0, TOTAL / (comLote / 1_000_000_000.0), instrucoesComLote);
+
+        assertEquals(TOTAL, statistics.getEntityInsertCount());
+        // Um INSERT preparado por lote mais uma chamada à sequence a cada 50 IDs
+        assertTrue(instrucoesComLote <= 2L * TOTAL / TAMANHO_LOTE + TOTAL / TAMANHO_TRANSACAO,
+                "INSERTs não foram agrupados: " + instrucoesComLote + " instruções");
+        assertTrue(instrucoesSemLote >= TOTAL);
+    }
+
+    private long inserir(int quantidade, int tamanhoLote) {
+        LocalDate hoje = LocalDate.now();
+        statistics.clear();
+
+        long inicio = System.nanoTime();
+        for (int inicioTransacao = 0; inicioTransacao < quantidade; inicioTransacao += TAMANHO_TRANSACAO) {
+            int fim = Math.min(inicioTransacao + TAMANHO_TRANSACAO, quantidade);
+            int de = inicioTransacao;
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoLote);
+                Livro livro = entityManager.getReference(Livro.class, livroId);
+                Usuario usuario = entityManager.getReference(Usuario.class, usuarioId);
+                for (int i = de; i < fim; i++) {
+                    entityManager.persist(Emprestimo.builder()
+                            .livro(livro)
+                            .usuario(usuario)
+                            .dataEmprestimo(hoje.minusDays(30))
+                            .dataPrevistaDevolucao(hoje.minusDays(i % 40))
+                            .dataDevolucao(hoje.minusDays(1))
+                            .status(StatusEmprestimo.DEVOLVIDO)
+                            .build());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,142 @@
+package com.enzo_molinaro.biblioteca.benchmark;
+
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.service.CursorPaginacao;
+import com.enzo_molinaro.biblioteca.service.EmprestimoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara a latência da primeira e da 10.000ª página do histórico de um usuário com paginação
+ * por OFFSET ({@code Page}, com contagem) e por cursor. Executar com {@code mvn test -Pbenchmark}.
+ * <p>
+ * O H2 reaproveita o resultado de uma consulta repetida sem alterações na tabela, o que
+ * esconderia o custo do OFFSET; por isso o benchmark usa um banco próprio sem essa otimização.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:paginacao;MODE=MySQL;DATABASE_TO_LOWER=TRUE;" +
+        "DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE")
+@ActiveProfiles("test")
+class PaginacaoBenchmarkTest {
+
+    private static final int TAMANHO_PAGINA = 20;
+    private static final int PAGINA_PROFUNDA = 10_000;
+    private static final int TOTAL_EMPRESTIMOS = TAMANHO_PAGINA * PAGINA_PROFUNDA + 20;
+    private static final int AQUECIMENTO = 10;
+    private static final int MEDICOES = 30;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO livros (id, isbn, titulo, autor, quantidade_total, quantidade_disponivel, ativo) " +
+                "VALUES (1, '9780000000001', 'Livro', 'Autor', 10, 10, TRUE)");
+        jdbcTemplate.update("INSERT INTO usuarios (id, nome, email, cpf, tipo, ativo, limite_emprestimos) " +
+                "VALUES (1, 'Usuário', 'usuario@biblioteca.com', '00000000001', 'ESTUDANTE', TRUE, 3)");
+
+        LocalDate hoje = LocalDate.now();
+        List<Object[]> linhas = new ArrayList<>(10_000);
+        for (int i = 0; i < TOTAL_EMPRESTIMOS; i++) {
+            // Cerca de 55 empréstimos por dia: a ordenação depende do desempate por ID
+            LocalDate data = hoje.minusDays(i % 3_650);
+            linhas.add(new Object[]{(long) i + 1, 1L, 1L, Date.valueOf(data), Date.valueOf(data.plusDays(14)),
+                    Date.valueOf(data.plusDays(7)), "DEVOLVIDO"});
+            if (linhas.size() == 10_000 || i == TOTAL_EMPRESTIMOS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO emprestimos (id, livro_id, usuario_id, data_emprestimo, " +
+                        "data_prevista_devolucao, data_devolucao, status) VALUES (?, ?, ?, ?, ?, ?, ?)", linhas);
+                linhas.clear();
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM emprestimos");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM usuarios");
+        // Excluídos por SQL direto: o Hibernate não sabe que os livros e usuários do cache saíram
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("Paginação por cursor mantém a latência da página 10.000 próxima à da primeira")
+    void cursorNaoDegradaEmPaginasProfundas() {
+        // Último item da página 9.999: é o que o cliente teria recebido como cursor
+        Map<String, Object> anterior = jdbcTemplate.queryForMap("SELECT id, data_emprestimo FROM emprestimos " +
+                        "WHERE usuario_id = 1 ORDER BY data_emprestimo DESC, id DESC LIMIT 1 OFFSET ?",
+                TAMANHO_PAGINA * (PAGINA_PROFUNDA - 1) - 1);
+        String cursorProfundo = CursorPaginacao.codificar(((Date) anterior.get("DATA_EMPRESTIMO")).toLocalDate(),
+                ((Number) anterior.get("ID")).longValue());
+
+        PageRequest primeiraPagina = PageRequest.of(0, TAMANHO_PAGINA);
+        PageRequest paginaProfunda = PageRequest.of(PAGINA_PROFUNDA - 1, TAMANHO_PAGINA);
+
+        double offsetPrimeira = medir("offset  página 1", () -> emprestimoService.listarPorUsuario(1L, primeiraPagina));
+        double offsetProfunda = medir("offset  página " + PAGINA_PROFUNDA,
+                () -> emprestimoService.listarPorUsuario(1L, paginaProfunda));
+        double cursorPrimeira = medir("cursor  página 1", () -> emprestimoService.listar(null, 1L, null, TAMANHO_PAGINA));
+        double cursorProfunda = medir("cursor  página " + PAGINA_PROFUNDA,
+                () -> emprestimoService.listar(null, 1L, cursorProfundo, TAMANHO_PAGINA));
+
+        // As duas estratégias devem devolver a mesma página
+        Page<EmprestimoResponseDTO> porOffset = emprestimoService.listarPorUsuario(1L, paginaProfunda);
+        PaginaCursorDTO<EmprestimoResponseDTO> porCursor = emprestimoService.listar(null, 1L, cursorProfundo, TAMANHO_PAGINA);
+        assertEquals(porOffset.getContent().stream().map(EmprestimoResponseDTO::getId).toList(),
+                porCursor.getConteudo().stream().map(EmprestimoResponseDTO::getId).toList());
+        assertTrue(porCursor.isTemProxima());
+
+        System.out.printf("emprestimos=%,d página %,d / página 1: offset %.1fx, cursor %.1fx%n",
+                TOTAL_EMPRESTIMOS, PAGINA_PROFUNDA, offsetProfunda / offsetPrimeira, cursorProfunda / cursorPrimeira);
+        assertTrue(cursorProfunda < offsetProfunda,
+                "Página profunda por cursor não foi mais rápida que por OFFSET");
+        assertTrue(cursorProfunda < cursorPrimeira * 3,
+                "Latência da paginação por cursor cresceu com a profundidade da página");
+    }
+
+    private double medir(String descricao, Supplier<?> consulta) {
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            consulta.get();
+        }
+
+        long[] latencias = new long[MEDICOES];
+        for (int i = 0; i < MEDICOES; i++) {
+            long inicio = System.nanoTime();
+            consulta.get();
+            latencias[i] = System.nanoTime() - inicio;
+        }
+
+        Arrays.sort(latencias);
+        double mediana = latencias[MEDICOES / 2] / 1_000_000.0;
+        System.out.printf("%s: mediana=%.3f ms p95=%.3f ms%n",
+                descricao, mediana, latencias[(int) (MEDICOES * 0.95)] / 1_000_000.0);
+        return mediana;
+    }
+}
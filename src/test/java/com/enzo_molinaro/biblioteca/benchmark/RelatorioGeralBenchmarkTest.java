@@ -0,0 +1,137 @@
+package com.enzo_molinaro.biblioteca.benchmark;
+
+import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.service.EstatisticasService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mede latência e alocação da consulta agregada do relatório geral
+ * ({@link EstatisticasService#reconciliar()}) à medida que a tabela de empréstimos cresce. Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class RelatorioGeralBenchmarkTest {
+
+    private static final int[] TAMANHOS = {1_000, 10_000, 100_000};
+    private static final int AQUECIMENTO = 20;
+    private static final int MEDICOES = 50;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        jdbcTemplate.update("INSERT INTO livros (id, isbn, titulo, autor, quantidade_total, quantidade_disponivel, ativo) " +
+                "VALUES (1, '9780000000001', 'Livro', 'Autor', 10, 10, TRUE)");
+        jdbcTemplate.update("INSERT INTO usuarios (id, nome, email, cpf, tipo, ativo, limite_emprestimos) " +
+                "VALUES (1, 'Usuário', 'usuario@biblioteca.com', '00000000001', 'ESTUDANTE', TRUE, 3)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM emprestimos");
+        jdbcTemplate.update("DELETE FROM livros");
+        jdbcTemplate.update("DELETE FROM usuarios");
+        // Excluídos por SQL direto: o Hibernate não sabe que os livros e usuários do cache saíram
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("Relatório geral mantém latência e memória estáveis com o crescimento da tabela")
+    void relatorioGeralEstavelComCrescimentoDaTabela() {
+        Long livroId = jdbcTemplate.queryForObject("SELECT id FROM livros", Long.class);
+        Long usuarioId = jdbcTemplate.queryForObject("SELECT id FROM usuarios", Long.class);
+
+        int inseridos = 0;
+        long[] alocacaoPorTamanho = new long[TAMANHOS.length];
+
+        for (int t = 0; t < TAMANHOS.length; t++) {
+            inserirEmprestimos(livroId, usuarioId, inseridos, TAMANHOS[t]);
+            inseridos = TAMANHOS[t];
+
+            for (int i = 0; i < AQUECIMENTO; i++) {
+                estatisticasService.reconciliar();
+            }
+
+            statistics.clear();
+            long[] latencias = new long[MEDICOES];
+            long alocadoAntes = bytesAlocados();
+            RelatorioDTO relatorio = null;
+            for (int i = 0; i < MEDICOES; i++) {
+                long inicio = System.nanoTime();
+                relatorio = estatisticasService.reconciliar();
+                latencias[i] = System.nanoTime() - inicio;
+            }
+            alocacaoPorTamanho[t] = (bytesAlocados() - alocadoAntes) / MEDICOES;
+
+            Arrays.sort(latencias);
+            System.out.printf("emprestimos=%,d mediana=%.3f ms p95=%.3f ms alocado/chamada=%,d bytes%n",
+                    TAMANHOS[t],
+                    latencias[MEDICOES / 2] / 1_000_000.0,
+                    latencias[(int) (MEDICOES * 0.95)] / 1_000_000.0,
+                    alocacaoPorTamanho[t]);
+
+            assertEquals(TAMANHOS[t], relatorio.getTotalEmprestimos());
+            assertEquals(MEDICOES, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+        }
+
+        // A alocação por chamada não deve crescer com o volume de dados
+        assertTrue(alocacaoPorTamanho[TAMANHOS.length - 1] < alocacaoPorTamanho[0] * 2,
+                "Alocação por chamada cresceu com o tamanho da tabela");
+    }
+
+    private void inserirEmprestimos(Long livroId, Long usuarioId, int de, int ate) {
+        LocalDate hoje = LocalDate.now();
+        List<Object[]> linhas = new ArrayList<>(ate - de);
+        for (int i = de; i < ate; i++) {
+            boolean aberto = i % 10 == 0;
+            linhas.add(new Object[]{
+                    (long) i + 1,
+                    livroId,
+                    usuarioId,
+                    Date.valueOf(hoje.minusDays(30)),
+                    Date.valueOf(hoje.minusDays(i % 40)),
+                    aberto ? null : Date.valueOf(hoje.minusDays(1)),
+                    aberto ? "ATIVO" : "DEVOLVIDO"
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO emprestimos (id, livro_id, usuario_id, data_emprestimo, " +
+                "data_prevista_devolucao, data_devolucao, status) VALUES (?, ?, ?, ?, ?, ?, ?)", linhas);
+    }
+
+    private static long bytesAlocados() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
+    }
+}
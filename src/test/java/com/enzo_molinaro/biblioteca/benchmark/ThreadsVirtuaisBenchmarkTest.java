@@ -0,0 +1,191 @@
+package com.enzo_molinaro.biblioteca.benchmark;
+
+import com.enzo_molinaro.biblioteca.BibliotecaApiApplication;
+import com.enzo_molinaro.biblioteca.support.LatenciaSimulada;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de carga comparando o Tomcat com threads de plataforma (limitadas a
+ * {@value #THREADS_TOMCAT}) e com threads virtuais mais o limitador de acesso ao banco. Metade das
+ * requisições lista empréstimos (três consultas com {@value #LATENCIA_BANCO_MS} ms de latência
+ * simulada cada, disputando o pool do Hikari) e metade lê o relatório geral da memória. Com threads
+ * de plataforma, as requisições presas esperando conexão ocupam as threads do Tomcat e atrasam
+ * também as que não usam o banco.
+ * <p>
+ * Executar com {@code mvn test -Pbenchmark}; o modo virtual só roda em Java 21
+ * ({@code mvn test -Pbenchmark,java21}).
+ */
+@Tag("benchmark")
+class ThreadsVirtuaisBenchmarkTest {
+
+    private static final int THREADS_TOMCAT = 50;
+    private static final long LATENCIA_BANCO_MS = 5;
+    private static final int CLIENTES = 200;
+    private static final int REQUISICOES_POR_CLIENTE = 20;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    void tearDown() {
+        LatenciaSimulada.definir(0);
+    }
+
+    @Test
+    @DisplayName("Compara vazão e p99 entre threads de plataforma e threads virtuais")
+    void deveCompararThreadsDePlataformaEVirtuais() throws Exception {
+        Resultado plataforma = executar(false);
+        plataforma.imprimir("plataforma");
+        assertEquals(0, plataforma.falhas);
+
+        if (Runtime.version().feature() < 21) {
+            System.out.println("virtual: requer Java 21 (mvn test -Pbenchmark,java21)");
+            return;
+        }
+
+        Resultado virtual = executar(true);
+        virtual.imprimir("virtual");
+        // Recusas do limitador (503) são aceitáveis; erros não
+        assertEquals(0, virtual.falhas);
+        System.out.printf("virtual/plataforma: vazão %.2fx, p99 memória %.2fx, p99 banco %.2fx%n",
+                virtual.vazao / plataforma.vazao,
+                virtual.p99Memoria / plataforma.p99Memoria,
+                virtual.p99Banco / plataforma.p99Banco);
+    }
+
+    private Resultado executar(boolean virtual) throws Exception {
+        String modo = virtual ? "virtual" : "plataforma";
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BibliotecaApiApplication.class)
+                .properties(
+                        "spring.profiles.active=test",
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + THREADS_TOMCAT,
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "biblioteca.banco.limitador.habilitado=" + virtual,
+                        // Banco próprio por modo: não se mistura com os contextos dos outros testes
+                        "spring.datasource.url=jdbc:h2:mem:carga-" + modo + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" + LatenciaSimulada.class.getName(),
+                        "logging.level.root=WARN")
+                .run()) {
+
+            Long usuarioId = popular(contexto.getBean(JdbcTemplate.class));
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+            URI banco = URI.create(base + "/api/emprestimos/usuario/" + usuarioId);
+            URI memoria = URI.create(base + "/api/relatorios/geral");
+
+            // Aquecimento sem latência
+            for (int i = 0; i < 200; i++) {
+                enviar(i % 2 == 0 ? banco : memoria);
+            }
+
+            LatenciaSimulada.definir(LATENCIA_BANCO_MS);
+            try {
+                return medir(banco, memoria);
+            } finally {
+                LatenciaSimulada.definir(0);
+            }
+        }
+    }
+
+    private Resultado medir(URI banco, URI memoria) throws Exception {
+        int total = CLIENTES * REQUISICOES_POR_CLIENTE;
+        long[] latenciasBanco = new long[total / 2];
+        long[] latenciasMemoria = new long[total / 2];
+        AtomicInteger posicaoBanco = new AtomicInteger();
+        AtomicInteger posicaoMemoria = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> execucoes = new ArrayList<>();
+        for (int c = 0; c < CLIENTES; c++) {
+            execucoes.add(clientes.submit(() -> {
+                largada.await();
+                for (int i = 0; i < REQUISICOES_POR_CLIENTE; i++) {
+                    boolean usaBanco = i % 2 == 0;
+                    long inicio = System.nanoTime();
+                    int status = enviar(usaBanco ? banco : memoria);
+                    long latencia = System.nanoTime() - inicio;
+
+                    if (status == 503) recusadas.incrementAndGet();
+                    else if (status != 200) falhas.incrementAndGet();
+
+                    if (usaBanco) latenciasBanco[posicaoBanco.getAndIncrement()] = latencia;
+                    else latenciasMemoria[posicaoMemoria.getAndIncrement()] = latencia;
+                }
+                return null;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        try {
+            for (Future<?> execucao : execucoes) {
+                execucao.get();
+            }
+        } finally {
+            clientes.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        return new Resultado(total / segundos, p99(latenciasBanco), p99(latenciasMemoria),
+                recusadas.get(), falhas.get());
+    }
+
+    private int enviar(URI uri) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+
+    private static Long popular(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO livros (id, isbn, titulo, autor, quantidade_total, quantidade_disponivel, ativo) " +
+                "VALUES (1, '9780000000001', 'Livro', 'Autor', 10, 10, TRUE)");
+        jdbcTemplate.update("INSERT INTO usuarios (id, nome, email, cpf, tipo, ativo, limite_emprestimos) " +
+                "VALUES (1, 'Usuário', 'usuario@biblioteca.com', '00000000001', 'ESTUDANTE', TRUE, 3)");
+        LocalDate hoje = LocalDate.now();
+        List<Object[]> linhas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            linhas.add(new Object[]{(long) i + 1, Date.valueOf(hoje.minusDays(30 - i)), Date.valueOf(hoje.minusDays(16 - i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO emprestimos (id, livro_id, usuario_id, data_emprestimo, " +
+                "data_prevista_devolucao, data_devolucao, status) VALUES (?, 1, 1, ?, ?, NULL, 'ATIVO')", linhas);
+        return 1L;
+    }
+
+    private static double p99(long[] latencias) {
+        long[] ordenadas = latencias.clone();
+        Arrays.sort(ordenadas);
+        return ordenadas[(int) (ordenadas.length * 0.99)] / 1_000_000.0;
+    }
+
+    private record Resultado(double vazao, double p99Banco, double p99Memoria, int recusadas, int falhas) {
+
+        void imprimir(String modo) {
+            System.out.printf("%s: %.0f req/s, p99 banco=%.1f ms, p99 memória=%.1f ms, recusadas=%d, falhas=%d%n",
+                    modo, vazao, p99Banco, p99Memoria, recusadas, falhas);
+        }
+    }
+}
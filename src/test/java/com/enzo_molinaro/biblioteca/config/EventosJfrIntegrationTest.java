@@ -0,0 +1,153 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.jfr.ListagemJfr;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.service.EmprestimoService;
+import com.enzo_molinaro.biblioteca.service.LivroService;
+import com.enzo_molinaro.biblioteca.service.RelatorioService;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Grava com o perfil {@code jfr/biblioteca.jfc} distribuído com a aplicação e lê os eventos de volta.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EventosJfrIntegrationTest {
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @TempDir
+    Path diretorio;
+
+    private Livro livro;
+    private Usuario professor;
+
+    @BeforeEach
+    void setUp() {
+        livro = livroRepository.save(Livro.builder()
+                .isbn("9788535902778")
+                .titulo("Dom Casmurro")
+                .autor("Machado de Assis")
+                .quantidadeTotal(2)
+                .quantidadeDisponivel(2)
+                .valorMultaDiaria(new BigDecimal("1.50"))
+                .build());
+        professor = usuarioRepository.save(Usuario.builder()
+                .nome("Maria Silva")
+                .email("maria@biblioteca.com")
+                .cpf("12345678901")
+                .tipo(TipoUsuario.PROFESSOR)
+                .build());
+        // O ranking deve ser gerado, e não lido do cache de outro teste
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Deve registrar empréstimos, relatórios e listagens com resultado, tipo de usuário e custo no banco")
+    void deveRegistrarEventosDeNegocio() throws Exception {
+        // Arrange
+        Path perfil = Path.of(getClass().getResource("/jfr/biblioteca.jfc").toURI());
+        Path arquivo = diretorio.resolve("biblioteca.jfr");
+        EmprestimoResponseDTO emprestimo;
+
+        // Act
+        try (Recording gravacao = new Recording(Configuration.create(perfil))) {
+            // O limiar do perfil descartaria uma listagem tão pequena
+            gravacao.enable(ListagemJfr.class).withThreshold(Duration.ZERO);
+            gravacao.start();
+
+            emprestimo = emprestimoService.criar(EmprestimoRequestDTO.builder()
+                    .livroId(livro.getId())
+                    .usuarioId(professor.getId())
+                    .build());
+            assertThrows(BusinessException.class, () -> emprestimoService.renovar(emprestimo.getId(), 0));
+            relatorioService.relatorioLivrosMaisEmprestados(5);
+            livroService.listarTodos(PageRequest.of(0, 10));
+
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(arquivo);
+
+        // Assert
+        RecordedEvent criado = evento(eventos, "biblioteca.Emprestimo", "operacao", "criar");
+        assertEquals("sucesso", criado.getString("resultado"));
+        assertEquals("PROFESSOR", criado.getString("tipoUsuario"));
+        assertEquals(emprestimo.getId(), criado.getLong("emprestimoId"));
+        assertTrue(criado.getInt("consultasSql") > 0);
+
+        RecordedEvent renovacao = evento(eventos, "biblioteca.Emprestimo", "operacao", "renovar");
+        assertEquals("rejeitado", renovacao.getString("resultado"));
+        assertEquals("Número de dias para renovação deve ser entre N e N", renovacao.getString("motivo"));
+
+        RecordedEvent relatorio = evento(eventos, "biblioteca.Relatorio", "relatorio", "relatorioLivrosMaisEmprestados");
+        assertEquals("[5]", relatorio.getString("parametros"));
+        assertEquals(1, relatorio.getInt("itens"));
+
+        RecordedEvent listagem = evento(eventos, "biblioteca.Listagem", "operacao", "listarTodos");
+        assertEquals("LivroService", listagem.getString("servico"));
+        assertEquals(1, listagem.getInt("itens"));
+    }
+
+    private RecordedEvent evento(List<RecordedEvent> eventos, String tipo, String campo, String valor) {
+        return eventos.stream()
+                .filter(evento -> evento.getEventType().getName().equals(tipo))
+                .filter(evento -> valor.equals(evento.getString(campo)))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Evento " + tipo + " com " + campo + " = " + valor + " não gravado"));
+    }
+}
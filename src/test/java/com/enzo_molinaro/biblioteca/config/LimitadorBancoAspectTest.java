@@ -0,0 +1,102 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import com.enzo_molinaro.biblioteca.exception.ServicoSobrecarregadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LimitadorBancoAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint transacao;
+
+    @Mock
+    private ProceedingJoinPoint transacaoAninhada;
+
+    @Test
+    @DisplayName("Deve recusar com serviço sobrecarregado quando todas as permissões estão em uso")
+    void deveRecusarQuandoSemPermissoes() throws Throwable {
+        // Arrange
+        LimitadorBancoAspect limitador = new LimitadorBancoAspect(1, 0, 50, new SimpleMeterRegistry());
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(transacao.proceed()).thenAnswer(invocacao -> liberar.await(5, TimeUnit.SECONDS));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> emAndamento = executor.submit(() -> {
+                try {
+                    return limitador.limitar(transacao);
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            while (limitador.permissoesDisponiveis() > 0) {
+                Thread.onSpinWait();
+            }
+
+            // Act & Assert
+            assertThrows(ServicoSobrecarregadoException.class, () -> limitador.limitar(transacaoAninhada));
+            verify(transacaoAninhada, never()).proceed();
+
+            liberar.countDown();
+            emAndamento.get(5, TimeUnit.SECONDS);
+            assertEquals(1, limitador.permissoesDisponiveis());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar a permissão em chamadas aninhadas na mesma thread")
+    void deveReaproveitarPermissaoEmChamadasAninhadas() throws Throwable {
+        // Arrange
+        LimitadorBancoAspect limitador = new LimitadorBancoAspect(1, 0, 50, new SimpleMeterRegistry());
+        when(transacaoAninhada.proceed()).thenReturn("interna");
+        when(transacao.proceed()).thenAnswer(invocacao -> limitador.limitar(transacaoAninhada));
+
+        // Act
+        Object resultado = limitador.limitar(transacao);
+
+        // Assert
+        assertEquals("interna", resultado);
+        assertEquals(1, limitador.permissoesDisponiveis());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a permissão quando a transação falha")
+    void deveDevolverPermissaoNaFalha() throws Throwable {
+        // Arrange
+        LimitadorBancoAspect limitador = new LimitadorBancoAspect(2, 0, 50, new SimpleMeterRegistry());
+        when(transacao.proceed()).thenThrow(new IllegalStateException("falha"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> limitador.limitar(transacao));
+        assertEquals(2, limitador.permissoesDisponiveis());
+    }
+
+    @Test
+    @DisplayName("Deve reservar conexões do pool às tarefas de segundo plano")
+    void deveReservarConexoesDoPool() {
+        // Act
+        LimitadorBancoAspect limitador = new LimitadorBancoAspect(10, 4, 50, new SimpleMeterRegistry());
+        LimitadorBancoAspect semFolga = new LimitadorBancoAspect(2, 4, 50, new SimpleMeterRegistry());
+
+        // Assert
+        assertEquals(6, limitador.permissoesDisponiveis());
+        assertEquals(1, semFolga.permissoesDisponiveis());
+    }
+}
@@ -0,0 +1,113 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.exception.ResourceNotFoundException;
+import com.enzo_molinaro.biblioteca.service.EmprestimoService;
+import com.enzo_molinaro.biblioteca.service.RelatorioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Com {@code @AutoConfigureObservability}, para que o registro do Prometheus seja o de produção.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricasServicosIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Test
+    @DisplayName("Deve contar a renovação recusada com o motivo da regra de negócio")
+    void deveRegistrarRecusaComMotivo() {
+        // Arrange
+        String motivo = "Número de dias para renovação deve ser entre N e N";
+        long antes = contagem(MetricasServicosAspect.EMPRESTIMOS, "operacao", "renovar", "rejeitado", motivo);
+
+        // Act
+        assertThrows(BusinessException.class, () -> emprestimoService.renovar(1L, 0));
+
+        // Assert
+        assertEquals(antes + 1, contagem(MetricasServicosAspect.EMPRESTIMOS, "operacao", "renovar", "rejeitado", motivo));
+    }
+
+    @Test
+    @DisplayName("Deve distinguir empréstimo de livro inexistente das recusas por regra de negócio")
+    void deveRegistrarNaoEncontrado() {
+        // Arrange
+        long antes = contagem(MetricasServicosAspect.EMPRESTIMOS, "operacao", "criar", "nao_encontrado", "nenhum");
+
+        // Act
+        assertThrows(ResourceNotFoundException.class, () -> emprestimoService.criar(EmprestimoRequestDTO.builder()
+                .livroId(Long.MAX_VALUE)
+                .usuarioId(Long.MAX_VALUE)
+                .build()));
+
+        // Assert
+        assertEquals(antes + 1, contagem(MetricasServicosAspect.EMPRESTIMOS, "operacao", "criar", "nao_encontrado", "nenhum"));
+    }
+
+    @Test
+    @DisplayName("Deve expor os relatórios, o pool de conexões e o Hibernate no endpoint do Prometheus")
+    void deveExporMetricasNoPrometheus() throws Exception {
+        // Arrange
+        relatorioService.relatorioLivrosPorCategoria();
+
+        // Act
+        String metricas = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertTrue(metricas.contains("biblioteca_relatorios_seconds_bucket{"));
+        assertTrue(metricas.contains("relatorio=\"relatorioLivrosPorCategoria\""));
+        assertTrue(metricas.contains("quantile=\"0.95\""));
+        assertTrue(metricas.contains("hikaricp_connections_active{"));
+        assertTrue(metricas.contains("hikaricp_connections_acquire_seconds"));
+        assertTrue(metricas.contains("hibernate_statements_total{"));
+    }
+
+    @Test
+    @DisplayName("Deve normalizar a mensagem da recusa para manter poucas séries por motivo")
+    void deveNormalizarMotivo() {
+        // Act & Assert
+        assertEquals("Limite deve ser entre N e N", MetricasServicosAspect.motivo("Limite deve ser entre 1 e 50"));
+        assertEquals("Já existe um usuário cadastrado com o email",
+                MetricasServicosAspect.motivo("Já existe um usuário cadastrado com o email: maria@biblioteca.com"));
+        assertEquals("Este empréstimo já foi devolvido", MetricasServicosAspect.motivo("Este empréstimo já foi devolvido."));
+        assertEquals("desconhecido", MetricasServicosAspect.motivo(null));
+    }
+
+    private long contagem(String nome, String tagOperacao, String operacao, String resultado, String motivo) {
+        Timer timer = meterRegistry.find(nome)
+                .tag(tagOperacao, operacao)
+                .tag("resultado", resultado)
+                .tag("motivo", motivo)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
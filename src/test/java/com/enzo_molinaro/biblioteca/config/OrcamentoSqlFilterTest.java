@@ -0,0 +1,80 @@
+package com.enzo_molinaro.biblioteca.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+class OrcamentoSqlFilterTest {
+
+    private final MonitorSql monitor = new MonitorSql();
+
+    @Test
+    @DisplayName("Deve avisar do estouro do orçamento com a instrução repetida por linha")
+    void deveAvisarNMaisUm(CapturedOutput saida) throws Exception {
+        // Arrange
+        OrcamentoSqlFilter filtro = new OrcamentoSqlFilter(3, true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/relatorios/livros-mais-emprestados");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filtro.doFilter(request, response, (req, res) -> {
+            monitor.inspect("select e.livro_id, count(*) from emprestimos e group by e.livro_id");
+            for (int id = 1; id <= 4; id++) {
+                monitor.inspect("select l.id, l.titulo\nfrom livros l\nwhere l.id=?");
+            }
+            res.getWriter().write("[]");
+        });
+
+        // Assert
+        assertEquals("5", response.getHeader(OrcamentoSqlFilter.CABECALHO_CONSULTAS));
+        assertNotNull(response.getHeader(OrcamentoSqlFilter.CABECALHO_TEMPO));
+        // Só trechos ASCII: a codificação do console varia entre ambientes
+        assertTrue(saida.getOut().contains("GET /api/relatorios/livros-mais-emprestados excedeu o or"));
+        assertTrue(saida.getOut().contains("SQL: 5 em "));
+        assertTrue(saida.getOut().contains("Mais repetida (4x): select l.id, l.titulo from livros l where l.id=?"));
+    }
+
+    @Test
+    @DisplayName("Deve ficar em silêncio dentro do orçamento e sem cabeçalhos quando desligados")
+    void deveRespeitarOrcamento(CapturedOutput saida) throws Exception {
+        // Arrange
+        OrcamentoSqlFilter filtro = new OrcamentoSqlFilter(3, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filtro.doFilter(new MockHttpServletRequest("GET", "/api/livros"), response,
+                (req, res) -> monitor.inspect("select l.id from livros l where l.id in (?, ?, ?)"));
+
+        // Assert
+        assertNull(response.getHeader(OrcamentoSqlFilter.CABECALHO_CONSULTAS));
+        assertFalse(saida.getOut().contains("excedeu o or"));
+    }
+
+    @Test
+    @DisplayName("Deve contar a instrução em todos os escopos abertos e agrupar listas IN de tamanhos diferentes")
+    void deveAninharEscopos() {
+        // Arrange
+        MonitorSql.Consumo teste = MonitorSql.iniciar();
+        MonitorSql.Consumo requisicao = MonitorSql.iniciar();
+
+        // Act
+        monitor.inspect("select l.id from livros l where l.id in (?, ?)");
+        requisicao.encerrar();
+        monitor.inspect("select l.id from livros l where l.id in (?,?,?)");
+        teste.encerrar();
+        monitor.inspect("select 1");
+
+        // Assert
+        assertEquals(1, requisicao.consultas());
+        assertEquals(2, teste.consultas());
+        assertEquals("select l.id from livros l where l.id in (?, ...)", teste.maisRepetida().orElseThrow().getKey());
+        assertEquals(2, teste.maisRepetida().orElseThrow().getValue());
+    }
+}
@@ -0,0 +1,138 @@
+package com.enzo_molinaro.biblioteca.controller;
+
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.config.OrcamentoSqlFilter;
+import com.enzo_molinaro.biblioteca.support.MaxQueries;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Garante que as listagens de empréstimos não disparam consultas extras por linha (N+1).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class EmprestimoControllerConsultasTest {
+
+    private static final int TOTAL_EMPRESTIMOS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long usuarioId;
+
+    @BeforeEach
+    void setUp() {
+        List<Livro> livros = new ArrayList<>();
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < TOTAL_EMPRESTIMOS; i++) {
+            livros.add(livroRepository.save(Livro.builder()
+                    .isbn(String.format("978%010d", i))
+                    .titulo("Livro " + i)
+                    .autor("Autor " + i)
+                    .quantidadeTotal(2)
+                    .quantidadeDisponivel(1)
+                    .valorMultaDiaria(new BigDecimal("1.00"))
+                    .build()));
+            usuarios.add(usuarioRepository.save(Usuario.builder()
+                    .nome("Usuário " + i)
+                    .email("usuario" + i + "@biblioteca.com")
+                    .cpf(String.format("%011d", i))
+                    .tipo(TipoUsuario.PROFESSOR)
+                    .limiteEmprestimos(5)
+                    .build()));
+        }
+        for (int i = 0; i < TOTAL_EMPRESTIMOS; i++) {
+            emprestimoRepository.save(Emprestimo.builder()
+                    .livro(livros.get(i))
+                    .usuario(usuarios.get(i % 3))
+                    .dataEmprestimo(LocalDate.now().minusDays(30))
+                    .dataPrevistaDevolucao(LocalDate.now().minusDays(i % 2 == 0 ? 5 : -5))
+                    .status(StatusEmprestimo.ATIVO)
+                    .build());
+        }
+        usuarioId = usuarios.get(0).getId();
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @MaxQueries(2)
+    @DisplayName("Listagem geral usa uma consulta de dados e uma de contagem")
+    void listagemGeralSemNMaisUm() throws Exception {
+        mockMvc.perform(get("/api/emprestimos").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(20))
+                .andExpect(jsonPath("$.content[0].livroTitulo").exists())
+                .andExpect(jsonPath("$.content[0].usuarioEmail").exists())
+                .andExpect(header().string(OrcamentoSqlFilter.CABECALHO_CONSULTAS, "2"))
+                .andExpect(header().exists(OrcamentoSqlFilter.CABECALHO_TEMPO));
+    }
+
+    @Test
+    @MaxQueries(2)
+    @DisplayName("Listagem por status usa uma consulta de dados e uma de contagem")
+    void listagemPorStatusSemNMaisUm() throws Exception {
+        mockMvc.perform(get("/api/emprestimos/status/ATIVO").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(20));
+    }
+
+    // Existência do usuário + dados + contagem
+    @Test
+    @MaxQueries(3)
+    @DisplayName("Listagem por usuário não carrega livro e usuário linha a linha")
+    void listagemPorUsuarioSemNMaisUm() throws Exception {
+        mockMvc.perform(get("/api/emprestimos/usuario/{id}", usuarioId).param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(TOTAL_EMPRESTIMOS / 3));
+    }
+
+    @Test
+    @MaxQueries(1)
+    @DisplayName("Listagem de atrasados resolve livro e usuário no mesmo SELECT")
+    void listagemDeAtrasadosSemNMaisUm() throws Exception {
+        mockMvc.perform(get("/api/emprestimos/atrasados"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(TOTAL_EMPRESTIMOS / 2));
+    }
+}
@@ -0,0 +1,188 @@
+package com.enzo_molinaro.biblioteca.controller;
+
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sem {@code @Transactional}: a exportação roda na thread assíncrona da resposta, em transação própria.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportacaoControllerTest {
+
+    private static final int TOTAL_EMPRESTIMOS = 3_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDate hoje = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        Livro livro = livroRepository.save(Livro.builder()
+                .isbn("9788535902778")
+                .titulo("Dom Casmurro, edição comentada")
+                .autor("Machado de Assis")
+                .quantidadeTotal(5)
+                .quantidadeDisponivel(5)
+                .valorMultaDiaria(new BigDecimal("1.00"))
+                .build());
+        livroRepository.save(Livro.builder()
+                .isbn("9788535902779")
+                .titulo("Livro desativado")
+                .autor("Autor")
+                .quantidadeTotal(1)
+                .quantidadeDisponivel(1)
+                .ativo(false)
+                .build());
+        Usuario usuario = usuarioRepository.save(Usuario.builder()
+                .nome("Maria Souza")
+                .email("maria@biblioteca.com")
+                .cpf("12345678901")
+                .tipo(TipoUsuario.PROFESSOR)
+                .build());
+
+        List<Emprestimo> emprestimos = new ArrayList<>();
+        for (int i = 0; i < TOTAL_EMPRESTIMOS; i++) {
+            boolean devolvido = i % 3 == 0;
+            emprestimos.add(Emprestimo.builder()
+                    .livro(livro)
+                    .usuario(usuario)
+                    .dataEmprestimo(hoje.minusDays(i % 60))
+                    .dataPrevistaDevolucao(hoje.minusDays(i % 60).plusDays(14))
+                    .dataDevolucao(devolvido ? hoje : null)
+                    .status(devolvido ? StatusEmprestimo.DEVOLVIDO : StatusEmprestimo.ATIVO)
+                    .build());
+        }
+        emprestimoRepository.saveAll(emprestimos);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Deve exportar todo o histórico em CSV com uma única consulta")
+    void deveExportarEmprestimosEmCsv() throws Exception {
+        // Arrange
+        ContadorDeQueries contador = new ContadorDeQueries(entityManagerFactory);
+        contador.zerar();
+
+        // Act
+        String csv = exportar(get("/api/emprestimos/export"), "text/csv");
+
+        // Assert
+        assertEquals(1, contador.consultas());
+
+        String[] linhas = csv.split("\n");
+        assertEquals(TOTAL_EMPRESTIMOS + 1, linhas.length);
+        assertTrue(linhas[0].startsWith("id,livroId,livroTitulo,livroIsbn,usuarioId"));
+        assertTrue(linhas[1].contains(",\"Dom Casmurro, edição comentada\",9788535902778,"));
+        assertTrue(linhas[1].contains("," + hoje + ","));
+    }
+
+    @Test
+    @DisplayName("Deve exportar em NDJSON aplicando filtros de status e período")
+    void deveExportarEmprestimosFiltradosEmNdjson() throws Exception {
+        // Act
+        String ndjson = exportar(get("/api/emprestimos/export")
+                .param("formato", "NDJSON")
+                .param("status", "DEVOLVIDO")
+                .param("dataInicio", hoje.minusDays(9).toString())
+                .param("dataFim", hoje.toString()), "application/x-ndjson");
+
+        // Assert
+        // i % 3 == 0 e i % 60 < 10: i % 60 ∈ {0, 3, 6, 9}, em cada um dos 50 ciclos de 60
+        String[] linhas = ndjson.split("\n");
+        assertEquals(200, linhas.length);
+        for (String linha : linhas) {
+            JsonNode emprestimo = objectMapper.readTree(linha);
+            assertEquals("DEVOLVIDO", emprestimo.get("status").asText());
+            assertFalse(LocalDate.parse(emprestimo.get("dataEmprestimo").asText()).isBefore(hoje.minusDays(9)));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar o catálogo filtrando livros ativos")
+    void deveExportarLivros() throws Exception {
+        // Act
+        String csv = exportar(get("/api/livros/export").param("ativo", "true"), "text/csv");
+
+        // Assert
+        String[] linhas = csv.split("\n");
+        assertEquals(2, linhas.length);
+        assertTrue(linhas[1].contains("9788535902778"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar período invertido antes de iniciar a transmissão")
+    void deveRecusarPeriodoInvalido() throws Exception {
+        mockMvc.perform(get("/api/emprestimos/export")
+                        .param("dataInicio", hoje.toString())
+                        .param("dataFim", hoje.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String exportar(MockHttpServletRequestBuilder requisicao, String contentType) throws Exception {
+        MvcResult resultado = mockMvc.perform(requisicao)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(contentType));
+
+        return resultado.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
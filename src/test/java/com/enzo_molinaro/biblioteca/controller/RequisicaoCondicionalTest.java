@@ -0,0 +1,197 @@
+package com.enzo_molinaro.biblioteca.controller;
+
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.service.EmprestimoService;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Sem {@code @Transactional}: a versão dos livros avança no commit, como em produção.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequisicaoCondicionalTest {
+
+    private static final int TOTAL_LIVROS = 20;
+    private static final int CONSULTAS_REPETIDAS = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Livro> livros;
+    private Usuario leitor;
+
+    @BeforeEach
+    void setUp() {
+        livros = new ArrayList<>();
+        for (int i = 0; i < TOTAL_LIVROS; i++) {
+            livros.add(Livro.builder()
+                    .isbn(String.format("978%010d", i))
+                    .titulo("Livro " + i)
+                    .autor("Autor " + i)
+                    .quantidadeTotal(2)
+                    .quantidadeDisponivel(2)
+                    .valorMultaDiaria(new BigDecimal("1.00"))
+                    .build());
+        }
+        livros = livroRepository.saveAll(livros);
+        leitor = usuarioRepository.save(Usuario.builder()
+                .nome("Maria Silva")
+                .email("maria@biblioteca.com")
+                .cpf("12345678901")
+                .tipo(TipoUsuario.ESTUDANTE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 ao livro não modificado sem consultar o banco e 200 após um empréstimo")
+    void deveValidarLivroPelaVersao() throws Exception {
+        // Arrange
+        String url = "/api/livros/" + livros.get(0).getId();
+        MockHttpServletResponse primeira = mockMvc.perform(get(url)).andReturn().getResponse();
+        String etag = primeira.getHeader(HttpHeaders.ETAG);
+        ContadorDeQueries contador = new ContadorDeQueries(entityManagerFactory);
+
+        // Act
+        contador.zerar();
+        MockHttpServletResponse naoModificado = mockMvc.perform(get(url)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+        long consultas = contador.consultas();
+
+        MockHttpServletResponse porData = mockMvc.perform(get(url)
+                .header(HttpHeaders.IF_MODIFIED_SINCE, primeira.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andReturn().getResponse();
+
+        // Com os dois validadores a ETag decide: o empréstimo pode cair no mesmo segundo da leitura
+        emprestar(livros.get(0));
+        MockHttpServletResponse aposEmprestimo = mockMvc.perform(get(url)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .header(HttpHeaders.IF_MODIFIED_SINCE, primeira.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andReturn().getResponse();
+
+        // Assert
+        assertEquals(200, primeira.getStatus());
+        assertEquals(1, primeira.getHeaders(HttpHeaders.ETAG).size());
+        assertFalse(etag.startsWith("W/"));
+        assertNotNull(primeira.getHeader(HttpHeaders.LAST_MODIFIED));
+
+        assertEquals(304, naoModificado.getStatus());
+        assertEquals(0, naoModificado.getContentLength());
+        assertEquals(etag, naoModificado.getHeader(HttpHeaders.ETAG));
+        // Livro servido pelo cache de segundo nível
+        assertEquals(0, consultas);
+
+        assertEquals(304, porData.getStatus());
+
+        assertEquals(200, aposEmprestimo.getStatus());
+        assertNotEquals(etag, aposEmprestimo.getHeader(HttpHeaders.ETAG));
+        assertTrue(aposEmprestimo.getContentAsString().contains("\"quantidadeDisponivel\":1"));
+    }
+
+    @Test
+    @DisplayName("Deve mudar a ETag do usuário quando muda a quantidade de empréstimos ativos")
+    void deveValidarUsuarioPelosEmprestimosAtivos() throws Exception {
+        // Arrange
+        String url = "/api/usuarios/" + leitor.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        int antes = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+        emprestar(livros.get(0));
+        MockHttpServletResponse depois = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+
+        // Assert
+        assertTrue(etag.startsWith("W/"));
+        assertEquals(304, antes);
+        assertEquals(200, depois.getStatus());
+        assertTrue(depois.getContentAsString().contains("\"emprestimoAtivos\":1"));
+    }
+
+    @Test
+    @DisplayName("Deve economizar o corpo das listagens repetidas com a ETag da página")
+    void deveEconomizarBytesNasListagens() throws Exception {
+        // Arrange
+        String url = "/api/livros?size=" + TOTAL_LIVROS;
+        MockHttpServletResponse primeira = mockMvc.perform(get(url)).andReturn().getResponse();
+        String etag = primeira.getHeader(HttpHeaders.ETAG);
+
+        // Act
+        long semValidacao = 0;
+        long comValidacao = 0;
+        for (int i = 0; i < CONSULTAS_REPETIDAS; i++) {
+            semValidacao += mockMvc.perform(get(url)).andReturn().getResponse().getContentAsByteArray().length;
+            comValidacao += mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andReturn().getResponse().getContentAsByteArray().length;
+        }
+
+        emprestar(livros.get(3));
+        MockHttpServletResponse aposEmprestimo = mockMvc.perform(get(url)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+
+        // Assert
+        long corpo = primeira.getContentAsByteArray().length;
+        assertTrue(etag.startsWith("W/"));
+        assertTrue(corpo > 0);
+        assertEquals(0, comValidacao);
+        // Toda a listagem deixa de trafegar em cada consulta revalidada
+        assertEquals(CONSULTAS_REPETIDAS * corpo, semValidacao - comValidacao);
+        assertEquals(200, aposEmprestimo.getStatus());
+        assertNotEquals(etag, aposEmprestimo.getHeader(HttpHeaders.ETAG));
+    }
+
+    private void emprestar(Livro livro) {
+        emprestimoService.criar(EmprestimoRequestDTO.builder()
+                .livroId(livro.getId())
+                .usuarioId(leitor.getId())
+                .build());
+    }
+}
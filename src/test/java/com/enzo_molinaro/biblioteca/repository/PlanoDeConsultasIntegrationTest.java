@@ -0,0 +1,245 @@
+package com.enzo_molinaro.biblioteca.repository;
+
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.support.RegistroDeSql;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Executa cada {@code @Query} dos repositórios, guarda o SQL gerado pelo Hibernate e passa cada
+ * instrução pelo EXPLAIN do H2 (modo MySQL). Falha se alguma tabela for lida por inteiro, seja por
+ * varredura da tabela, seja por um índice percorrido sem condição, fora das leituras completas por
+ * definição listadas abaixo. Uma consulta nova sem entrada em {@link #consultas()} também falha.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.enzo_molinaro.biblioteca.support.RegistroDeSql")
+@ActiveProfiles("test")
+class PlanoDeConsultasIntegrationTest {
+
+    private static final List<Class<?>> REPOSITORIOS = List.of(
+            LivroRepository.class, UsuarioRepository.class, CategoriaRepository.class, EmprestimoRepository.class);
+
+    // Leem todas as linhas por definição: cargas dos filtros e índices em memória, exportações,
+    // rankings de todo o histórico e listagens de todas as categorias
+    private static final Set<String> LEITURAS_COMPLETAS = Set.of(
+            "LivroRepository.findTodosOsIsbns",
+            "LivroRepository.exportar",
+            "UsuarioRepository.findTodasAsChaves",
+            "CategoriaRepository.findAllWithLivros",
+            "CategoriaRepository.findCategoriasComLivros",
+            "EmprestimoRepository.exportar",
+            "EmprestimoRepository.findLivrosMaisEmprestados",
+            "EmprestimoRepository.findUsuariosMaisAtivos");
+
+    // Acesso a uma tabela no plano do H2: /* public.<índice ou tabela>[: condições] */. Um COUNT(*)
+    // sem filtro aparece como índice sem condição, mas seguido de "direct lookup": não lê as linhas
+    private static final Pattern ACESSO =
+            Pattern.compile("/\\* public\\.([\\w.]+)(:[^*]*)?\\s*\\*/(?!\\s*/\\* direct lookup \\*/)");
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        // O cache de consultas esconderia o SQL de findByCategoriaId
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("Deve ter uma execução de exemplo para cada @Query dos repositórios")
+    void deveCobrirTodasAsConsultas() {
+        // Arrange
+        Set<String> anotadas = new TreeSet<>();
+        for (Class<?> repositorio : REPOSITORIOS) {
+            Arrays.stream(repositorio.getDeclaredMethods())
+                    .filter(metodo -> metodo.isAnnotationPresent(Query.class))
+                    .forEach(metodo -> anotadas.add(repositorio.getSimpleName() + "." + metodo.getName()));
+        }
+
+        // Act
+        Set<String> semExemplo = new TreeSet<>(anotadas);
+        semExemplo.removeAll(consultas().keySet());
+
+        // Assert
+        assertTrue(semExemplo.isEmpty(), "Consultas sem exemplo em PlanoDeConsultasIntegrationTest: " + semExemplo);
+    }
+
+    @Test
+    @DisplayName("Não deve ler tabelas inteiras nas consultas frequentes")
+    void naoDeveVarrerTabelasNasConsultasFrequentes() {
+        // Arrange
+        List<String> falhas = new ArrayList<>();
+
+        // Act
+        consultas().forEach((nome, consulta) -> {
+            List<String> instrucoes = registrar(consulta);
+            assertFalse(instrucoes.isEmpty(), nome + " não gerou SQL");
+
+            if (LEITURAS_COMPLETAS.contains(nome)) return;
+            for (String sql : instrucoes) {
+                String plano = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                List<String> varreduras = varreduras(plano);
+                if (!varreduras.isEmpty()) {
+                    falhas.add(nome + " lê por inteiro " + varreduras + ":\n" + plano);
+                }
+            }
+        });
+
+        // Assert
+        assertTrue(falhas.isEmpty(), String.join("\n\n", falhas));
+    }
+
+    private List<String> registrar(Runnable consulta) {
+        List<String> instrucoes;
+        RegistroDeSql.iniciar();
+        try {
+            // Transação desfeita: findAllByIdParaAtualizacao bloqueia as linhas e os Streams exigem uma
+            transactionTemplate.executeWithoutResult(status -> {
+                consulta.run();
+                status.setRollbackOnly();
+            });
+        } finally {
+            instrucoes = RegistroDeSql.encerrar();
+        }
+        return instrucoes;
+    }
+
+    private static List<String> varreduras(String plano) {
+        List<String> varreduras = new ArrayList<>();
+        Matcher acesso = ACESSO.matcher(plano);
+        while (acesso.find()) {
+            // Sem condições, o índice é percorrido do início ao fim
+            if (acesso.group(1).endsWith(".tableScan") || acesso.group(2) == null) {
+                varreduras.add(acesso.group(1));
+            }
+        }
+        return varreduras;
+    }
+
+    private Map<String, Runnable> consultas() {
+        LocalDate hoje = LocalDate.now();
+        PageRequest pagina = PageRequest.of(0, 20);
+        PageRequest porTitulo = PageRequest.of(0, 20, Sort.by("titulo"));
+
+        Map<String, Runnable> consultas = new LinkedHashMap<>();
+
+        consultas.put("LivroRepository.findIsbnsExistentes", () -> livroRepository.findIsbnsExistentes(List.of("9788535902778")));
+        consultas.put("LivroRepository.findIdByIsbn", () -> livroRepository.findIdByIsbn("9788535902778"));
+        consultas.put("LivroRepository.findTodosOsIsbns", () -> consumir(livroRepository.findTodosOsIsbns()));
+        consultas.put("LivroRepository.buscarPorTermo", () -> livroRepository.buscarPorTermo("machado", porTitulo));
+        consultas.put("LivroRepository.findAtivosByIdIn", () -> livroRepository.findAtivosByIdIn(List.of(1L, 2L)));
+        consultas.put("LivroRepository.findByAtivoTrueAposCursor",
+                () -> livroRepository.findByAtivoTrueAposCursor("Dom Casmurro", 1L, pagina));
+        consultas.put("LivroRepository.buscarPorTermoAposCursor",
+                () -> livroRepository.buscarPorTermoAposCursor("machado", "Dom Casmurro", 1L, pagina));
+        consultas.put("LivroRepository.findByCategoriaId", () -> livroRepository.findByCategoriaId(1L, pagina));
+        consultas.put("LivroRepository.findDisponiveis", () -> livroRepository.findDisponiveis(pagina));
+        consultas.put("LivroRepository.findIndisponiveis", () -> livroRepository.findIndisponiveis());
+        consultas.put("LivroRepository.exportar", () -> consumir(livroRepository.exportar(true)));
+        consultas.put("LivroRepository.findParaIndexacao", () -> consumir(livroRepository.findParaIndexacao()));
+        consultas.put("LivroRepository.findAllByIdParaAtualizacao",
+                () -> livroRepository.findAllByIdParaAtualizacao(List.of(1L, 2L)));
+
+        consultas.put("UsuarioRepository.findVersaoById", () -> usuarioRepository.findVersaoById(1L));
+        consultas.put("UsuarioRepository.findByEmailOuCpf",
+                () -> usuarioRepository.findByEmailOuCpf("maria@biblioteca.com", "12345678901"));
+        consultas.put("UsuarioRepository.findTodasAsChaves", () -> consumir(usuarioRepository.findTodasAsChaves()));
+        consultas.put("UsuarioRepository.buscarPorTermo", () -> usuarioRepository.buscarPorTermo("maria", pagina));
+        consultas.put("UsuarioRepository.findByAtivoTrueAposCursor",
+                () -> usuarioRepository.findByAtivoTrueAposCursor("Maria Silva", 1L, pagina));
+        consultas.put("UsuarioRepository.buscarPorTermoAposCursor",
+                () -> usuarioRepository.buscarPorTermoAposCursor("maria", "Maria Silva", 1L, pagina));
+        consultas.put("UsuarioRepository.findUsuariosComLimiteAtingido", () -> usuarioRepository.findUsuariosComLimiteAtingido());
+
+        consultas.put("CategoriaRepository.findAllWithLivros", () -> categoriaRepository.findAllWithLivros());
+        consultas.put("CategoriaRepository.findCategoriasComLivros", () -> categoriaRepository.findCategoriasComLivros());
+
+        consultas.put("EmprestimoRepository.findEmprestimosAtivosDoUsuario",
+                () -> emprestimoRepository.findEmprestimosAtivosDoUsuario(1L));
+        consultas.put("EmprestimoRepository.countEmprestimosAtivosByUsuarioId",
+                () -> emprestimoRepository.countEmprestimosAtivosByUsuarioId(1L));
+        consultas.put("EmprestimoRepository.countEmprestimosAtivosByUsuarioIds",
+                () -> emprestimoRepository.countEmprestimosAtivosByUsuarioIds(List.of(1L, 2L)));
+        consultas.put("EmprestimoRepository.findEmprestimosAtrasados", () -> emprestimoRepository.findEmprestimosAtrasados(hoje));
+        consultas.put("EmprestimoRepository.findDatasPrevistasEmAbertoPorStatus",
+                () -> emprestimoRepository.findDatasPrevistasEmAbertoPorStatus(StatusEmprestimo.ATRASADO));
+        consultas.put("EmprestimoRepository.findEmprestimosAbertosPorPeriodo",
+                () -> emprestimoRepository.findEmprestimosAbertosPorPeriodo(hoje, hoje.plusDays(7)));
+        consultas.put("EmprestimoRepository.findByUsuarioIdOrderByDataEmprestimoDesc",
+                () -> emprestimoRepository.findByUsuarioIdOrderByDataEmprestimoDesc(1L, pagina));
+        consultas.put("EmprestimoRepository.findAposCursor", () -> emprestimoRepository.findAposCursor(hoje, 1L, pagina));
+        consultas.put("EmprestimoRepository.findByStatusAposCursor",
+                () -> emprestimoRepository.findByStatusAposCursor(StatusEmprestimo.ATIVO, hoje, 1L, pagina));
+        consultas.put("EmprestimoRepository.findByUsuarioIdAposCursor",
+                () -> emprestimoRepository.findByUsuarioIdAposCursor(1L, hoje, 1L, pagina));
+        consultas.put("EmprestimoRepository.findByIdWithDetails", () -> emprestimoRepository.findByIdWithDetails(1L));
+        consultas.put("EmprestimoRepository.findAllByIdWithDetails",
+                () -> emprestimoRepository.findAllByIdWithDetails(List.of(1L, 2L)));
+        consultas.put("EmprestimoRepository.findLivroIdsEmprestadosAoUsuario",
+                () -> emprestimoRepository.findLivroIdsEmprestadosAoUsuario(1L, List.of(1L, 2L)));
+        consultas.put("EmprestimoRepository.exportar", () -> consumir(emprestimoRepository.exportar(null, null, null)));
+        consultas.put("EmprestimoRepository.findLivrosMaisEmprestados",
+                () -> emprestimoRepository.findLivrosMaisEmprestados(PageRequest.of(0, 10)));
+        consultas.put("EmprestimoRepository.findUsuariosMaisAtivos",
+                () -> emprestimoRepository.findUsuariosMaisAtivos(PageRequest.of(0, 10)));
+        consultas.put("EmprestimoRepository.calcularRelatorioGeral", () -> emprestimoRepository.calcularRelatorioGeral(hoje));
+
+        // Consultas derivadas do nome do método nos caminhos de empréstimo e devolução
+        consultas.put("EmprestimoRepository.existsByUsuarioIdAndLivroIdAndDataDevolucaoIsNull",
+                () -> emprestimoRepository.existsByUsuarioIdAndLivroIdAndDataDevolucaoIsNull(1L, 1L));
+        consultas.put("EmprestimoRepository.existsByUsuarioIdAndDataDevolucaoIsNullAndDataPrevistaDevolucaoBefore",
+                () -> emprestimoRepository.existsByUsuarioIdAndDataDevolucaoIsNullAndDataPrevistaDevolucaoBefore(1L, hoje));
+        consultas.put("EmprestimoRepository.findByStatus",
+                () -> emprestimoRepository.findByStatus(StatusEmprestimo.ATRASADO, pagina));
+
+        return consultas;
+    }
+
+    private static void consumir(Stream<?> resultado) {
+        try (resultado) {
+            resultado.forEach(linha -> { });
+        }
+    }
+}
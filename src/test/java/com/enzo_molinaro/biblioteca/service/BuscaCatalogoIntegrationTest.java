@@ -0,0 +1,166 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.request.LivroRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.LivroResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.SugestaoDTO;
+import com.enzo_molinaro.biblioteca.entity.Categoria;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.enums.TipoSugestao;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.CategoriaRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sem {@code @Transactional}: o índice só recebe as alterações de transações confirmadas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BuscaCatalogoIntegrationTest {
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private IndiceCatalogoService indiceCatalogoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Categoria romance;
+    private Livro domCasmurro;
+
+    @BeforeEach
+    void setUp() {
+        romance = categoriaRepository.save(Categoria.builder().nome("Romance").build());
+        domCasmurro = livroRepository.save(livro("9788535902778", "Dom Casmurro", "Machado de Assis", true));
+        livroRepository.save(livro("9788535910663", "Memórias Póstumas de Brás Cubas", "Machado de Assis", true));
+        livroRepository.save(livro("9788531409110", "Machado de Assis: uma biografia", "Lúcia Miguel Pereira", true));
+        livroRepository.save(livro("9788532508126", "A Hora da Estrela", "Clarice Lispector", false));
+
+        // Os livros acima não passaram pelo serviço: o índice é refeito a partir do banco
+        indiceCatalogoService.reconstruir();
+    }
+
+    @AfterEach
+    void tearDown() {
+        livroRepository.deleteAllInBatch();
+        categoriaRepository.deleteAllInBatch();
+        indiceCatalogoService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Deve buscar pelo índice com uma única consulta, por relevância e ignorando acentos")
+    void deveBuscarPeloIndice() {
+        // Arrange
+        ContadorDeQueries contador = new ContadorDeQueries(entityManagerFactory);
+        contador.zerar();
+
+        // Act
+        Page<LivroResponseDTO> pagina = livroService.buscar("machado", PageRequest.of(0, 2));
+        Page<LivroResponseDTO> semAcento = livroService.buscar("memorias bras", PageRequest.of(0, 10));
+
+        // Assert
+        // Uma consulta por busca, sem COUNT: o total vem do índice
+        assertEquals(2, contador.consultas());
+        assertEquals(3, pagina.getTotalElements());
+        assertEquals("Machado de Assis: uma biografia", pagina.getContent().get(0).getTitulo());
+        assertEquals("Dom Casmurro", pagina.getContent().get(1).getTitulo());
+        assertEquals("Romance", pagina.getContent().get(1).getCategoriaNome());
+        assertEquals(List.of("Memórias Póstumas de Brás Cubas"),
+                semAcento.getContent().stream().map(LivroResponseDTO::getTitulo).toList());
+        assertEquals(0, livroService.buscar("estrela", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Deve refletir no índice os livros criados, atualizados e desativados pelo serviço")
+    void deveAtualizarIndiceComAlteracoes() {
+        // Act
+        LivroResponseDTO criado = livroService.criar(request("9788525406934", "Quincas Borba", "Machado de Assis"));
+        livroService.atualizar(domCasmurro.getId(), request("9788535902778", "Dom Casmurro: edição crítica", "Machado de Assis"));
+
+        // Assert
+        assertEquals(List.of(criado.getId()), ids("quincas"));
+        assertEquals(List.of(domCasmurro.getId()), ids("edicao critica"));
+        assertEquals(4, livroService.buscar("assis", PageRequest.of(0, 10)).getTotalElements());
+
+        // Act
+        livroService.deletar(criado.getId());
+
+        // Assert
+        assertTrue(ids("quincas").isEmpty());
+        assertEquals(3, livroService.buscar("assis", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Deve sugerir títulos e autores sem consultar o banco e acompanhar as alterações do catálogo")
+    void deveSugerirTitulosEAutores() {
+        // Arrange
+        ContadorDeQueries contador = new ContadorDeQueries(entityManagerFactory);
+        livroService.criar(request("9788525406934", "Quincas Borba", "Machado de Assis"));
+        contador.zerar();
+
+        // Act
+        List<SugestaoDTO> machado = indiceCatalogoService.sugerir("mach", 5);
+        List<SugestaoDTO> quincas = indiceCatalogoService.sugerir("quin", 5);
+
+        // Assert
+        assertEquals(0, contador.consultas());
+        assertEquals("Machado de Assis", machado.get(0).getTexto());
+        assertEquals(TipoSugestao.AUTOR, machado.get(0).getTipo());
+        assertEquals(3, machado.get(0).getLivros());
+        assertEquals("Machado de Assis: uma biografia", machado.get(1).getTexto());
+        assertEquals(List.of("Quincas Borba"), quincas.stream().map(SugestaoDTO::getTexto).toList());
+        // Livro inativo não é sugerido
+        assertTrue(indiceCatalogoService.sugerir("estrela", 5).isEmpty());
+        assertThrows(BusinessException.class, () -> indiceCatalogoService.sugerir("mach", 0));
+    }
+
+    private List<Long> ids(String termo) {
+        return livroService.buscar(termo, PageRequest.of(0, 10)).getContent().stream()
+                .map(LivroResponseDTO::getId)
+                .toList();
+    }
+
+    private Livro livro(String isbn, String titulo, String autor, boolean ativo) {
+        return Livro.builder()
+                .isbn(isbn)
+                .titulo(titulo)
+                .autor(autor)
+                .categoria(romance)
+                .quantidadeTotal(2)
+                .quantidadeDisponivel(2)
+                .ativo(ativo)
+                .build();
+    }
+
+    private LivroRequestDTO request(String isbn, String titulo, String autor) {
+        return LivroRequestDTO.builder()
+                .isbn(isbn)
+                .titulo(titulo)
+                .autor(autor)
+                .quantidadeTotal(2)
+                .categoriaId(romance.getId())
+                .build();
+    }
+}
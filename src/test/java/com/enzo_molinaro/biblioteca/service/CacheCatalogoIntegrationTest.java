@@ -0,0 +1,180 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.LivroResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RegiaoCacheDTO;
+import com.enzo_molinaro.biblioteca.entity.Categoria;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.repository.CategoriaRepository;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sem {@code @Transactional}: o cache de segundo nível só recebe o que foi confirmado.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheCatalogoIntegrationTest {
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private EstatisticasCacheService estatisticasCacheService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ContadorDeQueries contador;
+    private Categoria romance;
+    private Livro domCasmurro;
+    private Livro quincasBorba;
+    private Usuario leitor;
+
+    @BeforeEach
+    void setUp() {
+        romance = categoriaRepository.save(Categoria.builder().nome("Romance").build());
+        domCasmurro = livroRepository.save(livro("9788535902778", "Dom Casmurro"));
+        quincasBorba = livroRepository.save(livro("9788535910663", "Quincas Borba"));
+        leitor = usuarioRepository.save(Usuario.builder()
+                .nome("Maria Silva")
+                .email("maria@biblioteca.com")
+                .cpf("12345678901")
+                .tipo(TipoUsuario.ESTUDANTE)
+                .build());
+
+        entityManagerFactory.getCache().evictAll();
+        contador = new ContadorDeQueries(entityManagerFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        categoriaRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Deve responder livro e categoria pelo cache a partir da segunda leitura")
+    void deveBuscarPorIdPeloCache() {
+        // Arrange
+        livroService.buscarPorId(domCasmurro.getId());
+
+        // Act
+        contador.zerar();
+        LivroResponseDTO livro = livroService.buscarPorId(domCasmurro.getId());
+
+        // Assert
+        assertEquals(0, contador.consultas());
+        assertEquals("Dom Casmurro", livro.getTitulo());
+        assertEquals(2, livro.getQuantidadeDisponivel());
+
+        RegiaoCacheDTO livros = regiao("livros");
+        assertTrue(livros.getAcertos() > 0);
+        assertTrue(livros.getTaxaAcerto() > 0);
+    }
+
+    @Test
+    @DisplayName("Deve retirar do cache só o livro emprestado e devolvido")
+    void deveInvalidarEstoqueNoEmprestimo() {
+        // Arrange
+        livroService.buscarPorId(domCasmurro.getId());
+        livroService.buscarPorId(quincasBorba.getId());
+
+        // Act
+        EmprestimoResponseDTO emprestimo = emprestimoService.criar(EmprestimoRequestDTO.builder()
+                .livroId(domCasmurro.getId())
+                .usuarioId(leitor.getId())
+                .build());
+        int aposEmprestimo = livroService.buscarPorId(domCasmurro.getId()).getQuantidadeDisponivel();
+
+        contador.zerar();
+        livroService.buscarPorId(quincasBorba.getId());
+        long consultasOutroLivro = contador.consultas();
+
+        emprestimoService.devolver(emprestimo.getId());
+        int aposDevolucao = livroService.buscarPorId(domCasmurro.getId()).getQuantidadeDisponivel();
+
+        // Assert
+        assertEquals(1, aposEmprestimo);
+        assertEquals(2, aposDevolucao);
+        // O outro livro continua no cache
+        assertEquals(0, consultasOutroLivro);
+    }
+
+    @Test
+    @DisplayName("Deve responder a listagem por categoria pelo cache de consultas até um livro mudar")
+    void deveListarPorCategoriaPeloCache() {
+        // Arrange
+        livroService.listarPorCategoria(romance.getId(), PageRequest.of(0, 10));
+
+        // Act
+        contador.zerar();
+        Page<LivroResponseDTO> emCache = livroService.listarPorCategoria(romance.getId(), PageRequest.of(0, 10));
+        long consultasEmCache = contador.consultas();
+
+        livroService.deletar(quincasBorba.getId());
+        Page<LivroResponseDTO> aposDesativar = livroService.listarPorCategoria(romance.getId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(0, consultasEmCache);
+        assertEquals(2, emCache.getTotalElements());
+        assertEquals(List.of("Dom Casmurro"), aposDesativar.getContent().stream().map(LivroResponseDTO::getTitulo).toList());
+        assertTrue(regiao("consultas-catalogo").getAcertos() > 0);
+    }
+
+    private RegiaoCacheDTO regiao(String nome) {
+        return estatisticasCacheService.estatisticasPorRegiao().stream()
+                .filter(r -> r.getRegiao().equals(nome))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Livro livro(String isbn, String titulo) {
+        return Livro.builder()
+                .isbn(isbn)
+                .titulo(titulo)
+                .autor("Machado de Assis")
+                .categoria(romance)
+                .quantidadeTotal(2)
+                .quantidadeDisponivel(2)
+                .valorMultaDiaria(new BigDecimal("2.00"))
+                .build();
+    }
+}
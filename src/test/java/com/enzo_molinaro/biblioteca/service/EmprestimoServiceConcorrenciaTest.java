@@ -0,0 +1,134 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Empréstimos concorrentes do mesmo título: nenhum exemplar pode ser emprestado duas vezes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Slf4j
+class EmprestimoServiceConcorrenciaTest {
+
+    private static final int THREADS = 200;
+    private static final int EXEMPLARES = 50;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    private Livro livro;
+    private List<Usuario> usuarios;
+
+    @BeforeEach
+    void setUp() {
+        livro = livroRepository.save(Livro.builder()
+                .isbn("9788535902778")
+                .titulo("Dom Casmurro")
+                .autor("Machado de Assis")
+                .quantidadeTotal(EXEMPLARES)
+                .quantidadeDisponivel(EXEMPLARES)
+                .valorMultaDiaria(new BigDecimal("2.00"))
+                .build());
+
+        usuarios = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            usuarios.add(Usuario.builder()
+                    .nome("Usuário " + i)
+                    .email("usuario" + i + "@biblioteca.com")
+                    .cpf(String.format("%011d", i))
+                    .tipo(TipoUsuario.ESTUDANTE)
+                    .build());
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Deve emprestar exatamente o número de exemplares sob 200 threads concorrentes")
+    void naoDeveEmprestarAlemDoEstoque() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger sucessos = new AtomicInteger();
+        AtomicInteger recusados = new AtomicInteger();
+
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (Usuario usuario : usuarios) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    EmprestimoResponseDTO emprestimo = emprestimoService.criar(EmprestimoRequestDTO.builder()
+                            .livroId(livro.getId())
+                            .usuarioId(usuario.getId())
+                            .build());
+                    assertNotNull(emprestimo.getId());
+                    sucessos.incrementAndGet();
+                } catch (BusinessException ex) {
+                    recusados.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        long duracao = System.nanoTime() - inicio;
+        executor.shutdown();
+
+        // Assert
+        log.info("{} tentativas de empréstimo em {} ms ({} ops/s)", THREADS,
+                String.format("%.1f", duracao / 1_000_000.0),
+                String.format("%.0f", THREADS / (duracao / 1_000_000_000.0)));
+
+        assertEquals(EXEMPLARES, sucessos.get());
+        assertEquals(THREADS - EXEMPLARES, recusados.get());
+        assertEquals(EXEMPLARES, emprestimoRepository.count());
+        assertEquals(0, livroRepository.findById(livro.getId()).orElseThrow().getQuantidadeDisponivel());
+    }
+}
@@ -0,0 +1,275 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.request.DevolucaoLoteRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoLoteRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ItemLoteDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ResultadoLoteDTO;
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.event.EmprestimoEvento;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@RecordApplicationEvents
+class EmprestimoServiceLoteIntegrationTest {
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private ContadorDeQueries contador;
+    private List<Livro> livros;
+    private Usuario professor;
+
+    @BeforeEach
+    void setUp() {
+        livros = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            livros.add(Livro.builder()
+                    .isbn(String.format("978%010d", i))
+                    .titulo("Livro " + i)
+                    .autor("Autor " + i)
+                    .quantidadeTotal(2)
+                    .quantidadeDisponivel(2)
+                    .valorMultaDiaria(new BigDecimal("2.00"))
+                    .build());
+        }
+        livros = livroRepository.saveAll(livros);
+
+        professor = usuarioRepository.save(usuario("Maria Souza", "maria@biblioteca.com", "12345678901",
+                TipoUsuario.PROFESSOR, 10));
+
+        entityManager.flush();
+        entityManager.clear();
+        contador = new ContadorDeQueries(entityManager.getEntityManagerFactory());
+    }
+
+    @Test
+    @DisplayName("Deve emprestar a pilha com consultas constantes e recusar apenas os itens inválidos")
+    void deveCriarLoteComResultadoPorItem() {
+        // Arrange
+        Livro esgotado = livros.get(0);
+        esgotado.setQuantidadeDisponivel(0);
+        livroRepository.save(esgotado);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> livroIds = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            livroIds.add(livros.get(i).getId());
+        }
+        livroIds.add(livros.get(1).getId());
+        livroIds.add(esgotado.getId());
+        livroIds.add(999_999L);
+
+        // Act
+        contador.zerar();
+        ResultadoLoteDTO resultado = emprestimoService.criarLote(EmprestimoLoteRequestDTO.builder()
+                .usuarioId(professor.getId())
+                .livroIds(livroIds)
+                .build());
+        entityManager.flush();
+
+        // Assert
+        // usuário, atraso, livros, já emprestados, contagem, UPDATE do estoque, sequence e o lote de INSERTs
+        contador.assertNoMaximo(8);
+
+        assertEquals(11, resultado.getTotal());
+        assertEquals(8, resultado.getSucessos());
+        assertEquals(3, resultado.getFalhas());
+
+        List<ItemLoteDTO> itens = resultado.getItens();
+        assertTrue(itens.subList(0, 8).stream().allMatch(item -> item.isSucesso() && item.getEmprestimo() != null));
+        assertEquals("Livro repetido no lote", itens.get(8).getMensagem());
+        assertEquals("Não há exemplares disponíveis deste livro", itens.get(9).getMensagem());
+        assertEquals("Livro não encontrado", itens.get(10).getMensagem());
+
+        entityManager.clear();
+        assertEquals(1, livroRepository.findById(livros.get(1).getId()).orElseThrow().getQuantidadeDisponivel());
+        assertEquals(8, emprestimoRepository.countEmprestimosAtivosByUsuarioId(professor.getId()));
+    }
+
+    @Test
+    @DisplayName("Deve respeitar o limite de empréstimos do usuário dentro do lote")
+    void deveRecusarItensAlemDoLimite() {
+        // Arrange
+        Usuario estudante = usuarioRepository.save(usuario("João Silva", "joao@biblioteca.com", "98765432100",
+                TipoUsuario.ESTUDANTE, 3));
+        emprestimoRepository.save(emprestimo(livros.get(0), estudante, LocalDate.now().plusDays(5)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        ResultadoLoteDTO resultado = emprestimoService.criarLote(EmprestimoLoteRequestDTO.builder()
+                .usuarioId(estudante.getId())
+                .livroIds(List.of(livros.get(0).getId(), livros.get(1).getId(),
+                        livros.get(2).getId(), livros.get(3).getId()))
+                .build());
+
+        // Assert
+        assertEquals(2, resultado.getSucessos());
+        assertEquals("Usuário já possui este livro emprestado", resultado.getItens().get(0).getMensagem());
+        assertEquals("Usuário atingiu o limite de empréstimos simultâneos (3)",
+                resultado.getItens().get(3).getMensagem());
+    }
+
+    @Test
+    @DisplayName("Deve recusar o lote inteiro quando o usuário tem empréstimos em atraso")
+    void deveRecusarLoteDeUsuarioComAtraso() {
+        // Arrange
+        emprestimoRepository.save(emprestimo(livros.get(0), professor, LocalDate.now().minusDays(2)));
+        entityManager.flush();
+        entityManager.clear();
+
+        EmprestimoLoteRequestDTO dto = EmprestimoLoteRequestDTO.builder()
+                .usuarioId(professor.getId())
+                .livroIds(List.of(livros.get(1).getId()))
+                .build();
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> emprestimoService.criarLote(dto));
+    }
+
+    @Test
+    @DisplayName("Deve devolver a pilha repondo o estoque com um UPDATE por quantidade devolvida")
+    void deveDevolverLote() {
+        // Arrange
+        Usuario outro = usuarioRepository.save(usuario("Ana Lima", "ana@biblioteca.com", "11122233344",
+                TipoUsuario.PROFESSOR, 10));
+
+        List<Long> emprestimoIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            emprestimoIds.add(emprestimoRepository.save(
+                    emprestimo(livros.get(i), professor, LocalDate.now().plusDays(5))).getId());
+        }
+        // Segundo exemplar do livro 0 com outro usuário: o título fica esgotado
+        emprestimoIds.add(emprestimoRepository.save(
+                emprestimo(livros.get(0), outro, LocalDate.now().plusDays(5))).getId());
+        for (int i = 0; i < 6; i++) {
+            livros.get(i).setQuantidadeDisponivel(1);
+        }
+        livros.get(0).setQuantidadeDisponivel(0);
+        livroRepository.saveAll(livros);
+
+        Emprestimo devolvido = emprestimoRepository.save(emprestimo(livros.get(7), professor, LocalDate.now()));
+        devolvido.setDataDevolucao(LocalDate.now());
+        devolvido.setStatus(StatusEmprestimo.DEVOLVIDO);
+        emprestimoIds.add(devolvido.getId());
+        emprestimoIds.add(999_999L);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        contador.zerar();
+        ResultadoLoteDTO resultado = emprestimoService.devolverLote(DevolucaoLoteRequestDTO.builder()
+                .emprestimoIds(emprestimoIds)
+                .build());
+        entityManager.flush();
+
+        // Assert
+        // empréstimos, UPDATE de estoque para 1 e 2 devoluções, estoque após o UPDATE e o lote JDBC dos empréstimos
+        contador.assertNoMaximo(5);
+
+        assertEquals(9, resultado.getTotal());
+        assertEquals(7, resultado.getSucessos());
+        assertEquals("Este empréstimo já foi devolvido", resultado.getItens().get(7).getMensagem());
+        assertEquals("Empréstimo não encontrado", resultado.getItens().get(8).getMensagem());
+
+        entityManager.clear();
+        assertEquals(2, livroRepository.findById(livros.get(0).getId()).orElseThrow().getQuantidadeDisponivel());
+        assertEquals(2, livroRepository.findById(livros.get(5).getId()).orElseThrow().getQuantidadeDisponivel());
+        assertEquals(0, emprestimoRepository.countEmprestimosAtivosByUsuarioId(professor.getId()));
+
+        // Só a primeira devolução do título esgotado o torna disponível
+        List<EmprestimoEvento> tornaramDisponivel = eventos.stream(EmprestimoEvento.class)
+                .filter(EmprestimoEvento::isLivroIndisponivelAnterior)
+                .toList();
+        assertEquals(1, tornaramDisponivel.size());
+        assertEquals(livros.get(0).getId(), tornaramDisponivel.get(0).getLivroId());
+    }
+
+    @Test
+    @DisplayName("Deve marcar o último exemplar pelo estoque após o UPDATE, e não pela entidade já carregada")
+    void deveMarcarUltimoExemplarPeloBanco() {
+        // Arrange
+        Livro livro = livroRepository.findById(livros.get(0).getId()).orElseThrow();
+        // Outro empréstimo confirmado depois que a entidade (com 2 disponíveis) foi carregada
+        jdbcTemplate.update("UPDATE livros SET quantidade_disponivel = 1 WHERE id = ?", livro.getId());
+
+        // Act
+        emprestimoService.criar(EmprestimoRequestDTO.builder()
+                .livroId(livro.getId())
+                .usuarioId(professor.getId())
+                .build());
+
+        // Assert
+        EmprestimoEvento criado = eventos.stream(EmprestimoEvento.class).findFirst().orElseThrow();
+        assertTrue(criado.isLivroIndisponivelAtual());
+    }
+
+    private Usuario usuario(String nome, String email, String cpf, TipoUsuario tipo, int limite) {
+        return Usuario.builder()
+                .nome(nome)
+                .email(email)
+                .cpf(cpf)
+                .tipo(tipo)
+                .limiteEmprestimos(limite)
+                .build();
+    }
+
+    private Emprestimo emprestimo(Livro livro, Usuario usuario, LocalDate dataPrevistaDevolucao) {
+        return Emprestimo.builder()
+                .livro(livro)
+                .usuario(usuario)
+                .dataEmprestimo(dataPrevistaDevolucao.minusDays(14))
+                .dataPrevistaDevolucao(dataPrevistaDevolucao)
+                .status(StatusEmprestimo.ATIVO)
+                .build();
+    }
+}
@@ -0,0 +1,220 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.entity.Categoria;
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.CategoriaRepository;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.EstatisticaDiariaRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sem {@code @Transactional}: os dias só são marcados pelos eventos publicados após o commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EstatisticaDiariaServiceIntegrationTest {
+
+    private static final LocalDate HOJE = LocalDate.now();
+
+    @Autowired
+    private EstatisticaDiariaService estatisticaDiariaService;
+
+    @Autowired
+    private EstatisticaDiariaRepository estatisticaDiariaRepository;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Categoria romance;
+    private Livro domCasmurro;
+    private Livro semCategoria;
+    private Usuario estudante;
+    private Usuario professor;
+
+    @BeforeEach
+    void setUp() {
+        romance = categoriaRepository.save(Categoria.builder().nome("Romance").build());
+        domCasmurro = livroRepository.save(livro("9788535902778", "Dom Casmurro", romance));
+        semCategoria = livroRepository.save(livro("9788535910663", "Quincas Borba", null));
+        estudante = usuarioRepository.save(usuario("maria@biblioteca.com", "12345678901", TipoUsuario.ESTUDANTE));
+        professor = usuarioRepository.save(usuario("joao@biblioteca.com", "10987654321", TipoUsuario.PROFESSOR));
+
+        // Descarta o que outros testes tenham deixado marcado ou consolidado
+        estatisticaDiariaService.consolidarPendentes();
+        jdbcTemplate.update("DELETE FROM estatisticas_emprestimos_diarias");
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        categoriaRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM estatisticas_emprestimos_diarias");
+    }
+
+    @Test
+    @DisplayName("Deve consolidar empréstimo e devolução só nos dias marcados pelos eventos")
+    void deveConsolidarDiasAfetados() {
+        // Arrange
+        EmprestimoResponseDTO emprestimo = emprestimoService.criar(EmprestimoRequestDTO.builder()
+                .livroId(domCasmurro.getId())
+                .usuarioId(estudante.getId())
+                .build());
+        LocalDate dia = emprestimo.getDataPrevistaDevolucao();
+
+        // Act
+        estatisticaDiariaService.consolidarPendentes();
+        EstatisticaDiariaRepository.Totais aberto = estatisticaDiariaRepository.somar(dia, dia);
+
+        emprestimoService.devolver(emprestimo.getId());
+        estatisticaDiariaService.consolidarPendentes();
+        EstatisticaDiariaRepository.Totais devolvido = estatisticaDiariaRepository.somar(dia, dia);
+
+        // Assert
+        assertEquals(1, aberto.totalEmprestimos());
+        assertEquals(1, aberto.aindaEmprestados());
+        assertEquals(1, devolvido.totalEmprestimos());
+        assertEquals(1, devolvido.devolvidosNoPrazo());
+        assertEquals(0, devolvido.aindaEmprestados());
+    }
+
+    @Test
+    @DisplayName("Deve mover o empréstimo renovado para a nova data prevista")
+    void deveMoverEmprestimoRenovado() {
+        // Arrange
+        EmprestimoResponseDTO emprestimo = emprestimoService.criar(EmprestimoRequestDTO.builder()
+                .livroId(domCasmurro.getId())
+                .usuarioId(professor.getId())
+                .build());
+        estatisticaDiariaService.consolidarPendentes();
+
+        // Act
+        EmprestimoResponseDTO renovado = emprestimoService.renovar(emprestimo.getId(), 7);
+        estatisticaDiariaService.consolidarPendentes();
+
+        // Assert
+        LocalDate diaAnterior = emprestimo.getDataPrevistaDevolucao();
+        LocalDate diaAtual = renovado.getDataPrevistaDevolucao();
+        assertEquals(0, estatisticaDiariaRepository.somar(diaAnterior, diaAnterior).totalEmprestimos());
+        assertEquals(1, estatisticaDiariaRepository.somar(diaAtual, diaAtual).totalEmprestimos());
+
+        Map<String, Object> periodo = relatorioService.relatorioEmprestimosPorPeriodo(HOJE, diaAtual);
+        assertEquals(1L, periodo.get("totalEmprestimos"));
+        assertEquals(1L, periodo.get("aindaEmprestados"));
+    }
+
+    @Test
+    @DisplayName("Deve reprocessar o histórico gravado sem eventos, por dia, categoria e tipo de usuário")
+    void deveReprocessarHistorico() {
+        // Arrange
+        LocalDate dia = HOJE.minusDays(100);
+        emprestimoRepository.saveAll(List.of(
+                emprestimo(domCasmurro, estudante, dia, dia.minusDays(1), null),
+                emprestimo(domCasmurro, estudante, dia, dia.plusDays(3), new BigDecimal("6.00")),
+                emprestimo(domCasmurro, professor, dia, null, null),
+                emprestimo(semCategoria, estudante, dia, dia, null),
+                emprestimo(semCategoria, professor, HOJE.plusDays(5), null, null)));
+
+        // Act
+        long dias = estatisticaDiariaService.reprocessarHistorico();
+
+        // Assert
+        assertEquals(106, dias);
+        // Romance x estudante, romance x professor e sem categoria x estudante
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM estatisticas_emprestimos_diarias WHERE dia = ?", Integer.class, dia));
+
+        EstatisticaDiariaRepository.Totais totais = estatisticaDiariaRepository.somar(dia, dia);
+        assertEquals(4, totais.totalEmprestimos());
+        assertEquals(2, totais.devolvidosNoPrazo());
+        assertEquals(1, totais.devolvidosComAtraso());
+        assertEquals(1, totais.aindaEmprestados());
+        assertEquals(0, new BigDecimal("6.00").compareTo(totais.multasGeradas()));
+        assertEquals(5, estatisticaDiariaRepository.somar(dia, HOJE.plusDays(5)).totalEmprestimos());
+    }
+
+    @Test
+    @DisplayName("Deve recusar reprocessamento com data inicial posterior à final")
+    void deveRecusarIntervaloInvertido() {
+        // Act & Assert
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> estatisticaDiariaService.reprocessar(HOJE, HOJE.minusDays(1)));
+        assertEquals("Data inicial deve ser anterior ou igual à data final", ex.getMessage());
+    }
+
+    private Emprestimo emprestimo(Livro livro, Usuario usuario, LocalDate dataPrevista,
+                                  LocalDate dataDevolucao, BigDecimal multa) {
+        return Emprestimo.builder()
+                .livro(livro)
+                .usuario(usuario)
+                .dataEmprestimo(dataPrevista.minusDays(14))
+                .dataPrevistaDevolucao(dataPrevista)
+                .dataDevolucao(dataDevolucao)
+                .status(dataDevolucao == null ? StatusEmprestimo.ATIVO : StatusEmprestimo.DEVOLVIDO)
+                .valorMulta(multa)
+                .build();
+    }
+
+    private Livro livro(String isbn, String titulo, Categoria categoria) {
+        return Livro.builder()
+                .isbn(isbn)
+                .titulo(titulo)
+                .autor("Machado de Assis")
+                .categoria(categoria)
+                .quantidadeTotal(3)
+                .quantidadeDisponivel(3)
+                .valorMultaDiaria(new BigDecimal("2.00"))
+                .build();
+    }
+
+    private Usuario usuario(String email, String cpf, TipoUsuario tipo) {
+        return Usuario.builder()
+                .nome("Leitor " + tipo)
+                .email(email)
+                .cpf(cpf)
+                .tipo(tipo)
+                .build();
+    }
+}
@@ -0,0 +1,221 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.event.EmprestimoEvento;
+import com.enzo_molinaro.biblioteca.event.LivroEvento;
+import com.enzo_molinaro.biblioteca.event.UsuarioEvento;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.projection.RelatorioGeralProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EstatisticasServiceTest {
+
+    @Mock
+    private EmprestimoRepository emprestimoRepository;
+
+    @InjectMocks
+    private EstatisticasService estatisticasService;
+
+    @BeforeEach
+    void setUp() {
+        RelatorioGeralProjection totais = totais(10, 5, 100, 20, 2, "7.50", 1);
+        when(emprestimoRepository.calcularRelatorioGeral(any())).thenReturn(totais);
+        estatisticasService.reconciliar();
+    }
+
+    @Test
+    @DisplayName("Deve atualizar contadores a partir dos eventos sem acessar o banco")
+    void deveAtualizarContadoresAPartirDosEventos() {
+        // Act
+        estatisticasService.onLivro(LivroEvento.builder().tipo(LivroEvento.Tipo.CRIADO).livroId(11L).build());
+        estatisticasService.onUsuario(new UsuarioEvento(UsuarioEvento.Tipo.CRIADO, 6L));
+        estatisticasService.onEmprestimo(EmprestimoEvento.builder()
+                .tipo(EmprestimoEvento.Tipo.CRIADO)
+                .statusAtual(StatusEmprestimo.ATIVO)
+                .livroIndisponivelAtual(true)
+                .build());
+        estatisticasService.onEmprestimo(EmprestimoEvento.builder()
+                .tipo(EmprestimoEvento.Tipo.DEVOLVIDO)
+                .statusAnterior(StatusEmprestimo.ATIVO)
+                .statusAtual(StatusEmprestimo.DEVOLVIDO)
+                .atrasadoAnterior(true)
+                .multaAnterior(new BigDecimal("2.50"))
+                .build());
+
+        RelatorioDTO relatorio = estatisticasService.obterRelatorioGeral();
+
+        // Assert
+        assertEquals(11, relatorio.getTotalLivros());
+        assertEquals(6, relatorio.getTotalUsuarios());
+        assertEquals(101, relatorio.getTotalEmprestimos());
+        assertEquals(20, relatorio.getEmprestimosAtivos());
+        assertEquals(1, relatorio.getEmprestimosAtrasados());
+        assertEquals(0, new BigDecimal("5.00").compareTo(relatorio.getMultasAcumuladas()));
+        assertEquals(2, relatorio.getLivrosIndisponiveis());
+        verify(emprestimoRepository, times(1)).calcularRelatorioGeral(any());
+    }
+
+    @Test
+    @DisplayName("Deve corrigir desvio dos contadores na reconciliação")
+    void deveCorrigirDesvioNaReconciliacao() {
+        // Arrange
+        estatisticasService.onEmprestimo(EmprestimoEvento.builder()
+                .tipo(EmprestimoEvento.Tipo.CRIADO)
+                .statusAtual(StatusEmprestimo.ATIVO)
+                .build());
+        RelatorioGeralProjection totais = totais(10, 5, 100, 20, 4, "12.00", 1);
+        when(emprestimoRepository.calcularRelatorioGeral(any())).thenReturn(totais);
+
+        // Act
+        estatisticasService.reconciliar();
+        RelatorioDTO relatorio = estatisticasService.obterRelatorioGeral();
+
+        // Assert
+        assertEquals(100, relatorio.getTotalEmprestimos());
+        assertEquals(4, relatorio.getEmprestimosAtrasados());
+        assertEquals(0, new BigDecimal("12.00").compareTo(relatorio.getMultasAcumuladas()));
+    }
+
+    @Test
+    @DisplayName("Não deve descartar o evento aplicado enquanto a consulta de reconciliação roda")
+    void deveManterEventoAplicadoDuranteReconciliacao() {
+        // Arrange
+        RelatorioGeralProjection totais = totais(10, 5, 100, 20, 2, "7.50", 1);
+        when(emprestimoRepository.calcularRelatorioGeral(any())).thenAnswer(invocacao -> {
+            // Confirmado depois do instante lido pela consulta
+            estatisticasService.onEmprestimo(EmprestimoEvento.builder()
+                    .tipo(EmprestimoEvento.Tipo.CRIADO)
+                    .statusAtual(StatusEmprestimo.ATIVO)
+                    .livroIndisponivelAtual(true)
+                    .build());
+            return totais;
+        });
+
+        // Act
+        estatisticasService.reconciliar();
+        RelatorioDTO relatorio = estatisticasService.obterRelatorioGeral();
+
+        // Assert
+        assertEquals(101, relatorio.getTotalEmprestimos());
+        assertEquals(21, relatorio.getEmprestimosAtivos());
+        assertEquals(2, relatorio.getLivrosIndisponiveis());
+    }
+
+    @Test
+    @DisplayName("Não deve somar de novo um commit já lido pela reconciliação cujo evento ainda não foi aplicado")
+    void naoDeveDuplicarCommitAnteriorAReconciliacao() throws Exception {
+        // Arrange
+        RelatorioGeralProjection comOEmprestimo = totais(10, 5, 101, 21, 2, "7.50", 1);
+        when(emprestimoRepository.calcularRelatorioGeral(any())).thenReturn(comOEmprestimo);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch confirmado = new CountDownLatch(1);
+        CountDownLatch aplicar = new CountDownLatch(1);
+
+        // Act
+        Future<RelatorioDTO> reconciliacao;
+        try {
+            // A transação confirma no banco e só depois executa o listener
+            Future<?> transacao = executor.submit(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    estatisticasService.onEmprestimo(EmprestimoEvento.builder()
+                            .tipo(EmprestimoEvento.Tipo.CRIADO)
+                            .statusAtual(StatusEmprestimo.ATIVO)
+                            .build());
+                    List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+                    sincronizacoes.forEach(sincronizacao -> sincronizacao.beforeCommit(false));
+                    confirmado.countDown();
+                    aplicar.await();
+                    sincronizacoes.forEach(sincronizacao ->
+                            sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+                } finally {
+                    TransactionSynchronizationManager.clearSynchronization();
+                }
+                return null;
+            });
+            confirmado.await();
+            reconciliacao = executor.submit(() -> estatisticasService.reconciliar());
+            // A reconciliação espera a transação terminar de aplicar o evento
+            assertThrows(TimeoutException.class, () -> reconciliacao.get(200, TimeUnit.MILLISECONDS));
+            aplicar.countDown();
+            transacao.get();
+            reconciliacao.get();
+        } finally {
+            executor.shutdown();
+        }
+        RelatorioDTO relatorio = estatisticasService.obterRelatorioGeral();
+
+        // Assert
+        assertEquals(101, relatorio.getTotalEmprestimos());
+        assertEquals(21, relatorio.getEmprestimosAtivos());
+    }
+
+    @Test
+    @DisplayName("Deve contabilizar empréstimos simultâneos sem perder atualizações")
+    void deveContabilizarEmprestimosSimultaneos() throws Exception {
+        // Arrange
+        EmprestimoEvento criado = EmprestimoEvento.builder()
+                .tipo(EmprestimoEvento.Tipo.CRIADO)
+                .statusAtual(StatusEmprestimo.ATIVO)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    estatisticasService.onEmprestimo(criado);
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        RelatorioDTO relatorio = estatisticasService.obterRelatorioGeral();
+        assertEquals(100 + 80_000, relatorio.getTotalEmprestimos());
+        assertEquals(20 + 80_000, relatorio.getEmprestimosAtivos());
+    }
+
+    private static RelatorioGeralProjection totais(long livros, long usuarios, long emprestimos,
+                                                   long ativos, long atrasados, String multas,
+                                                   long indisponiveis) {
+        RelatorioGeralProjection projection = mock(RelatorioGeralProjection.class);
+        lenient().when(projection.getTotalLivros()).thenReturn(livros);
+        lenient().when(projection.getTotalUsuarios()).thenReturn(usuarios);
+        lenient().when(projection.getTotalEmprestimos()).thenReturn(emprestimos);
+        lenient().when(projection.getEmprestimosAtivos()).thenReturn(ativos);
+        lenient().when(projection.getEmprestimosAtrasados()).thenReturn(atrasados);
+        lenient().when(projection.getMultasAcumuladas()).thenReturn(new BigDecimal(multas));
+        lenient().when(projection.getLivrosIndisponiveis()).thenReturn(indisponiveis);
+        return projection;
+    }
+}
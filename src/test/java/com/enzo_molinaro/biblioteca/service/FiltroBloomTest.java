@@ -0,0 +1,28 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroBloomTest {
+
+    @Test
+    @DisplayName("Nunca deve negar um valor adicionado e errar em cerca de 1% dos demais")
+    void deveTerPoucosFalsosPositivos() {
+        // Arrange
+        FiltroBloom filtro = new FiltroBloom(100_000);
+        IntStream.range(0, 100_000).forEach(i -> filtro.adicionar("978" + String.format("%010d", i)));
+
+        // Act
+        long falsosPositivos = IntStream.range(100_000, 200_000)
+                .filter(i -> filtro.talvezContenha("978" + String.format("%010d", i)))
+                .count();
+
+        // Assert
+        assertTrue(IntStream.range(0, 100_000).allMatch(i -> filtro.talvezContenha("978" + String.format("%010d", i))));
+        assertTrue(falsosPositivos < 2_000, "Falsos positivos: " + falsosPositivos);
+    }
+}
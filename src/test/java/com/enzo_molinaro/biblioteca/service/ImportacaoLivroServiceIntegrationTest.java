@@ -0,0 +1,149 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.ErroImportacaoDTO;
+import com.enzo_molinaro.biblioteca.dto.response.ImportacaoLivrosDTO;
+import com.enzo_molinaro.biblioteca.entity.Categoria;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.enums.FormatoArquivo;
+import com.enzo_molinaro.biblioteca.repository.CategoriaRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sem {@code @Transactional}: cada lote da importação confirma sua própria transação.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportacaoLivroServiceIntegrationTest {
+
+    private static final int TOTAL_LINHAS = 2_500;
+
+    @Autowired
+    private ImportacaoLivroService importacaoLivroService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Categoria romance;
+
+    @BeforeEach
+    void setUp() {
+        romance = categoriaRepository.save(Categoria.builder().nome("Romance").build());
+        livroRepository.save(Livro.builder()
+                .isbn(isbn(10))
+                .titulo("Já cadastrado")
+                .autor("Autor")
+                .quantidadeTotal(1)
+                .quantidadeDisponivel(1)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        livroRepository.deleteAllInBatch();
+        categoriaRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Deve importar CSV em lotes, sem consultas por linha, reportando erros e duplicados")
+    void deveImportarCsvEmLotes() throws Exception {
+        // Arrange
+        StringBuilder csv = new StringBuilder("isbn,titulo,autor,editora,anoPublicacao,quantidadeTotal,valorMultaDiaria,categoria\n");
+        for (int i = 0; i < TOTAL_LINHAS; i++) {
+            String quantidade = i == 20 ? "muitos" : "3";
+            String categoria = i == 30 ? "Terror" : i % 2 == 0 ? " romance " : "";
+            // A linha 1500 repete um ISBN gravado no primeiro lote
+            int numero = i == 1_500 ? 5 : i;
+            csv.append(isbn(numero)).append(",\"Livro ").append(i).append(", volume único\",Autor ").append(i % 50)
+                    .append(",Editora,2001,").append(quantidade).append(",1.50,").append(categoria).append('\n');
+        }
+        ContadorDeQueries contador = new ContadorDeQueries(entityManagerFactory);
+
+        // Act
+        contador.zerar();
+        ImportacaoLivrosDTO resultado = importacaoLivroService.importar(entrada(csv.toString()), FormatoArquivo.CSV);
+
+        // Assert
+        // categorias + por lote: ISBNs existentes, sequence e INSERTs agrupados (50 por instrução)
+        contador.assertNoMaximo(TOTAL_LINHAS / 10);
+
+        assertEquals(TOTAL_LINHAS, resultado.getLinhasProcessadas());
+        assertEquals(TOTAL_LINHAS - 4, resultado.getImportados());
+        assertEquals(2, resultado.getDuplicados());
+        assertEquals(2, resultado.getErros());
+
+        Map<Long, ErroImportacaoDTO> erros = resultado.getDetalhesErros().stream()
+                .collect(Collectors.toMap(ErroImportacaoDTO::getLinha, Function.identity()));
+        assertEquals("quantidadeTotal: valor inválido 'muitos'", erros.get(22L).getMensagem());
+        assertEquals("Categoria não encontrada: Terror", erros.get(32L).getMensagem());
+
+        Livro livro = livroRepository.findByIsbn(isbn(2)).orElseThrow();
+        assertEquals("Livro 2, volume único", livro.getTitulo());
+        assertEquals(3, livro.getQuantidadeDisponivel());
+        assertEquals(new BigDecimal("1.50"), livro.getValorMultaDiaria());
+        // Linhas pares usam a categoria; quatro delas foram recusadas ou duplicadas
+        assertEquals(TOTAL_LINHAS / 2 - 4,
+                livroRepository.findByCategoriaId(romance.getId(), Pageable.unpaged()).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Deve importar NDJSON continuando após linhas inválidas")
+    void deveImportarNdjson() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"isbn":"9781111111111","titulo":"Dom Casmurro","autor":"Machado de Assis","quantidadeTotal":2}
+                {"isbn":"9781111111112","titulo":
+
+                {"isbn":"123","titulo":"Curto","autor":"Autor","quantidadeTotal":0}
+                {"isbn":"9781111111113","titulo":"O Cortiço","autor":"Aluísio Azevedo","quantidadeTotal":1,"categoria":"Romance"}
+                """;
+
+        // Act
+        ImportacaoLivrosDTO resultado = importacaoLivroService.importar(entrada(ndjson), FormatoArquivo.NDJSON);
+
+        // Assert
+        assertEquals(4, resultado.getLinhasProcessadas());
+        assertEquals(2, resultado.getImportados());
+        assertEquals(2, resultado.getErros());
+        assertEquals(2, resultado.getDetalhesErros().get(0).getLinha());
+        assertTrue(resultado.getDetalhesErros().get(0).getMensagem().startsWith("JSON inválido"));
+        assertEquals(4, resultado.getDetalhesErros().get(1).getLinha());
+        assertEquals("isbn: ISBN deve conter 13 dígitos; quantidadeTotal: Quantidade deve ser pelo menos 1",
+                resultado.getDetalhesErros().get(1).getMensagem());
+        assertEquals(romance.getId(),
+                livroRepository.findByIsbn("9781111111113").orElseThrow().getCategoria().getId());
+    }
+
+    private static String isbn(int numero) {
+        return String.format("978%010d", numero);
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
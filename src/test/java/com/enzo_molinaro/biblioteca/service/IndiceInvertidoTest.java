@@ -0,0 +1,111 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceInvertidoTest {
+
+    private IndiceInvertido indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceInvertido();
+        indice.indexar(1L, "Memórias Póstumas de Brás Cubas", "Machado de Assis", "9788535910663");
+        indice.indexar(2L, "A Hora da Estrela", "Clarice Lispector", "9788532508126");
+        indice.indexar(3L, "Dom Casmurro", "Machado de Assis", "9788535902778");
+        indice.indexar(4L, "Machado de Assis: uma biografia", "Lúcia Miguel Pereira", "9788531409110");
+    }
+
+    @Test
+    @DisplayName("Deve ignorar acentos e maiúsculas na consulta e no texto indexado")
+    void deveIgnorarAcentos() {
+        assertEquals(List.of(1L), indice.buscar("memorias BRAS", 0, 10).livroIds());
+        assertEquals(List.of(1L), indice.buscar("Brás", 0, 10).livroIds());
+        assertEquals(List.of(4L), indice.buscar("lucia", 0, 10).livroIds());
+    }
+
+    @Test
+    @DisplayName("Deve casar prefixos e exigir todos os termos da consulta")
+    void deveCasarPrefixosComTodosOsTermos() {
+        assertEquals(List.of(2L), indice.buscar("clar lisp", 0, 10).livroIds());
+        assertEquals(List.of(3L), indice.buscar("machado casm", 0, 10).livroIds());
+        assertEquals(List.of(3L), indice.buscar("97885359027", 0, 10).livroIds());
+        assertTrue(indice.buscar("machado estrela", 0, 10).livroIds().isEmpty());
+        assertTrue(indice.buscar("  ?! ", 0, 10).livroIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve ordenar por relevância: título antes de autor, palavra inteira antes de prefixo")
+    void deveOrdenarPorRelevancia() {
+        // Act
+        IndiceInvertido.Resultado resultado = indice.buscar("machado", 0, 10);
+        IndiceInvertido.Resultado prefixo = indice.buscar("mach", 0, 10);
+
+        // Assert
+        // Livro 4 tem "machado" no título; 1 e 3 empatam no autor e seguem a ordem de indexação
+        assertEquals(List.of(4L, 1L, 3L), resultado.livroIds());
+        assertEquals(3, resultado.total());
+        assertEquals(List.of(4L, 1L, 3L), prefixo.livroIds());
+    }
+
+    @Test
+    @DisplayName("Deve paginar sobre a ordem de relevância mantendo o total")
+    void devePaginar() {
+        // Act
+        IndiceInvertido.Resultado segunda = indice.buscar("assis", 1, 1);
+        IndiceInvertido.Resultado alemDoFim = indice.buscar("assis", 5, 10);
+
+        // Assert
+        assertEquals(List.of(1L), segunda.livroIds());
+        assertEquals(3, segunda.total());
+        assertTrue(alemDoFim.livroIds().isEmpty());
+        assertEquals(3, alemDoFim.total());
+    }
+
+    @Test
+    @DisplayName("Deve substituir os termos ao reindexar e esquecer livros removidos")
+    void deveReindexarERemover() {
+        // Act
+        indice.indexar(2L, "A Paixão segundo G.H.", "Clarice Lispector", "9788532508126");
+        indice.remover(3L);
+
+        // Assert
+        assertTrue(indice.buscar("estrela", 0, 10).livroIds().isEmpty());
+        assertEquals(List.of(2L), indice.buscar("paixao", 0, 10).livroIds());
+        assertEquals(List.of(4L, 1L), indice.buscar("machado", 0, 10).livroIds());
+        assertFalse(indice.contem(3L));
+        assertEquals(3, indice.tamanho());
+    }
+
+    @Test
+    @DisplayName("Deve manter os resultados após compactar documentos removidos")
+    void deveCompactar() {
+        // Arrange
+        IndiceInvertido grande = new IndiceInvertido();
+        for (long id = 1; id <= 5_000; id++) {
+            grande.indexar(id, "Volume " + id, id % 2 == 0 ? "Autor Par" : "Autor Ímpar", String.valueOf(id));
+        }
+
+        // Act
+        // Reindexar e remover deixa mais de um quarto dos documentos marcados, o que dispara a compactação
+        for (long id = 1; id <= 2_000; id++) {
+            grande.indexar(id, "Volume " + id, "Autor Revisto", String.valueOf(id));
+        }
+        for (long id = 4_001; id <= 5_000; id++) {
+            grande.remover(id);
+        }
+
+        // Assert
+        assertEquals(4_000, grande.tamanho());
+        assertEquals(2_000, grande.buscar("revisto", 0, 10).total());
+        assertEquals(1_000, grande.buscar("par", 0, 10).total());
+        assertEquals(List.of(4_000L), grande.buscar("volume 4000", 0, 10).livroIds());
+        assertTrue(grande.buscar("volume 4500", 0, 10).livroIds().isEmpty());
+        assertTrue(grande.contem(1_234L));
+    }
+}
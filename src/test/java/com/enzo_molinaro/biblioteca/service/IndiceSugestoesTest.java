@@ -0,0 +1,102 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.enums.TipoSugestao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceSugestoesTest {
+
+    private IndiceSugestoes indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceSugestoes();
+        indice.indexar(1L, "Dom Casmurro", "Machado de Assis");
+        indice.indexar(2L, "Memórias Póstumas de Brás Cubas", "Machado de Assis");
+        indice.indexar(3L, "Machado de Assis: uma biografia", "Lúcia Miguel Pereira");
+        indice.indexar(4L, "Dom Quixote", "Miguel de Cervantes");
+        indice.indexar(5L, "Dom Casmurro", "Machado de Assis");
+    }
+
+    @Test
+    @DisplayName("Deve sugerir pelo início de qualquer palavra, ignorando acentos")
+    void deveSugerirPeloInicioDePalavras() {
+        assertEquals(List.of("Dom Casmurro"), textos(indice.sugerir("casm", 10)));
+        assertEquals(List.of("Memórias Póstumas de Brás Cubas"), textos(indice.sugerir("POSTU", 10)));
+        assertEquals(List.of("Memórias Póstumas de Brás Cubas"), textos(indice.sugerir("bras cu", 10)));
+        assertEquals(List.of("Lúcia Miguel Pereira"), textos(indice.sugerir("lucia", 10)));
+        assertTrue(indice.sugerir("asmurro", 10).isEmpty());
+        assertTrue(indice.sugerir(" - ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve priorizar quem começa pelo prefixo, depois quem tem mais livros")
+    void deveOrdenarSugestoes() {
+        // Act
+        List<IndiceSugestoes.Sugestao> machado = indice.sugerir("mach", 10);
+        List<IndiceSugestoes.Sugestao> miguel = indice.sugerir("miguel", 10);
+
+        // Assert
+        // Autor de três livros antes do título, e ambos começam por "mach"
+        assertEquals(List.of("Machado de Assis", "Machado de Assis: uma biografia"), textos(machado));
+        assertEquals(TipoSugestao.AUTOR, machado.get(0).tipo());
+        assertEquals(3, machado.get(0).livros());
+        assertEquals(TipoSugestao.TITULO, machado.get(1).tipo());
+        // "Miguel de Cervantes" começa por "miguel"; "Lúcia Miguel Pereira" só o contém
+        assertEquals(List.of("Miguel de Cervantes", "Lúcia Miguel Pereira"), textos(miguel));
+        assertEquals(1, indice.sugerir("dom", 1).size());
+    }
+
+    @Test
+    @DisplayName("Deve exigir a palavra inteira quando o prefixo termina em espaço")
+    void deveExigirPalavraInteira() {
+        assertEquals(List.of("Dom Casmurro", "Dom Quixote"), textos(indice.sugerir("dom ", 10)));
+        assertEquals(2, indice.sugerir("do", 10).size());
+        assertTrue(indice.sugerir("do ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve atualizar as contagens ao reindexar e remover livros")
+    void deveAtualizarContagens() {
+        // Act
+        indice.indexar(1L, "Dom Casmurro", "Outro Autor");
+        indice.remover(4L);
+
+        // Assert
+        assertEquals(2, indice.sugerir("machado", 10).get(0).livros());
+        assertEquals(List.of("Dom Casmurro"), textos(indice.sugerir("dom", 10)));
+        assertEquals(2, indice.sugerir("casmurro", 10).get(0).livros());
+        assertTrue(indice.sugerir("quixote", 10).isEmpty());
+        assertEquals(List.of("Outro Autor"), textos(indice.sugerir("outro", 10)));
+    }
+
+    @Test
+    @DisplayName("Deve manter a ordem das chaves ao intercalar textos novos no vetor ordenado")
+    void deveIntercalarTextosNovos() {
+        // Arrange
+        // Mais de 4.096 chaves novas: força algumas intercalações
+        for (long id = 100; id < 6_100; id++) {
+            indice.indexar(id, "Volume " + id + " da coleção", "Autor " + (id % 7));
+        }
+
+        // Act
+        List<IndiceSugestoes.Sugestao> volume = indice.sugerir("volume 6099", 10);
+        List<IndiceSugestoes.Sugestao> colecao = indice.sugerir("colec", 3);
+
+        // Assert
+        assertEquals(List.of("Volume 6099 da coleção"), textos(volume));
+        assertEquals(3, colecao.size());
+        assertEquals(857, indice.sugerir("autor 3", 1).get(0).livros());
+        assertEquals(List.of("Dom Casmurro"), textos(indice.sugerir("casmurro", 10)));
+        assertEquals(List.of("Volume 1234 da coleção"), textos(indice.sugerir("volume 1234 ", 10)));
+    }
+
+    private static List<String> textos(List<IndiceSugestoes.Sugestao> sugestoes) {
+        return sugestoes.stream().map(IndiceSugestoes.Sugestao::texto).toList();
+    }
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -35,6 +36,12 @@ class LivroServiceTest {
     @Mock
     private LivroMapper livroMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UnicidadeService unicidadeService;
+
     @InjectMocks
     private LivroService livroService;
 
@@ -75,7 +82,6 @@ class LivroServiceTest {
     @DisplayName("Deve criar um livro com sucesso")
     void deveCriarLivroComSucesso() {
         // Arrange
-        when(livroRepository.existsByIsbn(livroRequestDTO.getIsbn())).thenReturn(false);
         when(livroMapper.toEntity(livroRequestDTO)).thenReturn(livro);
         when(livroRepository.save(any(Livro.class))).thenReturn(livro);
         when(livroMapper.toResponseDTO(livro)).thenReturn(livroResponseDTO);
@@ -86,6 +92,7 @@ class LivroServiceTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(livroResponseDTO.getTitulo(), resultado.getTitulo());
+        verify(unicidadeService).validarIsbn(livroRequestDTO.getIsbn(), null);
         verify(livroRepository, times(1)).save(any(Livro.class));
     }
 
@@ -93,7 +100,8 @@ class LivroServiceTest {
     @DisplayName("Deve lançar exceção ao criar livro com ISBN duplicado")
     void deveLancarExcecaoAoCriarLivroComIsbnDuplicado() {
         // Arrange
-        when(livroRepository.existsByIsbn(livroRequestDTO.getIsbn())).thenReturn(true);
+        doThrow(new BusinessException("Já existe um livro cadastrado com o ISBN: " + livroRequestDTO.getIsbn()))
+                .when(unicidadeService).validarIsbn(livroRequestDTO.getIsbn(), null);
 
         // Act & Assert
         assertThrows(BusinessException.class, () -> livroService.criar(livroRequestDTO));
@@ -0,0 +1,254 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.LivroResponseDTO;
+import com.enzo_molinaro.biblioteca.dto.response.PaginaCursorDTO;
+import com.enzo_molinaro.biblioteca.dto.response.UsuarioResponseDTO;
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.exception.ResourceNotFoundException;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import com.enzo_molinaro.biblioteca.support.MaxQueries;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PaginacaoCursorIntegrationTest {
+
+    private static final int TOTAL_EMPRESTIMOS = 95;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ContadorDeQueries contador;
+    private Usuario maria;
+    private List<Emprestimo> emprestimos;
+
+    @BeforeEach
+    void setUp() {
+        List<Livro> livros = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Títulos repetidos: o ID desempata a ordenação
+            livros.add(Livro.builder()
+                    .isbn(String.format("978%010d", i))
+                    .titulo("Livro " + (char) ('A' + i % 7) + ": volume")
+                    .autor(i % 2 == 0 ? "Machado de Assis" : "Clarice Lispector")
+                    .quantidadeTotal(1)
+                    .quantidadeDisponivel(1)
+                    .ativo(i != 3)
+                    .build());
+        }
+        livros = livroRepository.saveAll(livros);
+
+        maria = usuarioRepository.save(usuario("Maria Souza", "maria@biblioteca.com", "12345678901"));
+        Usuario joao = usuarioRepository.save(usuario("João Silva", "joao@biblioteca.com", "98765432100"));
+        usuarioRepository.save(usuario("Maria Souza", "maria2@biblioteca.com", "11122233344"));
+
+        LocalDate hoje = LocalDate.now();
+        emprestimos = new ArrayList<>();
+        for (int i = 0; i < TOTAL_EMPRESTIMOS; i++) {
+            // Várias retiradas no mesmo dia: o ID desempata a ordenação
+            boolean devolvido = i % 4 == 0;
+            emprestimos.add(Emprestimo.builder()
+                    .livro(livros.get(i % livros.size()))
+                    .usuario(i % 3 == 0 ? joao : maria)
+                    .dataEmprestimo(hoje.minusDays(i % 9))
+                    .dataPrevistaDevolucao(hoje.minusDays(i % 9).plusDays(14))
+                    .dataDevolucao(devolvido ? hoje : null)
+                    .status(devolvido ? StatusEmprestimo.DEVOLVIDO : StatusEmprestimo.ATIVO)
+                    .build());
+        }
+        emprestimos = emprestimoRepository.saveAll(emprestimos);
+
+        entityManager.flush();
+        entityManager.clear();
+        contador = new ContadorDeQueries(entityManager.getEntityManagerFactory());
+    }
+
+    @Test
+    @DisplayName("Deve percorrer o histórico do usuário por cursor com uma consulta por página e sem repetir itens")
+    void devePercorrerEmprestimosDoUsuario() {
+        // Arrange
+        List<Long> esperados = emprestimos.stream()
+                .filter(e -> e.getUsuario().getId().equals(maria.getId()))
+                .sorted(Comparator.comparing(Emprestimo::getDataEmprestimo)
+                        .thenComparing(Emprestimo::getId).reversed())
+                .map(Emprestimo::getId)
+                .toList();
+
+        // Act
+        List<Long> lidos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        contador.zerar();
+        do {
+            PaginaCursorDTO<EmprestimoResponseDTO> pagina = emprestimoService.listar(null, maria.getId(), cursor, 7);
+            pagina.getConteudo().forEach(e -> lidos.add(e.getId()));
+            assertEquals(pagina.isTemProxima(), pagina.getProximoCursor() != null);
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        // Assert
+        // Por página: a verificação do usuário e uma única consulta, sem COUNT
+        assertEquals(2L * paginas, contador.consultas());
+        assertEquals(esperados, lidos);
+        assertEquals((esperados.size() + 6) / 7, paginas);
+    }
+
+    @Test
+    @DisplayName("Deve filtrar por status mantendo a ordem do mais recente ao mais antigo")
+    void devePercorrerEmprestimosPorStatus() {
+        // Act
+        List<EmprestimoResponseDTO> lidos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCursorDTO<EmprestimoResponseDTO> pagina =
+                    emprestimoService.listar(StatusEmprestimo.DEVOLVIDO, null, cursor, 10);
+            lidos.addAll(pagina.getConteudo());
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+
+        // Assert
+        assertEquals((TOTAL_EMPRESTIMOS + 3) / 4, lidos.size());
+        assertTrue(lidos.stream().allMatch(e -> e.getStatus() == StatusEmprestimo.DEVOLVIDO));
+        for (int i = 1; i < lidos.size(); i++) {
+            assertFalse(lidos.get(i).getDataEmprestimo().isAfter(lidos.get(i - 1).getDataEmprestimo()));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve paginar livros ativos e a busca por título com desempate por ID")
+    void devePercorrerLivros() {
+        // Act
+        List<LivroResponseDTO> ativos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCursorDTO<LivroResponseDTO> pagina = livroService.listarTodos(cursor, 4);
+            ativos.addAll(pagina.getConteudo());
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+
+        PaginaCursorDTO<LivroResponseDTO> primeira = livroService.buscar("clarice", null, 5);
+        PaginaCursorDTO<LivroResponseDTO> segunda = livroService.buscar("clarice", primeira.getProximoCursor(), 5);
+
+        // Assert
+        assertEquals(24, ativos.size());
+        assertEquals(ativos.stream()
+                        .sorted(Comparator.comparing(LivroResponseDTO::getTitulo).thenComparing(LivroResponseDTO::getId))
+                        .map(LivroResponseDTO::getId)
+                        .toList(),
+                ativos.stream().map(LivroResponseDTO::getId).toList());
+        assertEquals(ativos.size(), ativos.stream().map(LivroResponseDTO::getId).distinct().count());
+
+        assertEquals(5, primeira.getConteudo().size());
+        assertTrue(primeira.isTemProxima());
+        // 12 livros de Clarice, um deles inativo
+        assertEquals(5, segunda.getConteudo().size());
+        assertEquals(1, livroService.buscar("clarice", segunda.getProximoCursor(), 5).getConteudo().size());
+    }
+
+    @Test
+    @DisplayName("Deve paginar usuários com nomes iguais sem pular nenhum")
+    void devePercorrerUsuarios() {
+        // Act
+        PaginaCursorDTO<UsuarioResponseDTO> primeira = usuarioService.listarTodos(null, 2);
+        PaginaCursorDTO<UsuarioResponseDTO> segunda = usuarioService.listarTodos(primeira.getProximoCursor(), 2);
+        PaginaCursorDTO<UsuarioResponseDTO> busca = usuarioService.buscar("maria", primeira.getProximoCursor(), 10);
+
+        // Assert
+        assertEquals(List.of("João Silva", "Maria Souza"),
+                primeira.getConteudo().stream().map(UsuarioResponseDTO::getNome).toList());
+        assertEquals(1, segunda.getConteudo().size());
+        assertEquals("Maria Souza", segunda.getConteudo().get(0).getNome());
+        assertFalse(segunda.isTemProxima());
+        assertNull(segunda.getProximoCursor());
+        assertEquals(segunda.getConteudo().get(0).getId(), busca.getConteudo().get(0).getId());
+    }
+
+    @Test
+    @MaxQueries(4)
+    @DisplayName("Deve contar os empréstimos ativos da página de usuários numa consulta, sem carregar o histórico")
+    void deveContarEmprestimosAtivosDaPagina() {
+        // Arrange
+        long ativosDeMaria = emprestimos.stream()
+                .filter(e -> e.getUsuario().getId().equals(maria.getId()) && e.getDataDevolucao() == null)
+                .count();
+
+        // Act
+        PaginaCursorDTO<UsuarioResponseDTO> pagina = usuarioService.listarTodos(null, 10);
+        PaginaCursorDTO<UsuarioResponseDTO> busca = usuarioService.buscar("maria", null, 10);
+
+        // Assert
+        assertEquals(3, pagina.getConteudo().size());
+        UsuarioResponseDTO encontrada = busca.getConteudo().stream()
+                .filter(u -> u.getId().equals(maria.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(ativosDeMaria, encontrada.getEmprestimoAtivos());
+        // A homônima não tem empréstimos
+        assertEquals(List.of(0L), busca.getConteudo().stream()
+                .filter(u -> !u.getId().equals(maria.getId()))
+                .map(UsuarioResponseDTO::getEmprestimoAtivos)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Deve recusar cursor adulterado, tamanho fora do limite e usuário inexistente")
+    void deveValidarParametros() {
+        assertThrows(BusinessException.class, () -> emprestimoService.listar(null, null, "nao-e-um-cursor", 10));
+        assertThrows(BusinessException.class, () -> livroService.listarTodos(null, 0));
+        assertThrows(BusinessException.class,
+                () -> usuarioService.listarTodos(null, CursorPaginacao.TAMANHO_MAXIMO + 1));
+        assertThrows(ResourceNotFoundException.class, () -> emprestimoService.listar(null, 999_999L, null, 10));
+    }
+
+    private Usuario usuario(String nome, String email, String cpf) {
+        return Usuario.builder()
+                .nome(nome)
+                .email(email)
+                .cpf(cpf)
+                .tipo(TipoUsuario.PROFESSOR)
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.PainelDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingLivrosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingUsuariosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PainelServiceTest {
+
+    private static final long DURACAO_SECAO_MS = 200;
+
+    @Mock
+    private RelatorioService relatorioService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve gerar as seções em paralelo, no tempo da mais lenta")
+    void deveGerarSecoesEmParalelo() {
+        // Arrange
+        PainelService painelService = new PainelService(relatorioService, executor, 2_000);
+        simularSecoes();
+
+        // Act
+        long inicio = System.nanoTime();
+        PainelDTO painel = painelService.gerarPainel(10, 7);
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // Assert
+        assertTrue(painel.isCompleto());
+        assertTrue(painel.getSecoesIndisponiveis().isEmpty());
+        assertEquals(5L, painel.getGeral().getTotalLivros());
+        assertNotNull(painel.getLivrosMaisEmprestados());
+        assertNotNull(painel.getUsuariosMaisAtivos());
+        assertEquals(Map.of("Romance", 3L), painel.getLivrosPorCategoria());
+        // Em sequência seriam 5 x 200 ms
+        assertTrue(duracaoMs < 3 * DURACAO_SECAO_MS, "Painel levou " + duracaoMs + " ms");
+    }
+
+    @Test
+    @DisplayName("Deve entregar o painel parcial quando uma seção excede o tempo limite ou falha")
+    void deveEntregarPainelParcial() {
+        // Arrange
+        PainelService painelService = new PainelService(relatorioService, executor, 500);
+        simularSecoes();
+        doAnswer(demorar(5_000, new RankingUsuariosDTO())).when(relatorioService).relatorioUsuariosMaisAtivos(10);
+        doThrow(new IllegalStateException("conexão perdida")).when(relatorioService).relatorioLivrosPorCategoria();
+
+        // Act
+        long inicio = System.nanoTime();
+        PainelDTO painel = painelService.gerarPainel(10, 7);
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // Assert
+        assertFalse(painel.isCompleto());
+        assertEquals(Set.of("livrosPorCategoria", "usuariosMaisAtivos"), painel.getSecoesIndisponiveis().keySet());
+        assertTrue(painel.getSecoesIndisponiveis().get("usuariosMaisAtivos").contains("500 ms"));
+        assertNull(painel.getUsuariosMaisAtivos());
+        assertNull(painel.getLivrosPorCategoria());
+        assertNotNull(painel.getGeral());
+        assertNotNull(painel.getLivrosMaisEmprestados());
+        assertTrue(duracaoMs < 2_000, "Painel levou " + duracaoMs + " ms");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar limite inválido em vez de reportar a seção como indisponível")
+    void deveRejeitarLimiteInvalido() {
+        // Arrange
+        PainelService painelService = new PainelService(relatorioService, executor, 2_000);
+        simularSecoes();
+        when(relatorioService.relatorioLivrosMaisEmprestados(0))
+                .thenThrow(new BusinessException("Limite deve ser entre 1 e 100"));
+        when(relatorioService.relatorioUsuariosMaisAtivos(0))
+                .thenThrow(new BusinessException("Limite deve ser entre 1 e 100"));
+
+        // Act & Assert
+        BusinessException ex = assertThrows(BusinessException.class, () -> painelService.gerarPainel(0, 7));
+        assertEquals("Limite deve ser entre 1 e 100", ex.getMessage());
+    }
+
+    private void simularSecoes() {
+        lenient().when(relatorioService.gerarRelatorioGeral())
+                .thenAnswer(demorar(DURACAO_SECAO_MS, RelatorioDTO.builder().totalLivros(5L).build()));
+        lenient().when(relatorioService.relatorioLivrosMaisEmprestados(10))
+                .thenAnswer(demorar(DURACAO_SECAO_MS, new RankingLivrosDTO()));
+        lenient().when(relatorioService.relatorioUsuariosMaisAtivos(10))
+                .thenAnswer(demorar(DURACAO_SECAO_MS, new RankingUsuariosDTO()));
+        lenient().when(relatorioService.relatorioEmprestimosProximosDoVencimento(7))
+                .thenAnswer(demorar(DURACAO_SECAO_MS, List.of()));
+        lenient().when(relatorioService.relatorioLivrosPorCategoria())
+                .thenAnswer(demorar(DURACAO_SECAO_MS, Map.of("Romance", 3L)));
+    }
+
+    private static Answer<Object> demorar(long milissegundos, Object resultado) {
+        return invocacao -> {
+            Thread.sleep(milissegundos);
+            return resultado;
+        };
+    }
+}
@@ -0,0 +1,231 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.config.CacheConfig;
+import com.enzo_molinaro.biblioteca.dto.request.EmprestimoRequestDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingLivrosDTO;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sem {@code @Transactional}: a invalidação depende dos eventos publicados após o commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RelatorioCacheIntegrationTest {
+
+    private static final int REQUISICOES_SIMULTANEAS = 16;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private InvalidacaoRelatoriosService invalidacaoRelatoriosService;
+
+    @Autowired
+    private EstatisticaDiariaService estatisticaDiariaService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ContadorDeQueries contador;
+    private Livro livro;
+    private Usuario leitor;
+
+    @BeforeEach
+    void setUp() {
+        livro = livroRepository.save(Livro.builder()
+                .isbn("9788535902778")
+                .titulo("Dom Casmurro")
+                .autor("Machado de Assis")
+                .quantidadeTotal(3)
+                .quantidadeDisponivel(3)
+                .valorMultaDiaria(new BigDecimal("2.00"))
+                .build());
+        leitor = usuarioRepository.save(Usuario.builder()
+                .nome("Maria Silva")
+                .email("maria@biblioteca.com")
+                .cpf("12345678901")
+                .tipo(TipoUsuario.ESTUDANTE)
+                .build());
+
+        invalidacaoRelatoriosService.invalidarPendentes();
+        estatisticaDiariaService.consolidarPendentes();
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+        contador = new ContadorDeQueries(entityManagerFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+    }
+
+    @Test
+    @DisplayName("Deve responder pelo cache a segunda chamada com os mesmos parâmetros")
+    void deveResponderPeloCache() {
+        // Arrange
+        LocalDate hoje = LocalDate.now();
+        relatorioService.relatorioLivrosMaisEmprestados(5);
+        relatorioService.relatorioEmprestimosPorPeriodo(hoje.minusDays(30), hoje);
+
+        // Act
+        contador.zerar();
+        relatorioService.relatorioLivrosMaisEmprestados(5);
+        relatorioService.relatorioEmprestimosPorPeriodo(hoje.minusDays(30), hoje);
+        long consultasEmCache = contador.consultas();
+
+        relatorioService.relatorioLivrosMaisEmprestados(6);
+        long consultasOutroLimite = contador.consultas();
+
+        // Assert
+        assertEquals(0, consultasEmCache);
+        assertEquals(1, consultasOutroLimite);
+    }
+
+    @Test
+    @DisplayName("Deve calcular uma única vez para requisições simultâneas pela mesma chave")
+    void deveCoalescerRequisicoesSimultaneas() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(REQUISICOES_SIMULTANEAS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<RankingLivrosDTO>> respostas = new ArrayList<>();
+        contador.zerar();
+
+        // Act
+        try {
+            for (int i = 0; i < REQUISICOES_SIMULTANEAS; i++) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return relatorioService.relatorioLivrosMaisEmprestados(10);
+                }));
+            }
+            largada.countDown();
+            for (Future<RankingLivrosDTO> resposta : respostas) {
+                resposta.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(1, contador.consultas());
+        RankingLivrosDTO primeira = respostas.get(0).get();
+        for (Future<RankingLivrosDTO> resposta : respostas) {
+            assertSame(primeira, resposta.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recalcular os relatórios de empréstimos só após a invalidação periódica")
+    void deveInvalidarAposEmprestimo() {
+        // Arrange
+        LocalDate hoje = LocalDate.now();
+        RankingLivrosDTO antes = relatorioService.relatorioLivrosMaisEmprestados(5);
+        Map<String, Long> categoriasAntes = relatorioService.relatorioLivrosPorCategoria();
+
+        // Act
+        emprestimoService.criar(EmprestimoRequestDTO.builder()
+                .livroId(livro.getId())
+                .usuarioId(leitor.getId())
+                .build());
+        RankingLivrosDTO antesDaLimpeza = relatorioService.relatorioLivrosMaisEmprestados(5);
+
+        invalidacaoRelatoriosService.invalidarPendentes();
+        // O relatório por período soma a consolidação diária, que descarta o próprio cache
+        estatisticaDiariaService.consolidarPendentes();
+        RankingLivrosDTO depois = relatorioService.relatorioLivrosMaisEmprestados(5);
+        Map<String, Object> periodo = relatorioService.relatorioEmprestimosPorPeriodo(hoje, hoje.plusDays(60));
+
+        // Assert
+        assertTrue(antes.getLivrosMaisEmprestados().isEmpty());
+        assertSame(antes, antesDaLimpeza);
+        assertEquals(1, depois.getLivrosMaisEmprestados().size());
+        assertEquals(1L, periodo.get("totalEmprestimos"));
+        // Empréstimos não alteram a distribuição por categoria
+        assertSame(categoriasAntes, relatorioService.relatorioLivrosPorCategoria());
+    }
+
+    @Test
+    @DisplayName("Não deve guardar um relatório cujo cálculo começou antes da invalidação")
+    void deveDescartarCalculoEmAndamentoNaInvalidacao() throws Exception {
+        // Arrange
+        Cache cache = cacheManager.getCache(CacheConfig.LIVROS_MAIS_EMPRESTADOS);
+        AtomicReference<String> dados = new AtomicReference<>("antes do commit");
+        AtomicInteger calculos = new AtomicInteger();
+        CountDownLatch calculando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Act
+        Future<String> lento;
+        try {
+            // Relatório pesado: lê os dados e só termina depois do commit e da limpeza
+            lento = executor.submit(() -> cache.get("ranking", () -> {
+                String lido = dados.get();
+                calculos.incrementAndGet();
+                calculando.countDown();
+                liberar.await();
+                return lido;
+            }));
+            calculando.await();
+            dados.set("depois do commit");
+            cache.clear();
+            liberar.countDown();
+            lento.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        // O cálculo antigo é descartado e refeito uma vez, já com os dados do commit
+        assertEquals("depois do commit", lento.get());
+        assertEquals(2, calculos.get());
+        assertEquals("depois do commit", cache.get("ranking", String.class));
+    }
+}
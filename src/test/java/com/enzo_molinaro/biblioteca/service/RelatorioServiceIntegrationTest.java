@@ -0,0 +1,202 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.LivroRankingDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingLivrosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RankingUsuariosDTO;
+import com.enzo_molinaro.biblioteca.dto.response.RelatorioDTO;
+import com.enzo_molinaro.biblioteca.dto.response.UsuarioRankingDTO;
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RelatorioServiceIntegrationTest {
+
+    private static final int TOTAL_LIVROS = 200;
+    private static final int TOTAL_USUARIOS = 100;
+    private static final int TOTAL_EMPRESTIMOS = 5_000;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private ContadorDeQueries contador;
+
+    @BeforeEach
+    void setUp() {
+        List<Livro> livros = new ArrayList<>();
+        for (int i = 0; i < TOTAL_LIVROS; i++) {
+            livros.add(Livro.builder()
+                    .isbn(String.format("978%010d", i))
+                    .titulo("Livro " + i)
+                    .autor("Autor " + (i % 20))
+                    .quantidadeTotal(10)
+                    .quantidadeDisponivel(10)
+                    .valorMultaDiaria(new BigDecimal("1.50"))
+                    .build());
+        }
+        livros = livroRepository.saveAll(livros);
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < TOTAL_USUARIOS; i++) {
+            usuarios.add(Usuario.builder()
+                    .nome("Usuário " + i)
+                    .email("usuario" + i + "@biblioteca.com")
+                    .cpf(String.format("%011d", i))
+                    .tipo(TipoUsuario.ESTUDANTE)
+                    .build());
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+
+        // Distribuição enviesada: livros e usuários de índice baixo recebem mais empréstimos
+        List<Emprestimo> emprestimos = new ArrayList<>();
+        for (int i = 0; i < TOTAL_EMPRESTIMOS; i++) {
+            Livro livro = livros.get((int) Math.sqrt(i * (double) i / TOTAL_EMPRESTIMOS) % TOTAL_LIVROS);
+            Usuario usuario = usuarios.get((i * i) % TOTAL_USUARIOS);
+            emprestimos.add(Emprestimo.builder()
+                    .livro(livro)
+                    .usuario(usuario)
+                    .dataEmprestimo(LocalDate.now().minusDays(30))
+                    .dataPrevistaDevolucao(LocalDate.now().minusDays(16))
+                    .dataDevolucao(LocalDate.now().minusDays(20))
+                    .status(StatusEmprestimo.DEVOLVIDO)
+                    .build());
+        }
+        emprestimoRepository.saveAll(emprestimos);
+
+        // Empréstimos em aberto: metade dentro do prazo, metade em atraso com multa já lançada
+        for (int i = 0; i < 20; i++) {
+            boolean atrasado = i % 2 == 0;
+            emprestimoRepository.save(Emprestimo.builder()
+                    .livro(livros.get(i))
+                    .usuario(usuarios.get(i))
+                    .dataEmprestimo(LocalDate.now().minusDays(20))
+                    .dataPrevistaDevolucao(atrasado ? LocalDate.now().minusDays(6) : LocalDate.now().plusDays(6))
+                    .status(StatusEmprestimo.ATIVO)
+                    .valorMulta(atrasado ? new BigDecimal("9.00") : null)
+                    .build());
+        }
+        Livro esgotado = livros.get(TOTAL_LIVROS - 1);
+        esgotado.setQuantidadeDisponivel(0);
+        livroRepository.save(esgotado);
+
+        entityManager.flush();
+        entityManager.clear();
+        // Os dados deste teste são desfeitos no rollback: nada pode vir de um cache anterior
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+
+        contador = new ContadorDeQueries(entityManager.getEntityManagerFactory());
+        contador.zerar();
+    }
+
+    @Test
+    @DisplayName("Deve gerar ranking de livros com uma única consulta SQL")
+    void deveGerarRankingDeLivrosComUmaUnicaConsulta() {
+        // Act
+        RankingLivrosDTO ranking = relatorioService.relatorioLivrosMaisEmprestados(10);
+
+        // Assert
+        List<LivroRankingDTO> livros = ranking.getLivrosMaisEmprestados();
+        assertEquals(10, livros.size());
+        for (int i = 1; i < livros.size(); i++) {
+            assertTrue(livros.get(i - 1).getQuantidadeEmprestimos() >= livros.get(i).getQuantidadeEmprestimos());
+        }
+        assertNotNull(livros.get(0).getTitulo());
+        assertEquals(1, contador.consultas());
+        assertEquals(0, contador.entidadesCarregadas());
+    }
+
+    @Test
+    @DisplayName("Deve gerar ranking de usuários com uma única consulta SQL")
+    void deveGerarRankingDeUsuariosComUmaUnicaConsulta() {
+        // Act
+        RankingUsuariosDTO ranking = relatorioService.relatorioUsuariosMaisAtivos(5);
+
+        // Assert
+        List<UsuarioRankingDTO> usuarios = ranking.getUsuariosMaisAtivos();
+        assertEquals(5, usuarios.size());
+        long total = emprestimoRepository.findUsuariosMaisAtivos(
+                PageRequest.of(0, TOTAL_USUARIOS)).stream()
+                .mapToLong(UsuarioRankingDTO::getQuantidadeEmprestimos)
+                .sum();
+        assertEquals(TOTAL_EMPRESTIMOS + 20, total);
+        assertEquals(2, contador.consultas());
+        assertEquals(0, contador.entidadesCarregadas());
+    }
+
+    @Test
+    @DisplayName("Deve reconciliar o relatório geral com uma única consulta agregada")
+    void deveReconciliarRelatorioGeralComUmaUnicaConsulta() {
+        // Act
+        RelatorioDTO relatorio = estatisticasService.reconciliar();
+
+        // Assert
+        assertEquals(TOTAL_LIVROS, relatorio.getTotalLivros());
+        assertEquals(TOTAL_USUARIOS, relatorio.getTotalUsuarios());
+        assertEquals(TOTAL_EMPRESTIMOS + 20, relatorio.getTotalEmprestimos());
+        assertEquals(20, relatorio.getEmprestimosAtivos());
+        assertEquals(10, relatorio.getEmprestimosAtrasados());
+        assertEquals(0, new BigDecimal("90.00").compareTo(relatorio.getMultasAcumuladas()));
+        assertEquals(1, relatorio.getLivrosIndisponiveis());
+        assertEquals(1, contador.consultas());
+        assertEquals(0, contador.entidadesCarregadas());
+
+        // Após a reconciliação o relatório é respondido da memória, sem acessar o banco
+        RelatorioDTO emMemoria = relatorioService.gerarRelatorioGeral();
+        assertEquals(relatorio.getTotalEmprestimos(), emMemoria.getTotalEmprestimos());
+        assertEquals(relatorio.getEmprestimosAtrasados(), emMemoria.getEmprestimosAtrasados());
+        assertEquals(0, relatorio.getMultasAcumuladas().compareTo(emMemoria.getMultasAcumuladas()));
+        assertEquals(1, contador.consultas());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar limite fora do intervalo permitido")
+    void deveRejeitarLimiteInvalido() {
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> relatorioService.relatorioLivrosMaisEmprestados(0));
+        assertThrows(BusinessException.class, () -> relatorioService.relatorioUsuariosMaisAtivos(1_000));
+    }
+}
@@ -0,0 +1,147 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.entity.Categoria;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.exception.BusinessException;
+import com.enzo_molinaro.biblioteca.repository.CategoriaRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import com.enzo_molinaro.biblioteca.support.ContadorDeQueries;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UnicidadeServiceIntegrationTest {
+
+    @Autowired
+    private UnicidadeService unicidadeService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Usuario maria;
+    private Categoria romance;
+    private Livro domCasmurro;
+
+    @BeforeEach
+    void setUp() {
+        maria = usuarioRepository.save(Usuario.builder()
+                .nome("Maria Silva")
+                .email("maria@biblioteca.com")
+                .cpf("12345678901")
+                .tipo(TipoUsuario.PROFESSOR)
+                .limiteEmprestimos(5)
+                .ativo(true)
+                .build());
+        romance = categoriaRepository.save(Categoria.builder().nome("Romance").build());
+        domCasmurro = livroRepository.save(Livro.builder()
+                .isbn("9788535902778")
+                .titulo("Dom Casmurro")
+                .autor("Machado de Assis")
+                .categoria(romance)
+                .quantidadeTotal(2)
+                .quantidadeDisponivel(2)
+                .ativo(true)
+                .build());
+
+        // Carga a partir do banco, como na inicialização
+        unicidadeService.reconstruir();
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioRepository.delete(maria);
+        livroRepository.delete(domCasmurro);
+        categoriaRepository.delete(romance);
+    }
+
+    @Test
+    @DisplayName("Não deve consultar o banco para email, CPF e ISBN certamente novos")
+    void naoDeveConsultarValoresNovos() {
+        // Arrange
+        ContadorDeQueries contador = new ContadorDeQueries(entityManagerFactory);
+        contador.zerar();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            unicidadeService.validarUsuario("leitor" + i + "@biblioteca.com", String.format("%011d", 50_000_000_000L + i), null);
+            unicidadeService.validarIsbn(String.format("978%010d", i), null);
+        }
+        Set<String> cadastrados = unicidadeService.isbnsCadastrados(List.of("9780000000500", "9780000000501"));
+
+        // Assert
+        // Com ~1% de falsos positivos, no máximo alguns chegam ao banco
+        contador.assertNoMaximo(6);
+        assertTrue(cadastrados.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve recusar email, CPF e ISBN de outro cadastro com uma consulta por entidade")
+    void deveRecusarValoresDeOutroCadastro() {
+        // Arrange
+        ContadorDeQueries contador = new ContadorDeQueries(entityManagerFactory);
+        contador.zerar();
+
+        // Act & Assert
+        BusinessException email = assertThrows(BusinessException.class,
+                () -> unicidadeService.validarUsuario("maria@biblioteca.com", "98765432100", null));
+        BusinessException cpf = assertThrows(BusinessException.class,
+                () -> unicidadeService.validarUsuario("outra@biblioteca.com", "12345678901", null));
+        BusinessException isbn = assertThrows(BusinessException.class,
+                () -> unicidadeService.validarIsbn("9788535902778", null));
+
+        contador.assertNoMaximo(3);
+        assertTrue(email.getMessage().contains("email"));
+        assertTrue(cpf.getMessage().contains("CPF"));
+        assertTrue(isbn.getMessage().contains("9788535902778"));
+        assertEquals(Set.of("9788535902778"),
+                unicidadeService.isbnsCadastrados(List.of("9788535902778", "9780000000999")));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar os próprios valores na atualização e enxergar gravações feitas depois da carga")
+    void deveAceitarPropriosValores() {
+        // Act & Assert
+        assertDoesNotThrow(() -> unicidadeService.validarUsuario("maria@biblioteca.com", "12345678901", maria.getId()));
+        assertDoesNotThrow(() -> unicidadeService.validarIsbn("9788535902778", domCasmurro.getId()));
+
+        // Gravado direto pelo repositório, sem reconstruir os filtros
+        Usuario joao = usuarioRepository.save(Usuario.builder()
+                .nome("João Souza")
+                .email("joao@biblioteca.com")
+                .cpf("10987654321")
+                .tipo(TipoUsuario.ESTUDANTE)
+                .build());
+        try {
+            assertThrows(BusinessException.class,
+                    () -> unicidadeService.validarUsuario("joao@biblioteca.com", "55555555555", null));
+            assertThrows(BusinessException.class,
+                    () -> unicidadeService.validarUsuario("novo@biblioteca.com", "10987654321", null));
+        } finally {
+            usuarioRepository.delete(joao);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.enzo_molinaro.biblioteca.service;
+
+import com.enzo_molinaro.biblioteca.dto.response.EmprestimoResponseDTO;
+import com.enzo_molinaro.biblioteca.entity.Emprestimo;
+import com.enzo_molinaro.biblioteca.entity.Livro;
+import com.enzo_molinaro.biblioteca.entity.Usuario;
+import com.enzo_molinaro.biblioteca.enums.StatusEmprestimo;
+import com.enzo_molinaro.biblioteca.enums.TipoUsuario;
+import com.enzo_molinaro.biblioteca.repository.EmprestimoRepository;
+import com.enzo_molinaro.biblioteca.repository.LivroRepository;
+import com.enzo_molinaro.biblioteca.repository.TravaAgendamentoRepository;
+import com.enzo_molinaro.biblioteca.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lotes de 2 para que uma varredura precise de vários UPDATEs.
+ */
+@SpringBootTest(properties = "biblioteca.emprestimos.atrasos.tamanho-lote=2")
+@ActiveProfiles("test")
+class VarreduraAtrasosServiceIntegrationTest {
+
+    private static final LocalDate HOJE = LocalDate.now();
+
+    @Autowired
+    private VarreduraAtrasosService varreduraAtrasosService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private TravaAgendamentoRepository travaAgendamentoRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Livro livro;
+    private Usuario leitor;
+
+    @BeforeEach
+    void setUp() {
+        livro = livroRepository.save(Livro.builder()
+                .isbn("9788535902778")
+                .titulo("Dom Casmurro")
+                .autor("Machado de Assis")
+                .quantidadeTotal(10)
+                .quantidadeDisponivel(10)
+                .valorMultaDiaria(new BigDecimal("1.50"))
+                .build());
+        leitor = usuarioRepository.save(Usuario.builder()
+                .nome("Maria Silva")
+                .email("maria@biblioteca.com")
+                .cpf("12345678901")
+                .tipo(TipoUsuario.PROFESSOR)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        jdbcTemplate.update("UPDATE travas_agendamento SET dono = NULL, expira_em = CURRENT_TIMESTAMP");
+    }
+
+    @Test
+    @DisplayName("Deve marcar os vencidos como atrasados em lotes, com a multa corrida, uma única vez por dia")
+    void deveMarcarVencidosEmLotes() {
+        // Arrange
+        List<Emprestimo> vencidos = new ArrayList<>();
+        for (int dias = 1; dias <= 5; dias++) {
+            vencidos.add(emprestimo(HOJE.minusDays(dias), null, dias % 2 == 0 ? StatusEmprestimo.RENOVADO : StatusEmprestimo.ATIVO));
+        }
+        emprestimoRepository.saveAll(vencidos);
+        Emprestimo noPrazo = emprestimoRepository.save(emprestimo(HOJE, null, StatusEmprestimo.ATIVO));
+        Emprestimo devolvido = emprestimoRepository.save(emprestimo(HOJE.minusDays(3), HOJE.minusDays(1), StatusEmprestimo.DEVOLVIDO));
+
+        // Act
+        int primeira = varreduraAtrasosService.varrer(HOJE);
+        int repetida = varreduraAtrasosService.varrer(HOJE);
+        int diaSeguinte = varreduraAtrasosService.varrer(HOJE.plusDays(1));
+
+        // Assert
+        assertEquals(5, primeira);
+        assertEquals(0, repetida);
+        // Todos continuam atrasados; só a multa corrida muda (e o que venceu hoje entra)
+        assertEquals(6, diaSeguinte);
+
+        Emprestimo tresDias = emprestimoRepository.findById(vencidos.get(2).getId()).orElseThrow();
+        assertEquals(StatusEmprestimo.ATRASADO, tresDias.getStatus());
+        // 4 dias de atraso em HOJE + 1, a R$ 1,50 por dia
+        assertEquals(0, new BigDecimal("6.00").compareTo(tresDias.getValorMulta()));
+        assertEquals(vencidos.get(2).getVersao() + 2, tresDias.getVersao());
+
+        assertEquals(StatusEmprestimo.ATRASADO, emprestimoRepository.findById(noPrazo.getId()).orElseThrow().getStatus());
+        Emprestimo aindaDevolvido = emprestimoRepository.findById(devolvido.getId()).orElseThrow();
+        assertEquals(StatusEmprestimo.DEVOLVIDO, aindaDevolvido.getStatus());
+        assertNull(aindaDevolvido.getValorMulta());
+    }
+
+    @Test
+    @DisplayName("Não deve varrer enquanto outro nó detém a trava, e deve assumi-la quando o prazo vencer")
+    void deveRespeitarTravaDeOutroNo() {
+        // Arrange
+        Emprestimo vencido = emprestimoRepository.save(emprestimo(HOJE.minusDays(2), null, StatusEmprestimo.ATIVO));
+        assertTrue(travaAgendamentoRepository.adquirir(VarreduraAtrasosService.TRAVA, "outro-no", Duration.ofMinutes(5)));
+
+        // Act
+        int comTravaAlheia = varreduraAtrasosService.varrer(HOJE);
+        StatusEmprestimo statusComTravaAlheia = emprestimoRepository.findById(vencido.getId()).orElseThrow().getStatus();
+
+        // O outro nó caiu sem liberar: a trava vence
+        jdbcTemplate.update("UPDATE travas_agendamento SET expira_em = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP)");
+        int aposVencer = varreduraAtrasosService.varrer(HOJE);
+
+        // Assert
+        assertEquals(-1, comTravaAlheia);
+        assertEquals(StatusEmprestimo.ATIVO, statusComTravaAlheia);
+        assertEquals(1, aposVencer);
+        // Liberada ao fim da varredura
+        assertTrue(travaAgendamentoRepository.adquirir(VarreduraAtrasosService.TRAVA, "outro-no", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Deve listar como atrasados os já marcados e os vencidos desde a última varredura")
+    void deveListarAtrasadosPorStatus() {
+        // Arrange
+        Emprestimo marcado = emprestimoRepository.save(emprestimo(HOJE.minusDays(4), null, StatusEmprestimo.ATIVO));
+        varreduraAtrasosService.varrer(HOJE);
+        Emprestimo venceuDepois = emprestimoRepository.save(emprestimo(HOJE.minusDays(1), null, StatusEmprestimo.RENOVADO));
+        emprestimoRepository.save(emprestimo(HOJE.plusDays(3), null, StatusEmprestimo.ATIVO));
+
+        // Act
+        List<EmprestimoResponseDTO> atrasados = emprestimoService.listarAtrasados();
+
+        // Assert
+        assertEquals(List.of(marcado.getId(), venceuDepois.getId()),
+                atrasados.stream().map(EmprestimoResponseDTO::getId).sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Deve cobrar na devolução a multa de todos os dias de atraso, com ou sem varredura anterior")
+    void deveCalcularMultaFinalNaDevolucao() {
+        // Arrange
+        Emprestimo semVarredura = emprestimoRepository.save(emprestimo(HOJE.minusDays(4), null, StatusEmprestimo.ATIVO));
+        // Varredura de dois dias atrás: multa corrida de 2 dias, já defasada
+        Emprestimo varridoAntes = emprestimoRepository.save(emprestimo(HOJE.minusDays(4), null, StatusEmprestimo.ATIVO));
+        Emprestimo noPrazo = emprestimoRepository.save(emprestimo(HOJE.plusDays(1), null, StatusEmprestimo.ATIVO));
+        jdbcTemplate.update("UPDATE livros SET quantidade_disponivel = 7 WHERE id = ?", livro.getId());
+        varreduraAtrasosService.varrer(HOJE.minusDays(2));
+        jdbcTemplate.update("UPDATE emprestimos SET status = 'ATIVO', valor_multa = NULL WHERE id = ?", semVarredura.getId());
+
+        // Act
+        EmprestimoResponseDTO devolvidoSemVarredura = emprestimoService.devolver(semVarredura.getId());
+        EmprestimoResponseDTO devolvidoAposVarredura = emprestimoService.devolver(varridoAntes.getId());
+        EmprestimoResponseDTO devolvidoNoPrazo = emprestimoService.devolver(noPrazo.getId());
+
+        // Assert
+        // 4 dias de atraso a R$ 1,50 por dia
+        assertEquals(0, new BigDecimal("6.00").compareTo(devolvidoSemVarredura.getValorMulta()));
+        assertEquals(0, new BigDecimal("6.00").compareTo(devolvidoAposVarredura.getValorMulta()));
+        assertEquals(0, new BigDecimal("6.00").compareTo(
+                emprestimoRepository.findById(varridoAntes.getId()).orElseThrow().getValorMulta()));
+        assertNull(devolvidoNoPrazo.getValorMulta());
+    }
+
+    private Emprestimo emprestimo(LocalDate dataPrevista, LocalDate dataDevolucao, StatusEmprestimo status) {
+        return Emprestimo.builder()
+                .livro(livro)
+                .usuario(leitor)
+                .dataEmprestimo(dataPrevista.minusDays(14))
+                .dataPrevistaDevolucao(dataPrevista)
+                .dataDevolucao(dataDevolucao)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.enzo_molinaro.biblioteca.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Conta as instruções SQL preparadas pelo Hibernate entre {@link #zerar()} e a verificação.
+ * Requer {@code hibernate.generate_statistics=true} (ativo no perfil {@code test}).
+ */
+public class ContadorDeQueries {
+
+    private final Statistics statistics;
+
+    public ContadorDeQueries(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public void zerar() {
+        statistics.clear();
+    }
+
+    public long consultas() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    public long entidadesCarregadas() {
+        return statistics.getEntityLoadCount();
+    }
+
+    public void assertNoMaximo(long limite) {
+        long executadas = consultas();
+        assertTrue(executadas <= limite,
+                "Esperado no máximo " + limite + " instruções SQL, mas foram executadas " + executadas);
+    }
+}
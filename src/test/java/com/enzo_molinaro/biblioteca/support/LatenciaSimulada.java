@@ -0,0 +1,28 @@
+package com.enzo_molinaro.biblioteca.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Acrescenta a cada instrução SQL uma espera fixa, como a ida e volta de rede até o MySQL, que o
+ * H2 em memória não tem. Registrado em {@code hibernate.session_factory.statement_inspector}.
+ */
+public class LatenciaSimulada implements StatementInspector {
+
+    private static volatile long latenciaMs = 0;
+
+    public static void definir(long milissegundos) {
+        latenciaMs = milissegundos;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (latenciaMs > 0) {
+            try {
+                Thread.sleep(latenciaMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+}
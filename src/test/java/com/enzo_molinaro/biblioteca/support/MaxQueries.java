@@ -0,0 +1,21 @@
+package com.enzo_molinaro.biblioteca.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Falha o teste se o corpo dele executar mais que {@link #value()} instruções SQL pelo Hibernate,
+ * contando só as da thread do teste (as requisições do MockMvc rodam nela). O preparo dos dados
+ * fica no {@code @BeforeEach}, que não entra na conta. Na classe, vale para todos os testes.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(OrcamentoDeQueriesExtension.class)
+public @interface MaxQueries {
+
+    int value();
+}
@@ -0,0 +1,41 @@
+package com.enzo_molinaro.biblioteca.support;
+
+import com.enzo_molinaro.biblioteca.config.MonitorSql;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Aplica o {@link MaxQueries}: abre um escopo do {@link MonitorSql} em volta do corpo do teste.
+ */
+public class OrcamentoDeQueriesExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(OrcamentoDeQueriesExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), MonitorSql.iniciar());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        MonitorSql.Consumo consumo = context.getStore(NAMESPACE).remove(context.getUniqueId(), MonitorSql.Consumo.class);
+        consumo.encerrar();
+
+        int limite = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxQueries.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), MaxQueries.class))
+                .map(MaxQueries::value)
+                .orElseThrow();
+        if (consumo.consultas() > limite) {
+            String maisRepetida = consumo.maisRepetida()
+                    .map(instrucao -> "\nMais repetida (" + instrucao.getValue() + "x): " + instrucao.getKey())
+                    .orElse("");
+            fail("Esperado no máximo " + limite + " instruções SQL, mas foram executadas "
+                    + consumo.consultas() + maisRepetida);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.enzo_molinaro.biblioteca.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guarda as instruções SQL geradas pelo Hibernate na thread atual, entre {@link #iniciar()} e
+ * {@link #encerrar()}. Registrado em {@code hibernate.session_factory.statement_inspector}.
+ */
+public class RegistroDeSql implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> INSTRUCOES = new ThreadLocal<>();
+
+    public static void iniciar() {
+        INSTRUCOES.set(new ArrayList<>());
+    }
+
+    public static List<String> encerrar() {
+        List<String> instrucoes = INSTRUCOES.get();
+        INSTRUCOES.remove();
+        return instrucoes == null ? List.of() : instrucoes;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> instrucoes = INSTRUCOES.get();
+        if (instrucoes != null) {
+            instrucoes.add(sql);
+        }
+        return sql;
+    }
+}